@@ -289,7 +289,7 @@ public class TestExample {
 		for (int i = 0; i < 1; i++) {
 			edgeswitch[i] = new EdgeSwitch("Edge" + i, NetworkConstants.EDGE_LEVEL, dc);
 			// edgeswitch[i].uplinkswitches.add(null);
-			dc.Switchlist.put(edgeswitch[i].getId(), edgeswitch[i]);
+			dc.registerSwitch(edgeswitch[i]);
 			// aggswitch[(int)
 			// (i/Constants.AggSwitchPort)].downlinkswitches.add(edgeswitch[i]);
 		}
@@ -298,9 +298,7 @@ public class TestExample {
 			NetworkHost hs1 = (NetworkHost) hs;
 			hs1.bandwidth = NetworkConstants.BandWidthEdgeHost;
 			int switchnum = (int) (hs.getId() / NetworkConstants.EdgeSwitchPort);
-			edgeswitch[switchnum].hostlist.put(hs.getId(), hs1);
-			dc.HostToSwitchid.put(hs.getId(), edgeswitch[switchnum].getId());
-			hs1.sw = edgeswitch[switchnum];
+			dc.registerHost(hs1, edgeswitch[switchnum]);
 			List<NetworkHost> hslist = hs1.sw.fintimelistHost.get(0D);
 			if (hslist == null) {
 				hslist = new ArrayList<NetworkHost>();
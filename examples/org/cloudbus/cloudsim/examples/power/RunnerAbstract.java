@@ -26,6 +26,7 @@ import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThresho
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelationIncremental;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyRandomSelection;
@@ -192,7 +193,7 @@ public abstract class RunnerAbstract {
 					Constants.OUTPUT_CSV,
 					outputFolder);
 			
-			BwHelper.outputMigrationFile.close();
+			BwHelper.closeMigrationLog();
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -311,6 +312,9 @@ public abstract class RunnerAbstract {
 		if (vmSelectionPolicyName.equals("mc")) {
 			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelation(
 					new PowerVmSelectionPolicyMinimumMigrationTime());
+		} else if (vmSelectionPolicyName.equals("mci")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelationIncremental(
+					new PowerVmSelectionPolicyMinimumMigrationTime());
 		} else if (vmSelectionPolicyName.equals("mmt")) {
 			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
 		} else if (vmSelectionPolicyName.equals("mu")) {
@@ -6,8 +6,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -38,7 +43,6 @@ public class BwHelper extends Helper
     public final static boolean BestFitHost = true;
     public final static boolean BestFitVM = false;
     public final static boolean AllData = false;
-    public static int dimension;
     public static List<Host> oldHostList;
     public static double totalTransmisionEnergy = 0;
     public final static double LOW_BW = 80000000;
@@ -52,6 +56,7 @@ public class BwHelper extends Helper
     public static final double rebootedTypeOnePower = 0.000425;  //(102watts*30sec/2)
     public static final double rebootedTypeTwoPower = 0.000483;  //(116watts*30sec/2)
     public static ArrayList<Integer> switchedOffHosts;
+    private static ExecutorService migrationLogExecutor;
         
 	
 	private static void createBWList(int hostsNumber)
@@ -80,6 +85,77 @@ public class BwHelper extends Helper
         return result;
     }
 	
+    /**
+     * Writes lines to the migration file from a background thread, so that the simulation does
+     * not wait for the file.
+     * 
+     * @param lines the lines
+     */
+    public static synchronized void writeMigrationLog(final List<String> lines)
+    {
+        if (lines.isEmpty() || outputMigrationFile == null)
+        {
+            return;
+        }
+        if (migrationLogExecutor == null)
+        {
+            migrationLogExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "MigrationLog");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        final BufferedWriter file = outputMigrationFile;
+        migrationLogExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try
+                {
+                    for (String line : lines)
+                    {
+                        file.write(line);
+                        file.newLine();
+                    }
+                }
+                catch (IOException e)
+                {
+                    e.printStackTrace();
+                    Log.printLine("Unwanted errors happen");
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for the pending lines of the migration file to be written and closes the file.
+     * 
+     * @throws IOException if the file cannot be closed
+     */
+    public static synchronized void closeMigrationLog() throws IOException
+    {
+        if (migrationLogExecutor != null)
+        {
+            migrationLogExecutor.shutdown();
+            try
+            {
+                migrationLogExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            migrationLogExecutor = null;
+        }
+        if (outputMigrationFile != null)
+        {
+            outputMigrationFile.close();
+            outputMigrationFile = null;
+        }
+    }
+	
 	//@override;
 	public static List<PowerHost> createHostList(int hostsNumber) {
 		createBWList(hostsNumber);
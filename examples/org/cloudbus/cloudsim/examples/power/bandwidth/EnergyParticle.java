@@ -1,9 +0,0 @@
-package org.cloudbus.cloudsim.examples.power.bandwidth;
-
-import net.sourceforge.jswarm_pso.Particle;
-
-public class EnergyParticle extends Particle {
-    public EnergyParticle() {
-        super(BwHelper.dimension); // Create a 2-dimentional particle
-    }
-}
\ No newline at end of file
@@ -1,14 +1,13 @@
 package org.cloudbus.cloudsim.examples.power.planetlab;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.PlanetLabTraceStore;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
-import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
 import org.cloudbus.cloudsim.examples.power.Constants;
 import org.cloudbus.cloudsim.examples.power.bandwidth.BwHelper;
 
@@ -44,40 +43,31 @@ public class PlanetLabHelper {
 		long outputSize = 300;
 		UtilizationModel utilizationModelNull = new UtilizationModelNull();
 
-		File inputFolder = new File(inputFolderName);
-		File[] files = inputFolder.listFiles();
-
-		for (int i = 0; i < files.length; i++) {
-			Cloudlet cloudlet = null;
-			try {
-				if (!BwHelper.AllData)
-				{
-				cloudlet = new Cloudlet(
-						i,
-						Constants.CLOUDLET_LENGTH,
-						Constants.CLOUDLET_PES,
-						fileSize,
-						outputSize,
-						new UtilizationModelPlanetLabInMemory(
-								files[i].getAbsolutePath(),
-								Constants.SCHEDULING_INTERVAL, BwHelper.simlationTime + 1), utilizationModelNull, utilizationModelNull);
-				}
-				else
-				{
-				cloudlet = new Cloudlet(
-						i,
-						Constants.CLOUDLET_LENGTH,
-						Constants.CLOUDLET_PES,
-						fileSize,
-						outputSize,
-						new UtilizationModelPlanetLabInMemory(
-								files[i].getAbsolutePath(),
-								Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull);
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				System.exit(0);
+		// the traces of a folder are read once and shared by the experiments
+		PlanetLabTraceStore store = null;
+		try {
+			if (!BwHelper.AllData) {
+				store = PlanetLabTraceStore.getSharedStore(inputFolderName, BwHelper.simlationTime + 1);
+			} else {
+				store = PlanetLabTraceStore.getSharedStore(
+						inputFolderName,
+						PlanetLabTraceStore.DEFAULT_NUMBER_OF_SAMPLES);
 			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+
+		for (int i = 0; i < store.getNumberOfTraces(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					fileSize,
+					outputSize,
+					store.getUtilizationModel(i, Constants.SCHEDULING_INTERVAL),
+					utilizationModelNull,
+					utilizationModelNull);
 			cloudlet.setUserId(brokerId);
 			cloudlet.setVmId(i);
 			list.add(cloudlet);
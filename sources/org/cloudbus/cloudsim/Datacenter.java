@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +47,36 @@ public class Datacenter extends SimEntity {
 	/** The storage list. */
 	private List<Storage> storageList;
 
+	/** The catalog of the files of the storages. */
+	private FileCatalog fileCatalog;
+
+	/** The predicted file transfer times of the sets of required files. */
+	private final Map<List<String>, Double> fileTransferTimes = new HashMap<List<String>, Double>();
+
+	/** The version of the file catalog for which the file transfer times were predicted. */
+	private long fileTransferTimesVersion = -1;
+
+	/** The maximum number of predicted file transfer times kept. */
+	private static final int MAX_FILE_TRANSFER_TIMES = 4096;
+
+	/** The I/O models of the storages whose accesses contend, in the order they were set. */
+	private final Map<Storage, StorageIoModel> storageIoModels = new LinkedHashMap<Storage, StorageIoModel>();
+
+	/** The number of storage requests each waiting cloudlet waits for. */
+	private final Map<Cloudlet, Integer> pendingStorageRequests = new HashMap<Cloudlet, Integer>();
+
+	/** The predicted transfer time of the files of each waiting cloudlet on storages without model. */
+	private final Map<Cloudlet, Double> pendingFileTransferTimes = new HashMap<Cloudlet, Double>();
+
+	/** The time of the next storage I/O event scheduled. */
+	private double nextStorageIoEventTime = Double.POSITIVE_INFINITY;
+
+	/** The file cache local to each host. */
+	private final Map<Host, FileCache> hostFileCaches = new HashMap<Host, FileCache>();
+
+	/** The file cache of the rack of each host, shared by the hosts of the rack. */
+	private final Map<Host, FileCache> rackFileCaches = new HashMap<Host, FileCache>();
+
 	/** The vm list. */
 	private List<? extends Vm> vmList;
 
@@ -250,6 +281,12 @@ public class Datacenter extends SimEntity {
 				checkCloudletCompletion();
 				break;
 
+			case CloudSimTags.STORAGE_IO_EVENT:
+				if (isStorageIoEventDue(ev)) {
+					processStorageIoEvent();
+				}
+				break;
+
 			// other unknown tags are processed by this method
 			default:
 				processOtherEvent(ev);
@@ -715,21 +752,20 @@ public class Datacenter extends SimEntity {
 			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
 					.getCostPerBw());
 
-			int userId = cl.getUserId();
-			int vmId = cl.getVmId();
-
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+			// the files found in the file caches of the host are not read from their storages
+			List<String> requiredFiles = cl.getRequiredFiles();
+			double cacheTransferTime = 0.0;
+			if (!requiredFiles.isEmpty() && (!hostFileCaches.isEmpty() || !rackFileCaches.isEmpty())) {
+				requiredFiles = new ArrayList<String>();
+				cacheTransferTime = readFileCaches(cl, requiredFiles);
+			}
 
-			Host host = getVmAllocationPolicy().getHost(vmId, userId);
-			Vm vm = host.getVm(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+			// the cloudlet starts when its files are read, if their storages have I/O models
+			if (!submitStorageRequests(cl, requiredFiles, cacheTransferTime)) {
+				// time to transfer the files
+				double fileTransferTime = cacheTransferTime + predictFileTransferTime(requiredFiles);
 
-			// if this cloudlet is in the exec queue
-			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+				startCloudlet(cl, fileTransferTime);
 			}
 
 			if (ack) {
@@ -754,26 +790,358 @@ public class Datacenter extends SimEntity {
 	}
 
 	/**
-	 * Predict file transfer time.
+	 * Submits a cloudlet to its VM.
+	 * 
+	 * @param cl the cloudlet
+	 * @param fileTransferTime the time to transfer the required files
+	 */
+	protected void startCloudlet(Cloudlet cl, double fileTransferTime) {
+		int userId = cl.getUserId();
+		int vmId = cl.getVmId();
+
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		Vm vm = host.getVm(vmId, userId);
+		CloudletScheduler scheduler = vm.getCloudletScheduler();
+		double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+
+		// if this cloudlet is in the exec queue
+		if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+			estimatedFinishTime += fileTransferTime;
+			send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+		}
+	}
+
+	/**
+	 * Looks up the required files of a cloudlet in the file cache of its host, then in the file
+	 * cache of its rack. The files missed are read from their storages and admitted to the caches.
+	 * 
+	 * @param cl the cloudlet
+	 * @param missedFiles the list receiving the names of the files to read from the storages
+	 * @return the time to transfer the files found in the caches
+	 */
+	protected double readFileCaches(Cloudlet cl, List<String> missedFiles) {
+		Host host = getVmAllocationPolicy().getHost(cl.getVmId(), cl.getUserId());
+		FileCache hostFileCache = hostFileCaches.get(host);
+		FileCache rackFileCache = rackFileCaches.get(host);
+
+		double time = 0.0;
+		for (String fileName : cl.getRequiredFiles()) {
+			Storage storage = getFileCatalog().getStorage(fileName);
+			File file = storage == null ? null : storage.getFile(fileName);
+			if (file == null) {
+				missedFiles.add(fileName);
+				continue;
+			}
+			long size = (long) file.getSize() * Consts.MILLION;
+			if (hostFileCache != null && hostFileCache.access(fileName, size)) {
+				time += hostFileCache.getTransferTime(size);
+			} else if (rackFileCache != null && rackFileCache.access(fileName, size)) {
+				time += rackFileCache.getTransferTime(size);
+			} else {
+				missedFiles.add(fileName);
+			}
+		}
+		return time;
+	}
+
+	/**
+	 * Submits the reading of the required files of a cloudlet to the I/O models of their storages.
+	 * The cloudlet waits for the requests to complete, and the files of the storages without I/O
+	 * model are transferred at their predicted time when the cloudlet starts.
+	 * 
+	 * @param cl the cloudlet
+	 * @param requiredFiles the files to read from the storages
+	 * @param fileTransferTime the time to transfer the files read from elsewhere, such as caches
+	 * @return true if the cloudlet waits for storage requests, false if none of the files is on a
+	 *         storage with an I/O model
+	 */
+	protected boolean submitStorageRequests(Cloudlet cl, List<String> requiredFiles, double fileTransferTime) {
+		if (storageIoModels.isEmpty() || requiredFiles.isEmpty()) {
+			return false;
+		}
+
+		int requests = 0;
+		for (String fileName : requiredFiles) {
+			Storage storage = getFileCatalog().getStorage(fileName);
+			if (storage == null) {
+				continue;
+			}
+			File file = storage.getFile(fileName);
+			if (file == null) {
+				continue;
+			}
+			StorageIoModel ioModel = storageIoModels.get(storage);
+			if (ioModel == null) {
+				fileTransferTime += file.getSize() / storage.getMaxTransferRate();
+			} else {
+				ioModel.submit(new StorageRequest(cl, fileName, file.getSize()), CloudSim.clock());
+				requests++;
+			}
+		}
+		if (requests == 0) {
+			return false;
+		}
+
+		pendingStorageRequests.put(cl, requests);
+		pendingFileTransferTimes.put(cl, fileTransferTime);
+		scheduleStorageIoEvent();
+		return true;
+	}
+
+	/**
+	 * Processes the storage requests completed at the current time, and starts the cloudlets whose
+	 * files have been read. A cloudlet whose VM was destroyed while its files were read is returned
+	 * to its user as failed.
+	 */
+	protected void processStorageIoEvent() {
+		updateCloudletProcessing();
+
+		for (StorageIoModel ioModel : storageIoModels.values()) {
+			ioModel.advanceTo(CloudSim.clock());
+			for (StorageRequest request : ioModel.pollCompletedRequests()) {
+				Cloudlet cl = request.getCloudlet();
+				int requests = pendingStorageRequests.get(cl) - 1;
+				if (requests > 0) {
+					pendingStorageRequests.put(cl, requests);
+					continue;
+				}
+				pendingStorageRequests.remove(cl);
+				double fileTransferTime = pendingFileTransferTimes.remove(cl);
+				if (getVmAllocationPolicy().getHost(cl.getVmId(), cl.getUserId()) == null) {
+					// the VM was destroyed while the files were read: the cloudlet fails
+					Log.printLine(getName() + ": Warning - the VM of Cloudlet #" + cl.getCloudletId()
+							+ " no longer exists");
+					try {
+						cl.setCloudletStatus(Cloudlet.FAILED);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+					sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+					continue;
+				}
+				startCloudlet(cl, fileTransferTime);
+			}
+		}
+		scheduleStorageIoEvent();
+
+		checkCloudletCompletion();
+	}
+
+	/**
+	 * Schedules a storage I/O event at the time of the next event of the I/O models, unless an
+	 * event is scheduled before.
+	 */
+	protected void scheduleStorageIoEvent() {
+		double time = Double.POSITIVE_INFINITY;
+		for (StorageIoModel ioModel : storageIoModels.values()) {
+			time = Math.min(time, ioModel.getNextEventTime());
+		}
+		if (time < nextStorageIoEventTime) {
+			nextStorageIoEventTime = time;
+			double clock = CloudSim.clock();
+			double delay = Math.max(time - clock, 0);
+			// the event must not happen before the model event because of rounding
+			while (clock + delay < time) {
+				delay = Math.nextUp(delay);
+			}
+			send(getId(), delay, CloudSimTags.STORAGE_IO_EVENT, Double.valueOf(time));
+		}
+	}
+
+	/**
+	 * Checks whether a storage I/O event is the pending one, as an earlier event replaces a later
+	 * one.
+	 * 
+	 * @param ev the storage I/O event
+	 * @return true if the storage requests must be processed
+	 */
+	private boolean isStorageIoEventDue(SimEvent ev) {
+		if (!(ev.getData() instanceof Double)) {
+			return true;
+		}
+		if (((Double) ev.getData()).doubleValue() != nextStorageIoEventTime) {
+			return false;
+		}
+		nextStorageIoEventTime = Double.POSITIVE_INFINITY;
+		return true;
+	}
+
+	/**
+	 * Sets the I/O model of a storage, so that the accesses of the cloudlets to the storage are
+	 * queued and contend instead of taking their predicted transfer time. The model is set before
+	 * the cloudlets are submitted.
+	 * 
+	 * @param storage the storage
+	 * @param ioModel the I/O model, or null to predict the transfer times of the storage
+	 */
+	public void setStorageIoModel(Storage storage, StorageIoModel ioModel) {
+		if (ioModel == null) {
+			storageIoModels.remove(storage);
+		} else {
+			storageIoModels.put(storage, ioModel);
+		}
+	}
+
+	/**
+	 * Gets the I/O model of a storage.
+	 * 
+	 * @param storage the storage
+	 * @return the I/O model, or null if the storage has none
+	 */
+	public StorageIoModel getStorageIoModel(Storage storage) {
+		return storageIoModels.get(storage);
+	}
+
+	/**
+	 * Sets the file cache local to a host. The caches are set before the cloudlets are submitted.
+	 * 
+	 * @param host the host
+	 * @param fileCache the file cache, or null to remove the cache of the host
+	 */
+	public void setHostFileCache(Host host, FileCache fileCache) {
+		if (fileCache == null) {
+			hostFileCaches.remove(host);
+		} else {
+			hostFileCaches.put(host, fileCache);
+		}
+	}
+
+	/**
+	 * Gets the file cache local to a host.
+	 * 
+	 * @param host the host
+	 * @return the file cache, or null if the host has none
+	 */
+	public FileCache getHostFileCache(Host host) {
+		return hostFileCaches.get(host);
+	}
+
+	/**
+	 * Sets the file cache of a rack, shared by its hosts and looked up after the cache of the host.
+	 * Its transfer rate is usually the rate of the network of the rack.
+	 * 
+	 * @param hosts the hosts of the rack
+	 * @param fileCache the file cache, or null to remove the cache of the hosts
+	 */
+	public void setRackFileCache(List<? extends Host> hosts, FileCache fileCache) {
+		for (Host host : hosts) {
+			if (fileCache == null) {
+				rackFileCaches.remove(host);
+			} else {
+				rackFileCaches.put(host, fileCache);
+			}
+		}
+	}
+
+	/**
+	 * Gets the file cache of the rack of a host.
+	 * 
+	 * @param host the host
+	 * @return the file cache, or null if the rack of the host has none
+	 */
+	public FileCache getRackFileCache(Host host) {
+		return rackFileCaches.get(host);
+	}
+
+	/**
+	 * Gets the bytes of files found in the file cache of a host, without accessing them. A broker
+	 * can bind a cloudlet to a VM whose host has its required files, to increase the hits.
+	 * 
+	 * @param host the host
+	 * @param fileNames the names of the files
+	 * @return the bytes of the files in the cache, or 0 if the host has no cache
+	 */
+	public long getHostCachedBytes(Host host, List<String> fileNames) {
+		return getCachedBytes(hostFileCaches.get(host), fileNames);
+	}
+
+	/**
+	 * Gets the bytes of files found in the file cache of the rack of a host, without accessing
+	 * them.
+	 * 
+	 * @param host the host
+	 * @param fileNames the names of the files
+	 * @return the bytes of the files in the cache, or 0 if the rack of the host has no cache
+	 */
+	public long getRackCachedBytes(Host host, List<String> fileNames) {
+		return getCachedBytes(rackFileCaches.get(host), fileNames);
+	}
+
+	/**
+	 * Gets the bytes of files found in a file cache.
+	 * 
+	 * @param fileCache the file cache, or null
+	 * @param fileNames the names of the files
+	 * @return the bytes of the files in the cache
+	 */
+	private long getCachedBytes(FileCache fileCache, List<String> fileNames) {
+		long bytes = 0;
+		if (fileCache != null) {
+			for (String fileName : fileNames) {
+				bytes += Math.max(fileCache.getFileSize(fileName), 0);
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Removes a file from the file caches, when it is deleted or renamed.
+	 * 
+	 * @param fileName the name of the file
+	 */
+	private void removeFromFileCaches(String fileName) {
+		for (FileCache fileCache : hostFileCaches.values()) {
+			fileCache.removeFile(fileName);
+		}
+		for (FileCache fileCache : rackFileCaches.values()) {
+			fileCache.removeFile(fileName);
+		}
+	}
+
+	/**
+	 * Predict file transfer time. The storage of each file is found in the file catalog, and the
+	 * time predicted for a set of required files is kept until the version of the catalog changes,
+	 * so that the cloudlets with the same required files share their prediction.
+	 * 
+	 * @see FileCatalog#getVersion()
 	 * 
 	 * @param requiredFiles the required files
 	 * @return the double
 	 */
 	protected double predictFileTransferTime(List<String> requiredFiles) {
+		if (requiredFiles.isEmpty()) {
+			return 0.0;
+		}
+		if (fileTransferTimesVersion != getFileCatalog().getVersion()) {
+			fileTransferTimes.clear();
+			fileTransferTimesVersion = getFileCatalog().getVersion();
+		}
+		Double predictedTime = fileTransferTimes.get(requiredFiles);
+		if (predictedTime != null) {
+			return predictedTime;
+		}
+
 		double time = 0.0;
 
 		Iterator<String> iter = requiredFiles.iterator();
 		while (iter.hasNext()) {
 			String fileName = iter.next();
-			for (int i = 0; i < getStorageList().size(); i++) {
-				Storage tempStorage = getStorageList().get(i);
+			Storage tempStorage = getFileCatalog().getStorage(fileName);
+			if (tempStorage != null) {
 				File tempFile = tempStorage.getFile(fileName);
 				if (tempFile != null) {
 					time += tempFile.getSize() / tempStorage.getMaxTransferRate();
-					break;
 				}
 			}
 		}
+
+		// the lookups may have updated the catalog
+		if (fileTransferTimesVersion != getFileCatalog().getVersion()
+				|| fileTransferTimes.size() >= MAX_FILE_TRANSFER_TIMES) {
+			fileTransferTimes.clear();
+			fileTransferTimesVersion = getFileCatalog().getVersion();
+		}
+		fileTransferTimes.put(new ArrayList<String>(requiredFiles), time);
 		return time;
 	}
 
@@ -940,6 +1308,7 @@ public class Datacenter extends SimEntity {
 			tempStorage = getStorageList().get(i);
 			if (tempStorage.getAvailableSpace() >= file.getSize()) {
 				tempStorage.addFile(file);
+				getFileCatalog().addFile(file.getName(), tempStorage);
 				msg = DataCloudTags.FILE_ADD_SUCCESSFUL;
 				break;
 			}
@@ -948,6 +1317,30 @@ public class Datacenter extends SimEntity {
 		return msg;
 	}
 
+	/**
+	 * Renames a file of the resource's storage.
+	 * 
+	 * @param fileName the name of the file
+	 * @param newName the new name of the file
+	 * @return <tt>true</tt> if the renaming succeeded, <tt>false</tt> otherwise
+	 */
+	public boolean renameFile(String fileName, String newName) {
+		if (newName == null || newName.length() == 0 || contains(newName)) {
+			return false;
+		}
+		Storage storage = getFileCatalog().getStorage(fileName);
+		if (storage == null) {
+			return false;
+		}
+		File file = storage.getFile(fileName);
+		if (file == null || !storage.renameFile(file, newName)) {
+			return false;
+		}
+		getFileCatalog().renameFile(fileName, newName);
+		removeFromFileCaches(fileName);
+		return true;
+	}
+
 	/**
 	 * Checks whether the resource has the given file.
 	 * 
@@ -972,19 +1365,7 @@ public class Datacenter extends SimEntity {
 			return false;
 		}
 
-		Iterator<Storage> it = getStorageList().iterator();
-		Storage storage = null;
-		boolean result = false;
-
-		while (it.hasNext()) {
-			storage = it.next();
-			if (storage.contains(fileName)) {
-				result = true;
-				break;
-			}
-		}
-
-		return result;
+		return getFileCatalog().contains(fileName);
 	}
 
 	/**
@@ -1005,6 +1386,8 @@ public class Datacenter extends SimEntity {
 			tempStorage.deleteFile(fileName, tempFile);
 			msg = DataCloudTags.FILE_DELETE_SUCCESSFUL;
 		} // end for
+		getFileCatalog().deleteFile(fileName);
+		removeFromFileCaches(fileName);
 
 		return msg;
 	}
@@ -1137,6 +1520,25 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void setStorageList(List<Storage> storageList) {
 		this.storageList = storageList;
+		setFileCatalog(new FileCatalog(storageList));
+	}
+
+	/**
+	 * Gets the catalog of the files of the storages.
+	 * 
+	 * @return the file catalog
+	 */
+	protected FileCatalog getFileCatalog() {
+		return fileCatalog;
+	}
+
+	/**
+	 * Sets the catalog of the files of the storages.
+	 * 
+	 * @param fileCatalog the new file catalog
+	 */
+	protected void setFileCatalog(FileCatalog fileCatalog) {
+		this.fileCatalog = fileCatalog;
 	}
 
 	/**
@@ -70,6 +70,21 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** The default locality queue slack. */
+	public static final int DEFAULT_LOCALITY_QUEUE_SLACK = 1;
+
+	/** Whether the cloudlets are bound to the VMs whose hosts cache their required files. */
+	private boolean localityAwarePlacement = false;
+
+	/**
+	 * The number of cloudlets a VM can have queued beyond the round-robin VM to receive a cloudlet
+	 * for locality.
+	 */
+	private int localityQueueSlack = DEFAULT_LOCALITY_QUEUE_SLACK;
+
+	/** The number of cloudlets sent to each VM and not returned yet, by VM id. */
+	private final Map<Integer, Integer> vmsQueuedCloudlets = new HashMap<Integer, Integer>();
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -270,6 +285,7 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
+		addQueuedCloudlets(cloudlet.getVmId(), -1);
 		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
 				+ " received");
 		cloudletsSubmitted--;
@@ -345,6 +361,12 @@ public class DatacenterBroker extends SimEntity {
 			// if user didn't bind this cloudlet and it has not been executed yet
 			if (cloudlet.getVmId() == -1) {
 				vm = getVmsCreatedList().get(vmIndex);
+				if (isLocalityAwarePlacement()) {
+					Vm localVm = getLocalVm(cloudlet, vm);
+					if (localVm != null) {
+						vm = localVm;
+					}
+				}
 			} else { // submit to the specific vm
 				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
 				if (vm == null) { // vm was not created
@@ -358,6 +380,7 @@ public class DatacenterBroker extends SimEntity {
 					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
 			cloudlet.setVmId(vm.getId());
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			addQueuedCloudlets(vm.getId(), 1);
 			cloudletsSubmitted++;
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
@@ -369,6 +392,123 @@ public class DatacenterBroker extends SimEntity {
 		}
 	}
 
+	/**
+	 * Gets the created VM whose host caches the most bytes of the required files of a cloudlet,
+	 * and whose rack caches the most bytes of them on a tie, according to the file caches of the
+	 * datacenters. Only the VMs with at most the locality queue slack more queued cloudlets than
+	 * the round-robin VM are considered, so that a cached file does not draw all the cloudlets
+	 * reading it to one VM, and the round-robin VM is preferred on a tie.
+	 * 
+	 * @param cloudlet the cloudlet
+	 * @param roundRobinVm the VM the cloudlet is bound to without locality
+	 * @return the VM, or null if no cache of a VM considered has a required file of the cloudlet
+	 * @see Datacenter#getHostCachedBytes(Host, List)
+	 */
+	protected Vm getLocalVm(Cloudlet cloudlet, Vm roundRobinVm) {
+		List<String> requiredFiles = cloudlet.getRequiredFiles();
+		if (requiredFiles.isEmpty()) {
+			return null;
+		}
+
+		int maxQueuedCloudlets = getNumberOfQueuedCloudlets(roundRobinVm) + getLocalityQueueSlack();
+		Vm localVm = null;
+		long maxHostBytes = 0;
+		long maxRackBytes = 0;
+		for (Vm vm : getVmsCreatedList()) {
+			Host host = vm.getHost();
+			if (host == null || host.getDatacenter() == null
+					|| getNumberOfQueuedCloudlets(vm) > maxQueuedCloudlets) {
+				continue;
+			}
+			long hostBytes = host.getDatacenter().getHostCachedBytes(host, requiredFiles);
+			long rackBytes = host.getDatacenter().getRackCachedBytes(host, requiredFiles);
+			if (hostBytes > maxHostBytes || hostBytes == maxHostBytes && rackBytes > maxRackBytes
+					|| localVm != null && vm == roundRobinVm && hostBytes == maxHostBytes
+					&& rackBytes == maxRackBytes) {
+				localVm = vm;
+				maxHostBytes = hostBytes;
+				maxRackBytes = rackBytes;
+			}
+		}
+		return localVm;
+	}
+
+	/**
+	 * Gets the number of cloudlets queued on a VM, that is sent to the VM and not returned yet.
+	 * 
+	 * @param vm the VM
+	 * @return the number of queued cloudlets
+	 */
+	protected int getNumberOfQueuedCloudlets(Vm vm) {
+		Integer queuedCloudlets = vmsQueuedCloudlets.get(vm.getId());
+		return queuedCloudlets == null ? 0 : queuedCloudlets;
+	}
+
+	/**
+	 * Adds to the number of cloudlets queued on a VM.
+	 * 
+	 * @param vmId the VM id
+	 * @param delta the number of cloudlets sent to the VM, or minus the number returned
+	 */
+	protected void addQueuedCloudlets(int vmId, int delta) {
+		Integer queuedCloudlets = vmsQueuedCloudlets.get(vmId);
+		int newQueuedCloudlets = (queuedCloudlets == null ? 0 : queuedCloudlets) + delta;
+		if (newQueuedCloudlets > 0) {
+			vmsQueuedCloudlets.put(vmId, newQueuedCloudlets);
+		} else {
+			vmsQueuedCloudlets.remove(vmId);
+		}
+	}
+
+	/**
+	 * Gets the locality queue slack.
+	 * 
+	 * @return the number of cloudlets a VM can have queued beyond the round-robin VM to receive a
+	 *         cloudlet for locality
+	 */
+	public int getLocalityQueueSlack() {
+		return localityQueueSlack;
+	}
+
+	/**
+	 * Sets the locality queue slack, that is the number of cloudlets a VM can have queued beyond
+	 * the VM chosen in a round-robin fashion to receive a cloudlet for locality. A larger slack
+	 * favours the cache hits over the balance of the VMs.
+	 * 
+	 * @param localityQueueSlack the locality queue slack
+	 * @throws IllegalArgumentException if the slack is negative
+	 */
+	public void setLocalityQueueSlack(int localityQueueSlack) throws IllegalArgumentException {
+		if (localityQueueSlack < 0) {
+			throw new IllegalArgumentException("The locality queue slack must be >= 0.");
+		}
+		this.localityQueueSlack = localityQueueSlack;
+	}
+
+	/**
+	 * Checks whether the cloudlets are bound to the VMs whose hosts cache their required files.
+	 * 
+	 * @return true if the placement is locality-aware
+	 */
+	public boolean isLocalityAwarePlacement() {
+		return localityAwarePlacement;
+	}
+
+	/**
+	 * Sets whether the cloudlets not bound by the user are bound to the VM whose host, or else
+	 * whose rack, caches the most bytes of their required files, instead of the next VM in a
+	 * round-robin fashion. The placement is not locality-aware by default. The VMs whose queue
+	 * exceeds the queue of the round-robin VM by more than the locality queue slack are not
+	 * chosen for locality, so that the cloudlets reading a hot file do not all pile onto one VM.
+	 * 
+	 * @param localityAwarePlacement true to make the placement locality-aware
+	 * @see Datacenter#setHostFileCache(Host, FileCache)
+	 * @see #setLocalityQueueSlack(int)
+	 */
+	public void setLocalityAwarePlacement(boolean localityAwarePlacement) {
+		this.localityAwarePlacement = localityAwarePlacement;
+	}
+
 	/**
 	 * Destroy the virtual machines running in datacenters.
 	 * 
@@ -0,0 +1,255 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * FileCache is an abstract class that represents a cache of the files read by the cloudlets, local
+ * to a host or shared by the hosts of a rack, in front of the storages of a {@link Datacenter}. A
+ * file found in the cache is read at the transfer rate of the cache, which is infinite by default,
+ * and a file missed is read from its storage and admitted to the cache, evicting other files
+ * according to the policy of the cache if its capacity is exceeded.
+ *
+ * The sizes and the capacity are in bytes. The cache records the hits, the misses and the
+ * evictions.
+ *
+ * @see Datacenter#setHostFileCache(Host, FileCache)
+ * @see Datacenter#setRackFileCache(java.util.List, FileCache)
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class FileCache {
+
+	/** The capacity in bytes. */
+	private final long capacity;
+
+	/** The size of the cached files in bytes. */
+	private long usedBytes = 0;
+
+	/** The transfer rate of the cache in MB/s. */
+	private double transferRate = Double.POSITIVE_INFINITY;
+
+	/** The number of hits. */
+	private long numberOfHits = 0;
+
+	/** The number of misses. */
+	private long numberOfMisses = 0;
+
+	/** The bytes of the files found in the cache. */
+	private long hitBytes = 0;
+
+	/** The bytes of the files missed. */
+	private long missBytes = 0;
+
+	/** The number of files evicted. */
+	private long numberOfEvictions = 0;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param capacity the capacity in bytes
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public FileCache(long capacity) throws IllegalArgumentException {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity must be >= 0.");
+		}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Accesses a file. A file missed is admitted to the cache, unless it is larger than the
+	 * capacity.
+	 *
+	 * @param fileName the name of the file
+	 * @param size the size of the file in bytes
+	 * @return true if the file was found in the cache, false otherwise
+	 */
+	public boolean access(String fileName, long size) {
+		boolean hit = accessFile(fileName, size);
+		if (hit) {
+			numberOfHits++;
+			hitBytes += size;
+		} else {
+			numberOfMisses++;
+			missBytes += size;
+		}
+		return hit;
+	}
+
+	/**
+	 * Checks whether a file is in the cache, without accessing it.
+	 *
+	 * @param fileName the name of the file
+	 * @return true if the file is in the cache
+	 */
+	public boolean contains(String fileName) {
+		return getFileSize(fileName) >= 0;
+	}
+
+	/**
+	 * Gets the size of a file of the cache, without accessing it.
+	 *
+	 * @param fileName the name of the file
+	 * @return the size of the file in bytes, or -1 if the file is not in the cache
+	 */
+	public abstract long getFileSize(String fileName);
+
+	/**
+	 * Removes a file from the cache, when it is deleted or renamed in its storage.
+	 *
+	 * @param fileName the name of the file
+	 */
+	public abstract void removeFile(String fileName);
+
+	/**
+	 * Accesses a file, and admits a file missed to the cache according to the policy.
+	 *
+	 * @param fileName the name of the file
+	 * @param size the size of the file in bytes
+	 * @return true if the file was found in the cache, false otherwise
+	 */
+	protected abstract boolean accessFile(String fileName, long size);
+
+	/**
+	 * Records that a file was admitted to the cache.
+	 *
+	 * @param size the size of the file in bytes
+	 */
+	protected void fileAdded(long size) {
+		usedBytes += size;
+	}
+
+	/**
+	 * Records that a file was evicted from the cache.
+	 *
+	 * @param size the size of the file in bytes
+	 */
+	protected void fileEvicted(long size) {
+		usedBytes -= size;
+		numberOfEvictions++;
+	}
+
+	/**
+	 * Records that a file was removed from the cache, other than by an eviction.
+	 *
+	 * @param size the size of the file in bytes
+	 */
+	protected void fileRemoved(long size) {
+		usedBytes -= size;
+	}
+
+	/**
+	 * Gets the time to read a file from the cache.
+	 *
+	 * @param size the size of the file in bytes
+	 * @return the transfer time in seconds
+	 */
+	public double getTransferTime(long size) {
+		return (double) size / Consts.MILLION / transferRate;
+	}
+
+	/**
+	 * Gets the transfer rate.
+	 *
+	 * @return the transfer rate in MB/s
+	 */
+	public double getTransferRate() {
+		return transferRate;
+	}
+
+	/**
+	 * Sets the transfer rate, for example the rate of the rack network for a rack cache.
+	 *
+	 * @param transferRate the transfer rate in MB/s, or infinity if the files of the cache are
+	 *            read in no time
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	public void setTransferRate(double transferRate) throws IllegalArgumentException {
+		if (!(transferRate > 0)) {
+			throw new IllegalArgumentException("The transfer rate must be > 0.");
+		}
+		this.transferRate = transferRate;
+	}
+
+	/**
+	 * Gets the capacity.
+	 *
+	 * @return the capacity in bytes
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the size of the cached files.
+	 *
+	 * @return the used bytes
+	 */
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Gets the number of hits.
+	 *
+	 * @return the number of hits
+	 */
+	public long getNumberOfHits() {
+		return numberOfHits;
+	}
+
+	/**
+	 * Gets the number of misses.
+	 *
+	 * @return the number of misses
+	 */
+	public long getNumberOfMisses() {
+		return numberOfMisses;
+	}
+
+	/**
+	 * Gets the fraction of the accesses that were hits.
+	 *
+	 * @return the hit ratio, or 0 if no file was accessed
+	 */
+	public double getHitRatio() {
+		long accesses = numberOfHits + numberOfMisses;
+		if (accesses == 0) {
+			return 0;
+		}
+		return (double) numberOfHits / accesses;
+	}
+
+	/**
+	 * Gets the bytes of the files found in the cache.
+	 *
+	 * @return the hit bytes
+	 */
+	public long getHitBytes() {
+		return hitBytes;
+	}
+
+	/**
+	 * Gets the bytes of the files missed, which were read from the storages.
+	 *
+	 * @return the miss bytes
+	 */
+	public long getMissBytes() {
+		return missBytes;
+	}
+
+	/**
+	 * Gets the number of files evicted.
+	 *
+	 * @return the number of evictions
+	 */
+	public long getNumberOfEvictions() {
+		return numberOfEvictions;
+	}
+
+}
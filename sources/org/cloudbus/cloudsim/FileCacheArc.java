@@ -0,0 +1,225 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A file cache with the Adaptive Replacement Cache policy of Megiddo and Modha. The cached files
+ * are split between a list of the files accessed once recently and a list of the files accessed
+ * at least twice, both ordered from the least to the most recently used. The files evicted from
+ * each list are remembered in a ghost list, without their content, and a miss on a ghost moves the
+ * target size of the first list towards the list the file was evicted from, so that the cache
+ * adapts between recency and frequency.
+ *
+ * The policy is applied to bytes rather than to numbers of files: the sizes of the lists, of the
+ * ghost lists and of the target are in bytes, and the target moves by the size of the file missed.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FileCacheArc extends FileCache {
+
+	/** The files accessed once recently, that is the list T1. */
+	private final LinkedHashMap<String, Long> recentFiles = new LinkedHashMap<String, Long>();
+
+	/** The files accessed at least twice recently, that is the list T2. */
+	private final LinkedHashMap<String, Long> frequentFiles = new LinkedHashMap<String, Long>();
+
+	/** The files evicted from T1, that is the ghost list B1. */
+	private final LinkedHashMap<String, Long> recentGhosts = new LinkedHashMap<String, Long>();
+
+	/** The files evicted from T2, that is the ghost list B2. */
+	private final LinkedHashMap<String, Long> frequentGhosts = new LinkedHashMap<String, Long>();
+
+	/** The bytes of T1. */
+	private long recentBytes = 0;
+
+	/** The bytes of T2. */
+	private long frequentBytes = 0;
+
+	/** The bytes of B1. */
+	private long recentGhostBytes = 0;
+
+	/** The bytes of B2. */
+	private long frequentGhostBytes = 0;
+
+	/** The target size of T1 in bytes. */
+	private double target = 0;
+
+	/**
+	 * Creates a new ARC cache.
+	 *
+	 * @param capacity the capacity in bytes
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public FileCacheArc(long capacity) throws IllegalArgumentException {
+		super(capacity);
+	}
+
+	@Override
+	protected boolean accessFile(String fileName, long size) {
+		Long cachedSize = recentFiles.remove(fileName);
+		if (cachedSize != null) {
+			recentBytes -= cachedSize;
+			frequentFiles.put(fileName, cachedSize);
+			frequentBytes += cachedSize;
+			return true;
+		}
+		cachedSize = frequentFiles.remove(fileName);
+		if (cachedSize != null) {
+			frequentFiles.put(fileName, cachedSize);
+			return true;
+		}
+		if (size > getCapacity()) {
+			return false;
+		}
+
+		boolean frequent = false;
+		boolean frequentGhostHit = false;
+		Long ghostSize = recentGhosts.remove(fileName);
+		if (ghostSize != null) {
+			// T1 was too small
+			target = Math.min(target + getRatio(frequentGhostBytes, recentGhostBytes) * size, getCapacity());
+			recentGhostBytes -= ghostSize;
+			frequent = true;
+		} else {
+			ghostSize = frequentGhosts.remove(fileName);
+			if (ghostSize != null) {
+				// T2 was too small
+				target = Math.max(target - getRatio(recentGhostBytes, frequentGhostBytes) * size, 0);
+				frequentGhostBytes -= ghostSize;
+				frequent = true;
+				frequentGhostHit = true;
+			}
+		}
+
+		replace(frequentGhostHit, size);
+		if (frequent) {
+			frequentFiles.put(fileName, size);
+			frequentBytes += size;
+		} else {
+			recentFiles.put(fileName, size);
+			recentBytes += size;
+		}
+		fileAdded(size);
+		trimGhosts();
+		return false;
+	}
+
+	@Override
+	public long getFileSize(String fileName) {
+		Long size = recentFiles.get(fileName);
+		if (size == null) {
+			size = frequentFiles.get(fileName);
+		}
+		return size == null ? -1 : size;
+	}
+
+	@Override
+	public void removeFile(String fileName) {
+		Long size = recentFiles.remove(fileName);
+		if (size != null) {
+			recentBytes -= size;
+			fileRemoved(size);
+		}
+		size = frequentFiles.remove(fileName);
+		if (size != null) {
+			frequentBytes -= size;
+			fileRemoved(size);
+		}
+		size = recentGhosts.remove(fileName);
+		if (size != null) {
+			recentGhostBytes -= size;
+		}
+		size = frequentGhosts.remove(fileName);
+		if (size != null) {
+			frequentGhostBytes -= size;
+		}
+	}
+
+	/**
+	 * Gets the target size of the list of the files accessed once recently.
+	 *
+	 * @return the target in bytes
+	 */
+	public double getTarget() {
+		return target;
+	}
+
+	/**
+	 * Evicts files to the ghost lists until a file fits in the cache. A file of T1 is evicted if
+	 * T1 exceeds its target, and a file of T2 otherwise.
+	 *
+	 * @param frequentGhostHit true if the file was missed in B2
+	 * @param size the size of the file in bytes
+	 */
+	private void replace(boolean frequentGhostHit, long size) {
+		while (getUsedBytes() + size > getCapacity()) {
+			if (!recentFiles.isEmpty()
+					&& (recentBytes > target || frequentGhostHit && recentBytes >= target || frequentFiles.isEmpty())) {
+				Map.Entry<String, Long> entry = removeEldest(recentFiles);
+				recentBytes -= entry.getValue();
+				recentGhosts.put(entry.getKey(), entry.getValue());
+				recentGhostBytes += entry.getValue();
+				fileEvicted(entry.getValue());
+			} else {
+				Map.Entry<String, Long> entry = removeEldest(frequentFiles);
+				frequentBytes -= entry.getValue();
+				frequentGhosts.put(entry.getKey(), entry.getValue());
+				frequentGhostBytes += entry.getValue();
+				fileEvicted(entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Forgets the oldest ghosts, so that T1 and B1 do not exceed the capacity, and the four lists
+	 * do not exceed twice the capacity.
+	 */
+	private void trimGhosts() {
+		while (recentBytes + recentGhostBytes > getCapacity() && !recentGhosts.isEmpty()) {
+			recentGhostBytes -= removeEldest(recentGhosts).getValue();
+		}
+		while (recentBytes + frequentBytes + recentGhostBytes + frequentGhostBytes > 2 * getCapacity()
+				&& !frequentGhosts.isEmpty()) {
+			frequentGhostBytes -= removeEldest(frequentGhosts).getValue();
+		}
+	}
+
+	/**
+	 * Gets the ratio by which the size of a file missed in a ghost list is multiplied to move the
+	 * target, at least 1.
+	 *
+	 * @param otherGhostBytes the bytes of the other ghost list
+	 * @param ghostBytes the bytes of the ghost list of the file, including the file
+	 * @return the ratio
+	 */
+	private static double getRatio(long otherGhostBytes, long ghostBytes) {
+		if (ghostBytes <= 0 || otherGhostBytes <= ghostBytes) {
+			return 1;
+		}
+		return (double) otherGhostBytes / ghostBytes;
+	}
+
+	/**
+	 * Removes the least recently used file of a list.
+	 *
+	 * @param list the list, not empty
+	 * @return the entry of the file
+	 */
+	private static Map.Entry<String, Long> removeEldest(LinkedHashMap<String, Long> list) {
+		Iterator<Map.Entry<String, Long>> iter = list.entrySet().iterator();
+		Map.Entry<String, Long> entry = iter.next();
+		iter.remove();
+		return entry;
+	}
+
+}
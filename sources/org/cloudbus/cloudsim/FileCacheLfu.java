@@ -0,0 +1,129 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A file cache that evicts the least frequently used files, and the least recently used of them
+ * on a tie. The frequency of a file is the number of its accesses since it was admitted.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FileCacheLfu extends FileCache {
+
+	/** The entries of the files. */
+	private final Map<String, Entry> files = new HashMap<String, Entry>();
+
+	/** The entries, from the first to the last to be evicted. */
+	private final TreeSet<Entry> evictionOrder = new TreeSet<Entry>(new Comparator<Entry>() {
+
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			if (e1.frequency != e2.frequency) {
+				return e1.frequency < e2.frequency ? -1 : 1;
+			}
+			if (e1.lastAccess != e2.lastAccess) {
+				return e1.lastAccess < e2.lastAccess ? -1 : 1;
+			}
+			return 0;
+		}
+
+	});
+
+	/** The number of accesses, which orders the accesses. */
+	private long accesses = 0;
+
+	/**
+	 * Creates a new LFU cache.
+	 *
+	 * @param capacity the capacity in bytes
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public FileCacheLfu(long capacity) throws IllegalArgumentException {
+		super(capacity);
+	}
+
+	@Override
+	protected boolean accessFile(String fileName, long size) {
+		accesses++;
+		Entry entry = files.get(fileName);
+		if (entry != null) {
+			evictionOrder.remove(entry);
+			entry.frequency++;
+			entry.lastAccess = accesses;
+			evictionOrder.add(entry);
+			return true;
+		}
+		if (size > getCapacity()) {
+			return false;
+		}
+
+		while (getUsedBytes() + size > getCapacity()) {
+			Entry evicted = evictionOrder.pollFirst();
+			files.remove(evicted.fileName);
+			fileEvicted(evicted.size);
+		}
+		entry = new Entry(fileName, size);
+		entry.lastAccess = accesses;
+		files.put(fileName, entry);
+		evictionOrder.add(entry);
+		fileAdded(size);
+		return false;
+	}
+
+	@Override
+	public long getFileSize(String fileName) {
+		Entry entry = files.get(fileName);
+		return entry == null ? -1 : entry.size;
+	}
+
+	@Override
+	public void removeFile(String fileName) {
+		Entry entry = files.remove(fileName);
+		if (entry != null) {
+			evictionOrder.remove(entry);
+			fileRemoved(entry.size);
+		}
+	}
+
+	/**
+	 * The entry of a cached file.
+	 */
+	private static class Entry {
+
+		/** The name of the file. */
+		final String fileName;
+
+		/** The size of the file in bytes. */
+		final long size;
+
+		/** The number of accesses to the file. */
+		long frequency = 1;
+
+		/** The order of the last access to the file. */
+		long lastAccess;
+
+		/**
+		 * Creates a new entry.
+		 *
+		 * @param fileName the name of the file
+		 * @param size the size of the file in bytes
+		 */
+		Entry(String fileName, long size) {
+			this.fileName = fileName;
+			this.size = size;
+		}
+
+	}
+
+}
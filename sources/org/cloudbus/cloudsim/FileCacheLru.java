@@ -0,0 +1,71 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A file cache that evicts the least recently used files.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FileCacheLru extends FileCache {
+
+	/** The sizes of the files, from the least to the most recently used. */
+	private final LinkedHashMap<String, Long> files = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Creates a new LRU cache.
+	 *
+	 * @param capacity the capacity in bytes
+	 * @throws IllegalArgumentException if the capacity is negative
+	 */
+	public FileCacheLru(long capacity) throws IllegalArgumentException {
+		super(capacity);
+	}
+
+	@Override
+	protected boolean accessFile(String fileName, long size) {
+		Long cachedSize = files.remove(fileName);
+		if (cachedSize != null) {
+			files.put(fileName, cachedSize);
+			return true;
+		}
+		if (size > getCapacity()) {
+			return false;
+		}
+
+		Iterator<Map.Entry<String, Long>> iter = files.entrySet().iterator();
+		while (getUsedBytes() + size > getCapacity()) {
+			Map.Entry<String, Long> entry = iter.next();
+			iter.remove();
+			fileEvicted(entry.getValue());
+		}
+		files.put(fileName, size);
+		fileAdded(size);
+		return false;
+	}
+
+	@Override
+	public long getFileSize(String fileName) {
+		Long size = files.get(fileName);
+		return size == null ? -1 : size;
+	}
+
+	@Override
+	public void removeFile(String fileName) {
+		Long size = files.remove(fileName);
+		if (size != null) {
+			fileRemoved(size);
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FileCatalog indexes the files of the storages of a datacenter by name, so that the storage
+ * holding a file is found without asking every storage. A file stored in several storages is
+ * indexed in the first one of the storage list.
+ *
+ * The catalog is updated by the datacenter when it adds or deletes a file. The files added,
+ * deleted or renamed directly on the storages are taken into account on lookup: the storage of an
+ * indexed file is checked to still hold it, and the storages are searched for a file that is not
+ * indexed. The version of the catalog also changes when the files of a {@link HarddriveStorage}
+ * change, so that the results derived from the catalog, such as the predicted file transfer times
+ * of a datacenter, are recomputed. The changes made directly on other implementations of
+ * {@link Storage} are not tracked by the version.
+ *
+ * @see Datacenter
+ * @since CloudSim Toolkit 3.0
+ */
+public class FileCatalog {
+
+	/** The storages. */
+	private final List<Storage> storageList;
+
+	/** The storage holding each file. */
+	private final Map<String, Storage> index;
+
+	/** The number of changes of the catalog. */
+	private long version;
+
+	/**
+	 * Creates a new catalog of the files of storages.
+	 *
+	 * @param storageList the storages, or null if there is no storage
+	 */
+	public FileCatalog(List<Storage> storageList) {
+		this.storageList = storageList;
+		index = new HashMap<String, Storage>();
+		rebuild();
+	}
+
+	/**
+	 * Indexes again the files of all the storages.
+	 */
+	public void rebuild() {
+		index.clear();
+		if (storageList != null) {
+			for (Storage storage : storageList) {
+				for (String fileName : storage.getFileNameList()) {
+					if (!index.containsKey(fileName)) {
+						index.put(fileName, storage);
+					}
+				}
+			}
+		}
+		version++;
+	}
+
+	/**
+	 * Gets the storage holding a file.
+	 *
+	 * @param fileName the name of the file
+	 * @return the storage, or null if no storage holds the file
+	 */
+	public Storage getStorage(String fileName) {
+		if (fileName == null || fileName.length() == 0) {
+			return null;
+		}
+		Storage storage = index.get(fileName);
+		if (storage != null) {
+			if (storage.contains(fileName)) {
+				return storage;
+			}
+			// the file was deleted or renamed on the storage
+			index.remove(fileName);
+			version++;
+		}
+		if (storageList != null) {
+			for (Storage tempStorage : storageList) {
+				if (tempStorage.contains(fileName)) {
+					index.put(fileName, tempStorage);
+					version++;
+					return tempStorage;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets a file from the storage holding it.
+	 *
+	 * @param fileName the name of the file
+	 * @return the file, or null if no storage holds the file
+	 * @see Storage#getFile(String)
+	 */
+	public File getFile(String fileName) {
+		Storage storage = getStorage(fileName);
+		if (storage == null) {
+			return null;
+		}
+		return storage.getFile(fileName);
+	}
+
+	/**
+	 * Checks whether a storage holds a file.
+	 *
+	 * @param fileName the name of the file
+	 * @return <tt>true</tt> if a storage holds the file, <tt>false</tt> otherwise
+	 */
+	public boolean contains(String fileName) {
+		return getStorage(fileName) != null;
+	}
+
+	/**
+	 * Records that a file was added to a storage.
+	 *
+	 * @param fileName the name of the file
+	 * @param storage the storage
+	 */
+	public void addFile(String fileName, Storage storage) {
+		if (!index.containsKey(fileName)) {
+			index.put(fileName, storage);
+			version++;
+		}
+	}
+
+	/**
+	 * Records that a file was deleted from all the storages.
+	 *
+	 * @param fileName the name of the file
+	 */
+	public void deleteFile(String fileName) {
+		if (index.remove(fileName) != null) {
+			version++;
+		}
+	}
+
+	/**
+	 * Records that a file was renamed.
+	 *
+	 * @param fileName the old name of the file
+	 * @param newName the new name of the file
+	 */
+	public void renameFile(String fileName, String newName) {
+		Storage storage = index.remove(fileName);
+		if (storage != null) {
+			index.put(newName, storage);
+			version++;
+		}
+	}
+
+	/**
+	 * Gets the version of the catalog, which changes whenever a file is indexed or removed from the
+	 * index, or added, deleted or renamed on a {@link HarddriveStorage} of the catalog.
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+		long storageVersion = version;
+		if (storageList != null) {
+			for (Storage storage : storageList) {
+				if (storage instanceof HarddriveStorage) {
+					storageVersion += ((HarddriveStorage) storage).getModificationCount();
+				}
+			}
+		}
+		return storageVersion;
+	}
+
+}
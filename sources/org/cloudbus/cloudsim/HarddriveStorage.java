@@ -10,7 +10,9 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
 
@@ -23,6 +25,9 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  * <li>avg seek time = 9 ms
  * <li>max transfer rate = 133 MB/sec
  * </ul>
+ * The files are indexed by name, and the sizes of the files are kept in a Fenwick tree in the
+ * order the files were added, so that finding a file and computing its seek time do not scan the
+ * files of the harddrive.
  * 
  * @author Uros Cibej
  * @author Anthony Sulistio
@@ -30,11 +35,23 @@ import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
  */
 public class HarddriveStorage implements Storage {
 
-	/** a list storing the names of all the files on the harddrive. */
-	private List<String> nameList;
+	/**
+	 * the names of all the files on the harddrive, in the order of the name list, mapped to the
+	 * slots of the files.
+	 */
+	private Map<String, Integer> slotIndex;
+
+	/** the files stored on the harddrive in the order they were added, null for a deleted file. */
+	private File[] slots;
+
+	/** the number of slots used, by the stored and the deleted files. */
+	private int usedSlots;
+
+	/** the Fenwick tree of the sizes of the files in the slots. */
+	private long[] sizeTree;
 
-	/** a list storing all the files stored on the harddrive. */
-	private List<File> fileList;
+	/** the number of files added, deleted or renamed on the harddrive. */
+	private long modificationCount;
 
 	/** the name of the harddrive. */
 	private final String name;
@@ -101,8 +118,10 @@ public class HarddriveStorage implements Storage {
 	 * created.
 	 */
 	private void init() {
-		fileList = new ArrayList<File>();
-		nameList = new ArrayList<String>();
+		slotIndex = new LinkedHashMap<String, Integer>();
+		slots = new File[16];
+		usedSlots = 0;
+		sizeTree = new long[slots.length + 1];
 		gen = null;
 		currentSize = 0;
 
@@ -141,7 +160,7 @@ public class HarddriveStorage implements Storage {
 	 */
 	@Override
 	public int getNumStoredFile() {
-		return fileList.size();
+		return slotIndex.size();
 	}
 
 	/**
@@ -205,15 +224,17 @@ public class HarddriveStorage implements Storage {
 			return true;
 		}
 
-		Iterator<File> it = fileList.iterator();
 		File file = null;
 		int deletedFileSize = 0;
 
 		// if not enough space, then if want to clear/delete some files
 		// then check whether it still have space or not
 		boolean result = false;
-		while (it.hasNext()) {
-			file = it.next();
+		for (int i = 0; i < usedSlots; i++) {
+			file = slots[i];
+			if (file == null) {
+				continue;
+			}
 			if (!file.isReadOnly()) {
 				deletedFileSize += file.getSize();
 			}
@@ -360,28 +381,14 @@ public class HarddriveStorage implements Storage {
 			return obj;
 		}
 
-		Iterator<File> it = fileList.iterator();
-		int size = 0;
-		int index = 0;
-		boolean found = false;
-		File tempFile = null;
-
 		// find the file in the disk
-		while (it.hasNext()) {
-			tempFile = it.next();
-			size += tempFile.getSize();
-			if (tempFile.getName().equals(fileName)) {
-				found = true;
-				obj = tempFile;
-				break;
-			}
-
-			index++;
-		}
+		Integer slot = slotIndex.get(fileName);
 
 		// if the file is found, then determine the time taken to get it
-		if (found) {
-			obj = fileList.get(index);
+		if (slot != null) {
+			obj = slots[slot];
+			// the size of the files up to this one on the disk
+			int size = (int) getSizeOfSlots(slot);
 			double seekTime = getSeekTime(size);
 			double transferTime = getTransferTime(obj.getSize());
 
@@ -393,13 +400,131 @@ public class HarddriveStorage implements Storage {
 	}
 
 	/**
-	 * Gets the list of file names located on this storage.
+	 * Gets the list of file names located on this storage. The list is a copy.
 	 * 
 	 * @return a List of file names
 	 */
 	@Override
 	public List<String> getFileNameList() {
-		return nameList;
+		return new ArrayList<String>(slotIndex.keySet());
+	}
+
+	/**
+	 * Gets the number of files added, deleted or renamed on the harddrive, which changes whenever
+	 * its files change.
+	 * 
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Gets the position of a file on the harddrive, that is the total size of the files stored
+	 * before it.
+	 * 
+	 * @param fileName the name of the file
+	 * @return the position in MB, or -1 if the file is not on the harddrive
+	 */
+	public double getFileOffset(String fileName) {
+		Integer slot = slotIndex.get(fileName);
+		if (slot == null) {
+			return -1;
+		}
+		return getSizeOfSlots(slot) - slots[slot].getSize();
+	}
+
+	/**
+	 * Stores a file in the next slot, compacting or growing the slots if they are all used.
+	 * 
+	 * @param file the file
+	 */
+	private void addToSlots(File file) {
+		if (usedSlots == slots.length) {
+			File[] files = slots;
+			int length = usedSlots;
+			if (slotIndex.size() * 2 > slots.length) {
+				slots = new File[slots.length * 2];
+			} else {
+				slots = new File[slots.length];
+			}
+			usedSlots = 0;
+			for (int i = 0; i < length; i++) {
+				if (files[i] != null) {
+					slots[usedSlots] = files[i];
+					slotIndex.put(files[i].getName(), usedSlots);
+					usedSlots++;
+				}
+			}
+			buildSizeTree();
+		}
+		slots[usedSlots] = file;
+		slotIndex.put(file.getName(), usedSlots);
+		addToSizeTree(usedSlots, file.getSize());
+		usedSlots++;
+		modificationCount++;
+	}
+
+	/**
+	 * Removes a file from its slot.
+	 * 
+	 * @param fileName the name of the file
+	 * @return the removed file, or null if there is no file with this name
+	 */
+	private File removeFromSlots(String fileName) {
+		Integer slot = slotIndex.remove(fileName);
+		if (slot == null) {
+			return null;
+		}
+		File file = slots[slot];
+		slots[slot] = null;
+		addToSizeTree(slot, -file.getSize());
+		modificationCount++;
+		return file;
+	}
+
+	/**
+	 * Builds the Fenwick tree of the sizes of the files in the slots.
+	 */
+	private void buildSizeTree() {
+		sizeTree = new long[slots.length + 1];
+		for (int i = 0; i < usedSlots; i++) {
+			if (slots[i] != null) {
+				sizeTree[i + 1] = slots[i].getSize();
+			}
+		}
+		for (int i = 1; i <= slots.length; i++) {
+			int parent = i + (i & -i);
+			if (parent <= slots.length) {
+				sizeTree[parent] += sizeTree[i];
+			}
+		}
+	}
+
+	/**
+	 * Adds a size to a slot in the Fenwick tree.
+	 * 
+	 * @param slot the slot
+	 * @param size the size to add
+	 */
+	private void addToSizeTree(int slot, long size) {
+		for (int i = slot + 1; i <= slots.length; i += i & -i) {
+			sizeTree[i] += size;
+		}
+	}
+
+	/**
+	 * Gets the total size of the files in the slots up to a slot, included.
+	 * 
+	 * @param slot the last slot
+	 * @return the total size in MB
+	 */
+	private long getSizeOfSlots(int slot) {
+		long size = 0;
+		for (int i = slot + 1; i > 0; i -= i & -i) {
+			size += sizeTree[i];
+		}
+		return size;
 	}
 
 	/**
@@ -491,8 +616,7 @@ public class HarddriveStorage implements Storage {
 			double seekTime = getSeekTime(file.getSize());
 			double transferTime = getTransferTime(file.getSize());
 
-			fileList.add(file);               // add the file into the HD
-			nameList.add(file.getName());     // add the name to the name list
+			addToSlots(file);                 // add the file into the HD and its name to the index
 			currentSize += file.getSize();    // increment the current HD size
 			result = seekTime + transferTime;  // add total time
 		}
@@ -538,20 +662,13 @@ public class HarddriveStorage implements Storage {
 			return null;
 		}
 
-		Iterator<File> it = fileList.iterator();
+		// if a file is found then delete
+		Integer slot = slotIndex.get(fileName);
 		File file = null;
-		while (it.hasNext()) {
-			file = it.next();
-			String name = file.getName();
-
-			// if a file is found then delete
-			if (fileName.equals(name)) {
-				double result = deleteFile(file);
-				file.setTransactionTime(result);
-				break;
-			} else {
-				file = null;
-			}
+		if (slot != null) {
+			file = slots[slot];
+			double result = deleteFile(file);
+			file.setTransactionTime(result);
 		}
 		return file;
 	}
@@ -588,8 +705,7 @@ public class HarddriveStorage implements Storage {
 
 		// check if the file is in the storage
 		if (contains(file)) {
-			fileList.remove(file);            // remove the file HD
-			nameList.remove(file.getName());  // remove the name from name list
+			removeFromSlots(file.getName());  // remove the file HD and its name from the index
 			currentSize -= file.getSize();    // decrement the current HD space
 			result = seekTime + transferTime;  // total time
 			file.setTransactionTime(result);
@@ -610,15 +726,7 @@ public class HarddriveStorage implements Storage {
 			Log.printLine(name + ".contains(): Warning - invalid file name");
 			return result;
 		}
-		// check each file in the list
-		Iterator<String> it = nameList.iterator();
-		while (it.hasNext()) {
-			String name = it.next();
-			if (name.equals(fileName)) {
-				result = true;
-				break;
-			}
-		}
+		result = slotIndex.containsKey(fileName);
 		return result;
 	}
 
@@ -660,22 +768,15 @@ public class HarddriveStorage implements Storage {
 		File obj = getFile(file.getName());
 		if (obj == null) {
 			return result;
-		} else {
-			obj.setName(newName);
 		}
 
-		// replace the file name in the name list
-		Iterator<String> it = nameList.iterator();
-		while (it.hasNext()) {
-			String name = it.next();
-			if (name.equals(file.getName())) {
-				file.setTransactionTime(0);
-				nameList.remove(name);
-				nameList.add(newName);
-				result = true;
-				break;
-			}
-		}
+		// move the name to the end of the name list, the file keeps its slot
+		Integer slot = slotIndex.remove(obj.getName());
+		obj.setName(newName);
+		slotIndex.put(newName, slot);
+		modificationCount++;
+		file.setTransactionTime(0);
+		result = true;
 
 		return result;
 	}
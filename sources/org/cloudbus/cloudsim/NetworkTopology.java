@@ -10,20 +10,20 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
-import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.NetworkDelayOracle;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
-import org.cloudbus.cloudsim.network.TopologicalLink;
-import org.cloudbus.cloudsim.network.TopologicalNode;
 
 /**
  * NetworkTopology is a class that implements network layer in CloudSim. It reads a BRITE file and
  * generates a topological network from it. Information of this network is used to simulate latency
  * in network traffic of CloudSim.
  * <p>
+ * The delays are computed on demand by a {@link NetworkDelayOracle}, which is only built once the
+ * links have been added, when a delay is first requested.
+ * <p>
  * The topology file may contain more nodes the the number of entities in the simulation. It allows
  * for users to increase the scale of the simulation without changing the topology file.
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
@@ -40,9 +40,7 @@ public class NetworkTopology {
 
 	private static boolean networkEnabled = false;
 
-	protected static DelayMatrix_Float delayMatrix = null;
-
-	protected static double[][] bwMatrix = null;
+	protected static NetworkDelayOracle delayOracle = null;
 
 	protected static TopologicalGraph graph = null;
 
@@ -75,18 +73,27 @@ public class NetworkTopology {
 	}
 
 	/**
-	 * Generates the matrices used internally to set latency and bandwidth between elements
+	 * Enables the network and discards the delays computed for the previous links. The oracle of
+	 * the delays and bandwidths is built again when a delay is requested.
 	 */
 	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
-
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		delayOracle = null;
 
 		networkEnabled = true;
 	}
 
+	/**
+	 * Gets the oracle of the delays and bandwidths between the nodes, building it if needed.
+	 * 
+	 * @return the oracle
+	 */
+	protected static NetworkDelayOracle getDelayOracle() {
+		if (delayOracle == null) {
+			delayOracle = new NetworkDelayOracle(graph, false);
+		}
+		return delayOracle;
+	}
+
 	/**
 	 * Adds a new link in the network topology
 	 * 
@@ -110,57 +117,24 @@ public class NetworkTopology {
 
 		// maybe add the nodes
 		if (!map.containsKey(srcId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
+			graph.addNode(nextIdx, 0, 0);
 			map.put(srcId, nextIdx);
 			nextIdx++;
 		}
 
 		if (!map.containsKey(destId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
+			graph.addNode(nextIdx, 0, 0);
 			map.put(destId, nextIdx);
 			nextIdx++;
 		}
 
 		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+		graph.addLink(map.get(srcId), map.get(destId), (float) lat, (float) bw);
 
 		generateMatrices();
 
 	}
 
-	/**
-	 * Creates the matrix containiing the available bandiwdth beteen two nodes
-	 * 
-	 * @param graph topological graph describing the topology
-	 * @param directed true if the graph is directed; false otherwise
-	 * @return the bandwidth graph
-	 */
-	private static double[][] createBwMatrix(TopologicalGraph graph, boolean directed) {
-		int nodes = graph.getNumberOfNodes();
-
-		double[][] mtx = new double[nodes][nodes];
-
-		// cleanup matrix
-		for (int i = 0; i < nodes; i++) {
-			for (int j = 0; j < nodes; j++) {
-				mtx[i][j] = 0.0;
-			}
-		}
-
-		Iterator<TopologicalLink> iter = graph.getLinkIterator();
-		while (iter.hasNext()) {
-			TopologicalLink edge = iter.next();
-
-			mtx[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkBw();
-
-			if (!directed) {
-				mtx[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkBw();
-			}
-		}
-
-		return mtx;
-	}
-
 	/**
 	 * Maps a CloudSim entity to a node in the network topology
 	 * 
@@ -222,7 +196,7 @@ public class NetworkTopology {
 		if (networkEnabled) {
 			try {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay = getDelayOracle().getDelay(map.get(srcID), map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -232,6 +206,27 @@ public class NetworkTopology {
 		return 0.0;
 	}
 
+	/**
+	 * Gets the bandwidth of the link between two nodes
+	 * 
+	 * @param srcID ID of the source node
+	 * @param destID ID of the destination node
+	 * @return bandwidth of the link between the two nodes, or 0.0 if they are not linked
+	 * @pre srcID >= 0
+	 * @pre destID >= 0
+	 * @post $none
+	 */
+	public static double getBw(int srcID, int destID) {
+		if (networkEnabled) {
+			try {
+				return getDelayOracle().getBw(map.get(srcID), map.get(destID));
+			} catch (Exception e) {
+				// in case of error, just keep running and return 0.0
+			}
+		}
+		return 0.0;
+	}
+
 	/**
 	 * This method returns true if network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
@@ -0,0 +1,425 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * PlanetLabTraceStore holds the traces of a PlanetLab workload folder, one file per VM with a CPU
+ * utilization percentage per line, as one block of samples. The percentages are integers, so they
+ * are stored as shorts, trace after trace, in an array, in a direct buffer outside of the heap, or
+ * in a memory-mapped cache file. The utilization models of the VMs are views into the store, created
+ * by {@link #getUtilizationModel(int, double)}.
+ *
+ * The files of a folder are parsed in parallel. The store can be saved as a binary cache file, which
+ * is memory-mapped to reload the folder instantly, and the stores are shared by folder within the
+ * JVM by {@link #getSharedStore(String, int)}, so that the experiments of a sweep read each folder
+ * once.
+ *
+ * As in {@link UtilizationModelPlanetLabInMemory}, a trace of n samples is made of the first n - 1
+ * lines of its file, and its last sample repeats the sample before.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PlanetLabTraceStore {
+
+	/** The number of samples of a day of PlanetLab traces (5 min * 288 = 24 hours, and one more). */
+	public static final int DEFAULT_NUMBER_OF_SAMPLES = 289;
+
+	/** The first int of a cache file. */
+	private static final int MAGIC = 0x504c5453;
+
+	/** The version of the format of the cache files. */
+	private static final int VERSION = 1;
+
+	/** The stores shared within the JVM, by folder and number of samples. */
+	private static final Map<String, PlanetLabTraceStore> sharedStores = new HashMap<String, PlanetLabTraceStore>();
+
+	/** The names of the files of the traces. */
+	private final String[] traceNames;
+
+	/** The number of samples of each trace. */
+	private final int numberOfSamples;
+
+	/** The samples, trace after trace, in percent. */
+	private final ShortBuffer samples;
+
+	/**
+	 * Instantiates a new store.
+	 *
+	 * @param traceNames the names of the files of the traces
+	 * @param numberOfSamples the number of samples of each trace
+	 * @param samples the samples
+	 */
+	private PlanetLabTraceStore(String[] traceNames, int numberOfSamples, ShortBuffer samples) {
+		this.traceNames = traceNames;
+		this.numberOfSamples = numberOfSamples;
+		this.samples = samples;
+	}
+
+	/**
+	 * Loads the traces of a folder on the heap, in the order the files are listed, with one thread
+	 * per processor.
+	 *
+	 * @param inputFolder the folder
+	 * @param numberOfSamples the number of samples of each trace
+	 * @return the store
+	 * @throws IOException if a file could not be read or has less than numberOfSamples - 1 lines
+	 * @throws NumberFormatException if a line is not an integer percentage
+	 */
+	public static PlanetLabTraceStore load(String inputFolder, int numberOfSamples) throws IOException {
+		return load(inputFolder, numberOfSamples, Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * Loads the traces of a folder, in the order the files are listed.
+	 *
+	 * @param inputFolder the folder
+	 * @param numberOfSamples the number of samples of each trace, at least 2
+	 * @param numberOfThreads the number of threads parsing the files
+	 * @param offHeap true to store the samples in a direct buffer, outside of the heap
+	 * @return the store
+	 * @throws IOException if a file could not be read or has less than numberOfSamples - 1 lines
+	 * @throws NumberFormatException if a line is not an integer percentage
+	 * @throws IllegalArgumentException if the number of samples is less than 2 or the number of
+	 *         threads is not positive
+	 */
+	public static PlanetLabTraceStore load(
+			String inputFolder,
+			final int numberOfSamples,
+			int numberOfThreads,
+			boolean offHeap) throws IOException, IllegalArgumentException {
+		if (numberOfSamples < 2 || numberOfThreads <= 0) {
+			throw new IllegalArgumentException("Invalid number of samples or threads");
+		}
+		final File[] files = new File(inputFolder).listFiles();
+		if (files == null) {
+			throw new IOException("Cannot list the traces of " + inputFolder);
+		}
+		String[] traceNames = new String[files.length];
+		for (int i = 0; i < files.length; i++) {
+			traceNames[i] = files[i].getName();
+		}
+
+		int size = files.length * numberOfSamples;
+		final ShortBuffer samples = offHeap ? ByteBuffer.allocateDirect(2 * size).asShortBuffer()
+				: ShortBuffer.allocate(size);
+
+		int threads = Math.max(1, Math.min(numberOfThreads, files.length));
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "PlanetLabTraceStore");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>(threads);
+			for (int t = 0; t < threads; t++) {
+				final int first = t;
+				final int step = threads;
+				results.add(executor.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws IOException {
+						byte[] buffer = new byte[8192];
+						for (int i = first; i < files.length; i += step) {
+							buffer = readTrace(files[i], numberOfSamples, samples, i * numberOfSamples, buffer);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return new PlanetLabTraceStore(traceNames, numberOfSamples, samples);
+	}
+
+	/**
+	 * Loads the traces of a folder from a cache file, which is memory-mapped. If the cache file
+	 * does not exist, is older than the folder or was made for another number of samples, the
+	 * folder is loaded on the heap and saved to the cache file.
+	 *
+	 * @param inputFolder the folder
+	 * @param numberOfSamples the number of samples of each trace
+	 * @param cacheFile the cache file
+	 * @return the store
+	 * @throws IOException if the traces or the cache file could not be read, or the cache file could
+	 *         not be written
+	 */
+	public static PlanetLabTraceStore loadCached(String inputFolder, int numberOfSamples, String cacheFile)
+			throws IOException {
+		File cache = new File(cacheFile);
+		if (cache.exists() && cache.lastModified() >= getLastModified(new File(inputFolder))) {
+			PlanetLabTraceStore store = map(cacheFile);
+			if (store.getNumberOfSamples() == numberOfSamples) {
+				return store;
+			}
+		}
+		PlanetLabTraceStore store = load(inputFolder, numberOfSamples);
+		store.save(cacheFile);
+		return store;
+	}
+
+	/**
+	 * Gets the store of a folder shared within the JVM, loading it on the first call.
+	 *
+	 * @param inputFolder the folder
+	 * @param numberOfSamples the number of samples of each trace
+	 * @return the store
+	 * @throws IOException if a file could not be read or has less than numberOfSamples - 1 lines
+	 */
+	public static synchronized PlanetLabTraceStore getSharedStore(String inputFolder, int numberOfSamples)
+			throws IOException {
+		String key = new File(inputFolder).getAbsolutePath() + File.pathSeparator + numberOfSamples;
+		PlanetLabTraceStore store = sharedStores.get(key);
+		if (store == null) {
+			store = load(inputFolder, numberOfSamples);
+			sharedStores.put(key, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Maps a cache file saved by {@link #save(String)} in memory.
+	 *
+	 * @param cacheFile the cache file
+	 * @return the store, whose samples are read from the file
+	 * @throws IOException if the file could not be read or is not a cache file
+	 */
+	public static PlanetLabTraceStore map(String cacheFile) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(cacheFile, "r");
+		try {
+			DataInputStream header = new DataInputStream(new FileInputStream(raf.getFD()));
+			if (header.readInt() != MAGIC || header.readInt() != VERSION) {
+				throw new IOException(cacheFile + " is not a PlanetLab trace cache");
+			}
+			int numberOfTraces = header.readInt();
+			int numberOfSamples = header.readInt();
+			long dataOffset = header.readLong();
+			String[] traceNames = new String[numberOfTraces];
+			for (int i = 0; i < numberOfTraces; i++) {
+				traceNames[i] = header.readUTF();
+			}
+			long dataSize = 2L * numberOfTraces * numberOfSamples;
+			if (dataOffset + dataSize > raf.length()) {
+				throw new IOException(cacheFile + " is truncated");
+			}
+			ShortBuffer samples = raf.getChannel()
+					.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize)
+					.asShortBuffer();
+			return new PlanetLabTraceStore(traceNames, numberOfSamples, samples);
+		} finally {
+			// the mapping stays valid once the file is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Saves the store in a cache file, which can be mapped by {@link #map(String)}.
+	 *
+	 * @param cacheFile the cache file
+	 * @throws IOException if the file could not be written
+	 */
+	public void save(String cacheFile) throws IOException {
+		ByteArrayOutputStream names = new ByteArrayOutputStream();
+		DataOutputStream namesOutput = new DataOutputStream(names);
+		for (String traceName : traceNames) {
+			namesOutput.writeUTF(traceName);
+		}
+		namesOutput.flush();
+
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				cacheFile)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(traceNames.length);
+			output.writeInt(numberOfSamples);
+			// the size of the header so far, the offset itself and the names
+			output.writeLong(24 + names.size());
+			names.writeTo(output);
+			int size = traceNames.length * numberOfSamples;
+			for (int i = 0; i < size; i++) {
+				output.writeShort(samples.get(i));
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int getNumberOfTraces() {
+		return traceNames.length;
+	}
+
+	/**
+	 * Gets the number of samples of each trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * Gets the name of the file of a trace.
+	 *
+	 * @param trace the index of the trace
+	 * @return the name of the file
+	 */
+	public String getTraceName(int trace) {
+		return traceNames[trace];
+	}
+
+	/**
+	 * Gets a sample of a trace.
+	 *
+	 * @param trace the index of the trace
+	 * @param sample the index of the sample
+	 * @return the utilization, from 0 to 1
+	 * @throws IndexOutOfBoundsException if the sample is not in the trace
+	 */
+	public double getUtilization(int trace, int sample) throws IndexOutOfBoundsException {
+		if (sample < 0 || sample >= numberOfSamples) {
+			throw new IndexOutOfBoundsException("Sample " + sample + " is not in the trace");
+		}
+		return samples.get(trace * numberOfSamples + sample) / 100.0;
+	}
+
+	/**
+	 * Creates the utilization model of a trace, which reads the samples from the store.
+	 *
+	 * @param trace the index of the trace
+	 * @param schedulingInterval the time between two samples
+	 * @return the utilization model
+	 */
+	public UtilizationModel getUtilizationModel(int trace, double schedulingInterval) {
+		return new UtilizationModelPlanetLabView(this, trace, schedulingInterval);
+	}
+
+	/**
+	 * Reads a trace file into the samples.
+	 *
+	 * @param file the file
+	 * @param numberOfSamples the number of samples of the trace
+	 * @param samples the samples
+	 * @param offset the index of the first sample of the trace
+	 * @param buffer a buffer for the content of the file
+	 * @return the buffer, which may have grown to hold the file
+	 * @throws IOException if the file could not be read or has too few lines
+	 * @throws NumberFormatException if a line is not an integer percentage
+	 */
+	private static byte[] readTrace(File file, int numberOfSamples, ShortBuffer samples, int offset, byte[] buffer)
+			throws IOException, NumberFormatException {
+		int length = 0;
+		InputStream input = new FileInputStream(file);
+		try {
+			int read;
+			while ((read = input.read(buffer, length, buffer.length - length)) >= 0) {
+				length += read;
+				if (length == buffer.length) {
+					byte[] larger = new byte[2 * buffer.length];
+					System.arraycopy(buffer, 0, larger, 0, length);
+					buffer = larger;
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		int pos = 0;
+		for (int i = 0; i < numberOfSamples - 1; i++) {
+			if (pos >= length) {
+				throw new IOException(file + " has less than " + (numberOfSamples - 1) + " samples");
+			}
+			int value = 0;
+			int digits = 0;
+			for (; pos < length && buffer[pos] != '\n'; pos++) {
+				byte c = buffer[pos];
+				if (c >= '0' && c <= '9' && digits < 4) {
+					value = 10 * value + c - '0';
+					digits++;
+				} else if (c != '\r' && c != ' ') {
+					throw new NumberFormatException("Invalid sample in " + file + ": line " + (i + 1));
+				}
+			}
+			if (digits == 0) {
+				throw new NumberFormatException("Invalid sample in " + file + ": line " + (i + 1));
+			}
+			samples.put(offset + i, (short) value);
+			pos++;
+		}
+		samples.put(offset + numberOfSamples - 1, samples.get(offset + numberOfSamples - 2));
+		return buffer;
+	}
+
+	/**
+	 * Gets the last time a folder or one of its files was modified.
+	 *
+	 * @param folder the folder
+	 * @return the time of the last modification
+	 */
+	private static long getLastModified(File folder) {
+		long lastModified = folder.lastModified();
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				lastModified = Math.max(lastModified, file.lastModified());
+			}
+		}
+		return lastModified;
+	}
+
+}
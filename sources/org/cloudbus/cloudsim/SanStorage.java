@@ -59,6 +59,15 @@ public class SanStorage extends HarddriveStorage {
 		this.networkLatency = networkLatency;
 	}
 
+	/**
+	 * Gets the latency of the network connection.
+	 * 
+	 * @return the network latency in seconds
+	 */
+	public double getNetworkLatency() {
+		return networkLatency;
+	}
+
 	/**
 	 * Adds a file for which the space has already been reserved.
 	 * 
@@ -0,0 +1,229 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StorageIoModel is an abstract class that represents the queue of the requests of a storage
+ * device, so that concurrent accesses to the storage contend. The model is advanced to the current
+ * simulation time by its owner, usually a {@link Datacenter}, before a request is submitted and at
+ * the time of its next event, and the completed requests are polled after each advance.
+ *
+ * The model records the device utilization, that is the fraction of the time the device serves a
+ * request, and the queue depth, that is the number of requests waiting or in service.
+ *
+ * @see Datacenter#setStorageIoModel(Storage, StorageIoModel)
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class StorageIoModel {
+
+	/** The time the model was advanced to. */
+	private double currentTime = 0;
+
+	/** The number of requests waiting or in service. */
+	private int queueDepth = 0;
+
+	/** The maximum queue depth. */
+	private int maxQueueDepth = 0;
+
+	/** The time the device was busy. */
+	private double busyTime = 0;
+
+	/** The integral of the queue depth over the time. */
+	private double queueDepthTime = 0;
+
+	/** The number of completed requests. */
+	private long numberOfCompletedRequests = 0;
+
+	/** The total response time of the completed requests. */
+	private double totalResponseTime = 0;
+
+	/** The requests completed since the last poll. */
+	private final List<StorageRequest> completedRequests = new ArrayList<StorageRequest>();
+
+	/**
+	 * Submits a request at a time, after advancing the model to this time.
+	 *
+	 * @param request the request
+	 * @param time the current time
+	 */
+	public void submit(StorageRequest request, double time) {
+		advanceTo(time);
+		request.setArrivalTime(currentTime);
+		queueDepth++;
+		if (queueDepth > maxQueueDepth) {
+			maxQueueDepth = queueDepth;
+		}
+		enqueue(request);
+	}
+
+	/**
+	 * Advances the model to a time, processing the events up to this time.
+	 *
+	 * @param time the time
+	 */
+	public void advanceTo(double time) {
+		while (getNextEventTime() <= time) {
+			advanceClock(getNextEventTime());
+			processNextEvent();
+		}
+		advanceClock(time);
+	}
+
+	/**
+	 * Gets the requests completed since the last poll.
+	 *
+	 * @return the completed requests, in the order of their completion
+	 */
+	public List<StorageRequest> pollCompletedRequests() {
+		List<StorageRequest> requests = new ArrayList<StorageRequest>(completedRequests);
+		completedRequests.clear();
+		return requests;
+	}
+
+	/**
+	 * Gets the time of the next event of the model, such as the completion of a request.
+	 *
+	 * @return the time of the next event, or {@link Double#POSITIVE_INFINITY} if there is none
+	 */
+	public abstract double getNextEventTime();
+
+	/**
+	 * Adds a request to the queue, or starts serving it.
+	 *
+	 * @param request the request
+	 */
+	protected abstract void enqueue(StorageRequest request);
+
+	/**
+	 * Processes the event happening at the current time, which is the time of the next event.
+	 */
+	protected abstract void processNextEvent();
+
+	/**
+	 * Checks whether the device is serving a request.
+	 *
+	 * @return true if the device is busy
+	 */
+	protected abstract boolean isBusy();
+
+	/**
+	 * Updates the requests in service for an elapsed time, before the clock of the model advances.
+	 *
+	 * @param elapsedTime the elapsed time
+	 */
+	protected void updateRequests(double elapsedTime) {
+	}
+
+	/**
+	 * Records the completion of a request at the current time.
+	 *
+	 * @param request the request
+	 */
+	protected void finishRequest(StorageRequest request) {
+		request.setRemainingSize(0);
+		request.setFinishTime(currentTime);
+		queueDepth--;
+		numberOfCompletedRequests++;
+		totalResponseTime += currentTime - request.getArrivalTime();
+		completedRequests.add(request);
+	}
+
+	/**
+	 * Advances the clock of the model, recording the utilization and the queue depth.
+	 *
+	 * @param time the new time
+	 */
+	private void advanceClock(double time) {
+		double elapsedTime = time - currentTime;
+		if (elapsedTime > 0) {
+			if (isBusy()) {
+				busyTime += elapsedTime;
+			}
+			queueDepthTime += queueDepth * elapsedTime;
+			updateRequests(elapsedTime);
+			currentTime = time;
+		}
+	}
+
+	/**
+	 * Gets the time the model was advanced to.
+	 *
+	 * @return the current time
+	 */
+	protected double getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * Gets the number of requests waiting or in service.
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * Gets the maximum number of requests waiting or in service.
+	 *
+	 * @return the maximum queue depth
+	 */
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	/**
+	 * Gets the mean number of requests waiting or in service, over the time since the start.
+	 *
+	 * @return the mean queue depth
+	 */
+	public double getMeanQueueDepth() {
+		if (currentTime == 0) {
+			return 0;
+		}
+		return queueDepthTime / currentTime;
+	}
+
+	/**
+	 * Gets the fraction of the time since the start the device was serving a request.
+	 *
+	 * @return the utilization, between 0 and 1
+	 */
+	public double getUtilization() {
+		if (currentTime == 0) {
+			return 0;
+		}
+		return busyTime / currentTime;
+	}
+
+	/**
+	 * Gets the number of completed requests.
+	 *
+	 * @return the number of completed requests
+	 */
+	public long getNumberOfCompletedRequests() {
+		return numberOfCompletedRequests;
+	}
+
+	/**
+	 * Gets the mean time between the arrival and the completion of the completed requests.
+	 *
+	 * @return the mean response time
+	 */
+	public double getMeanResponseTime() {
+		if (numberOfCompletedRequests == 0) {
+			return 0;
+		}
+		return totalResponseTime / numberOfCompletedRequests;
+	}
+
+}
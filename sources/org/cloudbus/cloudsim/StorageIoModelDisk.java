@@ -0,0 +1,174 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * StorageIoModelDisk models a harddrive serving one request at a time. The service time of a
+ * request is the seek time, proportional to the distance between the head and the file and equal
+ * to the average seek time for a third of the capacity, the average rotational latency, and the
+ * transfer time at the maximum transfer rate of the harddrive. The position of a file is the total
+ * size of the files added to the harddrive before it.
+ *
+ * The waiting requests are served in their arrival order ({@link #FIFO}), or by the elevator
+ * algorithm ({@link #SCAN}): the head serves the nearest request in its direction, and reverses
+ * its direction when there is none.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StorageIoModelDisk extends StorageIoModel {
+
+	/** The policy serving the requests in their arrival order. */
+	public static final int FIFO = 0;
+
+	/** The policy serving the requests by the elevator algorithm. */
+	public static final int SCAN = 1;
+
+	/** The harddrive. */
+	private final HarddriveStorage storage;
+
+	/** The scheduling policy. */
+	private final int policy;
+
+	/** The waiting requests, in their arrival order, for the FIFO policy. */
+	private final LinkedList<StorageRequest> fifoQueue = new LinkedList<StorageRequest>();
+
+	/** The waiting requests by position, in their arrival order, for the SCAN policy. */
+	private final TreeMap<Double, LinkedList<StorageRequest>> scanQueue = new TreeMap<Double, LinkedList<StorageRequest>>();
+
+	/** The request in service, or null if the harddrive is idle. */
+	private StorageRequest currentRequest;
+
+	/** The finish time of the request in service. */
+	private double currentFinishTime = Double.POSITIVE_INFINITY;
+
+	/** The position of the head in MB. */
+	private double headPosition = 0;
+
+	/** Whether the head moves towards the end of the harddrive. */
+	private boolean movingUp = true;
+
+	/**
+	 * Creates a new I/O model of a harddrive.
+	 *
+	 * @param storage the harddrive
+	 * @param policy the scheduling policy, {@link #FIFO} or {@link #SCAN}
+	 * @throws IllegalArgumentException if the policy is unknown
+	 */
+	public StorageIoModelDisk(HarddriveStorage storage, int policy) throws IllegalArgumentException {
+		if (policy != FIFO && policy != SCAN) {
+			throw new IllegalArgumentException("Unknown scheduling policy " + policy);
+		}
+		this.storage = storage;
+		this.policy = policy;
+	}
+
+	@Override
+	public double getNextEventTime() {
+		return currentFinishTime;
+	}
+
+	@Override
+	protected void enqueue(StorageRequest request) {
+		double position = storage.getFileOffset(request.getFileName());
+		request.setPosition(Math.max(position, 0));
+		if (currentRequest == null) {
+			startRequest(request);
+		} else if (policy == FIFO) {
+			fifoQueue.add(request);
+		} else {
+			LinkedList<StorageRequest> requests = scanQueue.get(request.getPosition());
+			if (requests == null) {
+				requests = new LinkedList<StorageRequest>();
+				scanQueue.put(request.getPosition(), requests);
+			}
+			requests.add(request);
+		}
+	}
+
+	@Override
+	protected void processNextEvent() {
+		finishRequest(currentRequest);
+		currentRequest = null;
+		currentFinishTime = Double.POSITIVE_INFINITY;
+		StorageRequest next = pollNextRequest();
+		if (next != null) {
+			startRequest(next);
+		}
+	}
+
+	@Override
+	protected boolean isBusy() {
+		return currentRequest != null;
+	}
+
+	/**
+	 * Removes the next request to serve from the queue.
+	 *
+	 * @return the request, or null if the queue is empty
+	 */
+	private StorageRequest pollNextRequest() {
+		if (policy == FIFO) {
+			return fifoQueue.poll();
+		}
+		if (scanQueue.isEmpty()) {
+			return null;
+		}
+		Map.Entry<Double, LinkedList<StorageRequest>> entry = movingUp
+				? scanQueue.ceilingEntry(headPosition)
+				: scanQueue.floorEntry(headPosition);
+		if (entry == null) {
+			movingUp = !movingUp;
+			entry = movingUp ? scanQueue.ceilingEntry(headPosition) : scanQueue.floorEntry(headPosition);
+		}
+		StorageRequest request = entry.getValue().removeFirst();
+		if (entry.getValue().isEmpty()) {
+			scanQueue.remove(entry.getKey());
+		}
+		return request;
+	}
+
+	/**
+	 * Starts serving a request at the current time.
+	 *
+	 * @param request the request
+	 */
+	private void startRequest(StorageRequest request) {
+		request.setStartTime(getCurrentTime());
+		currentRequest = request;
+		currentFinishTime = getCurrentTime() + getServiceTime(request);
+		headPosition = request.getPosition() + request.getSize();
+	}
+
+	/**
+	 * Gets the time to serve a request from the current position of the head.
+	 *
+	 * @param request the request
+	 * @return the service time in seconds
+	 */
+	protected double getServiceTime(StorageRequest request) {
+		double distance = Math.abs(request.getPosition() - headPosition);
+		double seekTime = 3 * storage.getAvgSeekTime() * distance / storage.getCapacity();
+		double transferTime = request.getSize() / storage.getMaxTransferRate();
+		return seekTime + storage.getLatency() + transferTime;
+	}
+
+	/**
+	 * Gets the scheduling policy.
+	 *
+	 * @return the scheduling policy
+	 */
+	public int getPolicy() {
+		return policy;
+	}
+
+}
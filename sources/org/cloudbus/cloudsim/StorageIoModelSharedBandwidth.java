@@ -0,0 +1,136 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * StorageIoModelSharedBandwidth models a storage reached through a network link, like a
+ * {@link SanStorage}, whose bandwidth is shared by the concurrent transfers. Each request waits
+ * for the network latency, then transfers its file at an equal share of the maximum transfer rate
+ * of the storage, so that a transfer is slowed down by the transfers overlapping it.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StorageIoModelSharedBandwidth extends StorageIoModel {
+
+	/** The storage. */
+	private final Storage storage;
+
+	/** The latency before a transfer starts. */
+	private final double latency;
+
+	/** The requests waiting for the latency, in their arrival order. */
+	private final LinkedList<StorageRequest> waitingRequests = new LinkedList<StorageRequest>();
+
+	/** The transfers in progress. */
+	private final List<StorageRequest> activeRequests = new ArrayList<StorageRequest>();
+
+	/**
+	 * Creates a new I/O model of a SAN storage, with the network latency of the storage.
+	 *
+	 * @param storage the storage
+	 */
+	public StorageIoModelSharedBandwidth(SanStorage storage) {
+		this(storage, storage.getNetworkLatency());
+	}
+
+	/**
+	 * Creates a new I/O model of a storage.
+	 *
+	 * @param storage the storage
+	 * @param latency the latency before a transfer starts, in seconds
+	 * @throws IllegalArgumentException if the latency is negative
+	 */
+	public StorageIoModelSharedBandwidth(Storage storage, double latency) throws IllegalArgumentException {
+		if (!(latency >= 0)) {
+			throw new IllegalArgumentException("The latency must be >= 0.");
+		}
+		this.storage = storage;
+		this.latency = latency;
+	}
+
+	@Override
+	public double getNextEventTime() {
+		double time = Double.POSITIVE_INFINITY;
+		if (!waitingRequests.isEmpty()) {
+			time = waitingRequests.getFirst().getArrivalTime() + latency;
+		}
+		if (!activeRequests.isEmpty()) {
+			double minRemainingSize = Double.POSITIVE_INFINITY;
+			for (StorageRequest request : activeRequests) {
+				minRemainingSize = Math.min(minRemainingSize, request.getRemainingSize());
+			}
+			time = Math.min(time, getCurrentTime() + minRemainingSize / getTransferRate());
+		}
+		return time;
+	}
+
+	@Override
+	protected void enqueue(StorageRequest request) {
+		if (latency == 0) {
+			request.setStartTime(getCurrentTime());
+			activeRequests.add(request);
+		} else {
+			waitingRequests.add(request);
+		}
+	}
+
+	@Override
+	protected void processNextEvent() {
+		double time = getCurrentTime();
+		if (!activeRequests.isEmpty()) {
+			double rate = getTransferRate();
+			Iterator<StorageRequest> it = activeRequests.iterator();
+			while (it.hasNext()) {
+				StorageRequest request = it.next();
+				// the transfers finishing at this time, up to rounding
+				if (request.getRemainingSize() <= 1e-9
+						|| time + request.getRemainingSize() / rate <= time) {
+					it.remove();
+					finishRequest(request);
+				}
+			}
+		}
+		while (!waitingRequests.isEmpty() && waitingRequests.getFirst().getArrivalTime() + latency <= time) {
+			StorageRequest request = waitingRequests.removeFirst();
+			request.setStartTime(time);
+			activeRequests.add(request);
+		}
+	}
+
+	@Override
+	protected boolean isBusy() {
+		return !activeRequests.isEmpty();
+	}
+
+	@Override
+	protected void updateRequests(double elapsedTime) {
+		if (activeRequests.isEmpty()) {
+			return;
+		}
+		double transferred = elapsedTime * getTransferRate();
+		for (StorageRequest request : activeRequests) {
+			request.setRemainingSize(Math.max(request.getRemainingSize() - transferred, 0));
+		}
+	}
+
+	/**
+	 * Gets the transfer rate of each transfer in progress.
+	 *
+	 * @return the rate in MB/sec
+	 */
+	protected double getTransferRate() {
+		return storage.getMaxTransferRate() / activeRequests.size();
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * StorageRequest represents the reading of a file of a storage, queued and served by a
+ * {@link StorageIoModel}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StorageRequest {
+
+	/** The cloudlet reading the file. */
+	private final Cloudlet cloudlet;
+
+	/** The name of the file. */
+	private final String fileName;
+
+	/** The size of the file in MB. */
+	private final double size;
+
+	/** The position of the file on the storage in MB. */
+	private double position;
+
+	/** The size left to transfer in MB. */
+	private double remainingSize;
+
+	/** The arrival time. */
+	private double arrivalTime = -1;
+
+	/** The start time of the service. */
+	private double startTime = -1;
+
+	/** The finish time. */
+	private double finishTime = -1;
+
+	/**
+	 * Creates a new storage request.
+	 *
+	 * @param cloudlet the cloudlet reading the file
+	 * @param fileName the name of the file
+	 * @param size the size of the file in MB
+	 */
+	public StorageRequest(Cloudlet cloudlet, String fileName, double size) {
+		this.cloudlet = cloudlet;
+		this.fileName = fileName;
+		this.size = size;
+		remainingSize = size;
+	}
+
+	/**
+	 * Gets the cloudlet reading the file.
+	 *
+	 * @return the cloudlet
+	 */
+	public Cloudlet getCloudlet() {
+		return cloudlet;
+	}
+
+	/**
+	 * Gets the name of the file.
+	 *
+	 * @return the file name
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Gets the size of the file.
+	 *
+	 * @return the size in MB
+	 */
+	public double getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the position of the file on the storage.
+	 *
+	 * @return the position in MB
+	 */
+	public double getPosition() {
+		return position;
+	}
+
+	/**
+	 * Sets the position of the file on the storage.
+	 *
+	 * @param position the position in MB
+	 */
+	public void setPosition(double position) {
+		this.position = position;
+	}
+
+	/**
+	 * Gets the size left to transfer.
+	 *
+	 * @return the remaining size in MB
+	 */
+	public double getRemainingSize() {
+		return remainingSize;
+	}
+
+	/**
+	 * Sets the size left to transfer.
+	 *
+	 * @param remainingSize the remaining size in MB
+	 */
+	public void setRemainingSize(double remainingSize) {
+		this.remainingSize = remainingSize;
+	}
+
+	/**
+	 * Gets the arrival time.
+	 *
+	 * @return the arrival time, or -1 if the request was not submitted
+	 */
+	public double getArrivalTime() {
+		return arrivalTime;
+	}
+
+	/**
+	 * Sets the arrival time.
+	 *
+	 * @param arrivalTime the arrival time
+	 */
+	public void setArrivalTime(double arrivalTime) {
+		this.arrivalTime = arrivalTime;
+	}
+
+	/**
+	 * Gets the start time of the service.
+	 *
+	 * @return the start time, or -1 if the service has not started
+	 */
+	public double getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Sets the start time of the service.
+	 *
+	 * @param startTime the start time
+	 */
+	public void setStartTime(double startTime) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * Gets the finish time.
+	 *
+	 * @return the finish time, or -1 if the request has not finished
+	 */
+	public double getFinishTime() {
+		return finishTime;
+	}
+
+	/**
+	 * Sets the finish time.
+	 *
+	 * @param finishTime the finish time
+	 */
+	public void setFinishTime(double finishTime) {
+		this.finishTime = finishTime;
+	}
+
+}
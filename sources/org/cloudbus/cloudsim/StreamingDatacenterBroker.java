@@ -0,0 +1,213 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.WorkloadStream;
+
+/**
+ * StreamingDatacenterBroker is a DatacenterBroker that submits the jobs of a workload stream at
+ * their submit times, instead of submitting a list of cloudlets created up front. The jobs are
+ * pulled from the stream just in time, so that the memory used is bounded by the jobs in flight
+ * rather than by the size of the trace, if the finished cloudlets are not kept.
+ *
+ * The jobs are bound to the created VMs in a round-robin fashion, or according to the file caches
+ * if the placement is locality-aware, unless they are bound already.
+ *
+ * @see org.cloudbus.cloudsim.util.WorkloadFileReader#stream()
+ * @see org.cloudbus.cloudsim.workload.SyntheticWorkload
+ * @since CloudSim Toolkit 3.0
+ */
+public class StreamingDatacenterBroker extends DatacenterBroker {
+
+	/** The workload, or null if no workload was submitted. */
+	private WorkloadStream workload;
+
+	/** Whether the jobs of the workload are being submitted. */
+	private boolean streaming = false;
+
+	/** Whether the finished cloudlets are kept in the cloudlet received list. */
+	private boolean keepFinishedCloudlets = true;
+
+	/** The index of the next VM a job is bound to. */
+	private int vmIndex = 0;
+
+	/** The number of jobs bound to each VM and not sent yet, by VM id. */
+	private final Map<Integer, Integer> vmsBoundJobs = new HashMap<Integer, Integer>();
+
+	/**
+	 * Creates a new StreamingDatacenterBroker object.
+	 *
+	 * @param name name to be associated with this entity
+	 * @throws Exception the exception
+	 * @pre name != null
+	 * @post $none
+	 */
+	public StreamingDatacenterBroker(String name) throws Exception {
+		super(name);
+	}
+
+	/**
+	 * Sets the workload whose jobs are submitted once the VMs have been created. The stream is
+	 * closed when its last job has been submitted.
+	 *
+	 * @param workload the workload
+	 * @pre workload != null
+	 * @post $none
+	 */
+	public void submitWorkload(WorkloadStream workload) {
+		this.workload = workload;
+	}
+
+	/**
+	 * Checks whether the finished cloudlets are kept in the cloudlet received list.
+	 *
+	 * @return true if the finished cloudlets are kept
+	 */
+	public boolean isKeepFinishedCloudlets() {
+		return keepFinishedCloudlets;
+	}
+
+	/**
+	 * Sets whether the finished cloudlets are kept in the cloudlet received list. They are kept by
+	 * default, and the memory used grows with the trace in this case.
+	 *
+	 * @param keepFinishedCloudlets true to keep the finished cloudlets
+	 */
+	public void setKeepFinishedCloudlets(boolean keepFinishedCloudlets) {
+		this.keepFinishedCloudlets = keepFinishedCloudlets;
+	}
+
+	/**
+	 * Submits the cloudlets of the list and starts submitting the jobs of the workload.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	protected void submitCloudlets() {
+		super.submitCloudlets();
+		if (workload != null && !streaming && !getVmsCreatedList().isEmpty()) {
+			streaming = true;
+			submitWorkloadJobs();
+		}
+	}
+
+	/**
+	 * Submits the jobs of the workload whose submit time has come, and schedules the submission of
+	 * the next ones.
+	 */
+	protected void submitWorkloadJobs() {
+		double clock = CloudSim.clock();
+		while (workload.hasNext() && workload.getNextSubmitTime() <= clock) {
+			Cloudlet cloudlet = workload.next();
+			cloudlet.setUserId(getId());
+			if (cloudlet.getVmId() == -1) {
+				Vm vm = getVmsCreatedList().get(vmIndex);
+				if (isLocalityAwarePlacement()) {
+					Vm localVm = getLocalVm(cloudlet, vm);
+					if (localVm != null) {
+						vm = localVm;
+					}
+					Integer boundJobs = vmsBoundJobs.get(vm.getId());
+					vmsBoundJobs.put(vm.getId(), boundJobs == null ? 1 : boundJobs + 1);
+				}
+				cloudlet.setVmId(vm.getId());
+				vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
+			}
+			getCloudletList().add(cloudlet);
+		}
+		super.submitCloudlets();
+		vmsBoundJobs.clear();
+
+		if (workload.hasNext()) {
+			double submitTime = workload.getNextSubmitTime();
+			double delay = submitTime - clock;
+			// the event must not happen before the submit time because of rounding
+			while (clock + delay < submitTime) {
+				delay = Math.nextUp(delay);
+			}
+			schedule(getId(), delay, CloudSimTags.VM_BROKER_EVENT);
+		} else {
+			workload.close();
+		}
+	}
+
+	/**
+	 * Processes the submission of the next jobs of the workload.
+	 *
+	 * @param ev a SimEvent object
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.VM_BROKER_EVENT && streaming) {
+			submitWorkloadJobs();
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
+	/**
+	 * Gets the number of cloudlets queued on a VM, including the jobs bound to the VM and not sent
+	 * yet.
+	 * 
+	 * @param vm the VM
+	 * @return the number of queued cloudlets
+	 */
+	@Override
+	protected int getNumberOfQueuedCloudlets(Vm vm) {
+		Integer boundJobs = vmsBoundJobs.get(vm.getId());
+		return super.getNumberOfQueuedCloudlets(vm) + (boundJobs == null ? 0 : boundJobs);
+	}
+
+	/**
+	 * Process a cloudlet return event. The simulation finishes when all the cloudlets have been
+	 * executed and the workload has no job left.
+	 *
+	 * @param ev a SimEvent object
+	 * @pre ev != $null
+	 * @post $none
+	 */
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		getCloudletSubmittedList().remove(cloudlet);
+		addQueuedCloudlets(cloudlet.getVmId(), -1);
+		if (isKeepFinishedCloudlets()) {
+			getCloudletReceivedList().add(cloudlet);
+		}
+		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+				+ " received");
+		cloudletsSubmitted--;
+		if (streaming && workload.hasNext()) {
+			// the next jobs will be submitted at their submit times
+			return;
+		}
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+			clearDatacenters();
+			finishExecution();
+		} else { // some cloudlets haven't finished yet
+			if (getCloudletList().size() > 0 && cloudletsSubmitted == 0) {
+				// all the cloudlets sent finished. It means that some bount
+				// cloudlet is waiting its VM be created
+				clearDatacenters();
+				createVmsInDatacenter(0);
+			}
+		}
+	}
+
+}
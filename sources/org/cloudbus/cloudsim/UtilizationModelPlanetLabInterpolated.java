@@ -0,0 +1,149 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The utilization model of a PlanetLab trace, interpolated linearly between the samples as in
+ * {@link UtilizationModelPlanetLabInMemory}, up to rounding. The reciprocal of the scheduling
+ * interval and the slope of each segment are precomputed, so that a utilization is computed with a
+ * multiplication, a clamp of the sample index and a multiply-add, without division or test on the
+ * time. The times before the first sample get the first sample, and the times after the last sample
+ * get the last sample.
+ *
+ * The utilizations of many models at the same time are computed at once by
+ * {@link #getUtilizations(UtilizationModelPlanetLabInterpolated[], double, double[])}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelPlanetLabInterpolated implements UtilizationModel {
+
+	/** The scheduling interval. */
+	private final double schedulingInterval;
+
+	/** The reciprocal of the scheduling interval. */
+	private final double inverseSchedulingInterval;
+
+	/** The index of the last sample. */
+	private final double lastSample;
+
+	/** The samples. */
+	private final double[] data;
+
+	/**
+	 * The difference between each sample and the next one, that is the slope of the segment per
+	 * interval, and 0 for the last sample.
+	 */
+	private final double[] slopes;
+
+	/**
+	 * Instantiates a new interpolated utilization model.
+	 *
+	 * @param data the samples, which are copied
+	 * @param schedulingInterval the time between two samples
+	 * @throws IllegalArgumentException if there is no sample or the interval is not positive
+	 */
+	public UtilizationModelPlanetLabInterpolated(double[] data, double schedulingInterval)
+			throws IllegalArgumentException {
+		if (data.length == 0 || !(schedulingInterval > 0)) {
+			throw new IllegalArgumentException("Invalid samples or scheduling interval");
+		}
+		this.schedulingInterval = schedulingInterval;
+		inverseSchedulingInterval = 1 / schedulingInterval;
+		lastSample = data.length - 1;
+		this.data = data.clone();
+		slopes = new double[data.length];
+		for (int i = 0; i < data.length - 1; i++) {
+			slopes[i] = data[i + 1] - data[i];
+		}
+	}
+
+	/**
+	 * Instantiates a new interpolated utilization model of a trace of a store.
+	 *
+	 * @param store the store
+	 * @param trace the index of the trace in the store
+	 * @param schedulingInterval the time between two samples
+	 * @throws IllegalArgumentException if the interval is not positive
+	 */
+	public UtilizationModelPlanetLabInterpolated(PlanetLabTraceStore store, int trace, double schedulingInterval)
+			throws IllegalArgumentException {
+		this(getSamples(store, trace), schedulingInterval);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		double x = Math.min(Math.max(time * inverseSchedulingInterval, 0), lastSample);
+		int i = (int) x;
+		return data[i] + slopes[i] * (x - i);
+	}
+
+	/**
+	 * Gets the utilizations of many models at the same time. The position of the time in the
+	 * samples is computed once for the consecutive models having the same scheduling interval.
+	 *
+	 * @param models the models
+	 * @param time the time
+	 * @param utilizations the array receiving the utilization of each model
+	 */
+	public static void getUtilizations(
+			UtilizationModelPlanetLabInterpolated[] models,
+			double time,
+			double[] utilizations) {
+		double interval = Double.NaN;
+		double position = 0;
+		for (int m = 0; m < models.length; m++) {
+			UtilizationModelPlanetLabInterpolated model = models[m];
+			if (model.schedulingInterval != interval) {
+				interval = model.schedulingInterval;
+				position = Math.max(time * model.inverseSchedulingInterval, 0);
+			}
+			double x = Math.min(position, model.lastSample);
+			int i = (int) x;
+			utilizations[m] = model.data[i] + model.slopes[i] * (x - i);
+		}
+	}
+
+	/**
+	 * Gets the scheduling interval.
+	 *
+	 * @return the scheduling interval
+	 */
+	public double getSchedulingInterval() {
+		return schedulingInterval;
+	}
+
+	/**
+	 * Gets the number of samples.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return data.length;
+	}
+
+	/**
+	 * Gets the samples of a trace of a store.
+	 *
+	 * @param store the store
+	 * @param trace the index of the trace
+	 * @return the samples
+	 */
+	private static double[] getSamples(PlanetLabTraceStore store, int trace) {
+		double[] samples = new double[store.getNumberOfSamples()];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = store.getUtilization(trace, i);
+		}
+		return samples;
+	}
+
+}
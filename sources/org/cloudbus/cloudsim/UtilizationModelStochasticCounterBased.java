@@ -0,0 +1,112 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Random;
+
+import org.cloudbus.cloudsim.distributions.SplitMixRandom;
+
+/**
+ * The UtilizationModelStochasticCounterBased class implements a model, according to which a
+ * Cloudlet generates random CPU utilization every time frame, like
+ * {@link UtilizationModelStochastic}, without keeping a history of the utilizations. The
+ * utilization at a time is derived from the seed and the time by a counter-based generator: the
+ * time frame is the counter of a SplitMix64 sequence, whose output is computed directly. A repeated
+ * query returns the same utilization, two models with the same seed return the same utilizations,
+ * and the model can be queried from several threads.
+ *
+ * The time frame is the exact time by default, so that every different time gets a new
+ * utilization, or the time divided by a quantum, so that the times of a quantum share their
+ * utilization.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationModelStochasticCounterBased implements UtilizationModel {
+
+	/** The increment of the SplitMix64 sequence, derived from the golden ratio. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** The seed. */
+	private final long seed;
+
+	/** The seed, mixed so that close seeds give unrelated sequences. */
+	private final long mixedSeed;
+
+	/** The length of a time frame, or 0 if every time is a time frame. */
+	private final double timeQuantum;
+
+	/**
+	 * Instantiates a new counter-based stochastic utilization model with a random seed.
+	 */
+	public UtilizationModelStochasticCounterBased() {
+		this(new Random().nextLong());
+	}
+
+	/**
+	 * Instantiates a new counter-based stochastic utilization model, where every time is a time
+	 * frame.
+	 *
+	 * @param seed the seed
+	 */
+	public UtilizationModelStochasticCounterBased(long seed) {
+		this(seed, 0);
+	}
+
+	/**
+	 * Instantiates a new counter-based stochastic utilization model.
+	 *
+	 * @param seed the seed
+	 * @param timeQuantum the length of a time frame, or 0 if every time is a time frame
+	 * @throws IllegalArgumentException if the quantum is negative
+	 */
+	public UtilizationModelStochasticCounterBased(long seed, double timeQuantum)
+			throws IllegalArgumentException {
+		if (!(timeQuantum >= 0)) {
+			throw new IllegalArgumentException("The time quantum must be >= 0.");
+		}
+		this.seed = seed;
+		mixedSeed = SplitMixRandom.mix64(seed);
+		this.timeQuantum = timeQuantum;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
+	 */
+	@Override
+	public double getUtilization(double time) {
+		long counter;
+		if (timeQuantum > 0) {
+			counter = (long) Math.floor(time / timeQuantum);
+		} else {
+			// + 0.0 turns -0.0 into 0.0, which is the same time
+			counter = Double.doubleToLongBits(time + 0.0);
+		}
+		return (SplitMixRandom.mix64(mixedSeed + counter * GOLDEN_GAMMA) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the length of a time frame.
+	 *
+	 * @return the time quantum, or 0 if every time is a time frame
+	 */
+	public double getTimeQuantum() {
+		return timeQuantum;
+	}
+
+}
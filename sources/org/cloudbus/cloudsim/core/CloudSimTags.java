@@ -265,6 +265,11 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes an internal event generated in a Datacenter when a storage I/O model has an event
+	 */
+	public static final int STORAGE_IO_EVENT = BASE + 49;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
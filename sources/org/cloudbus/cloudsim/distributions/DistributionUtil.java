@@ -0,0 +1,30 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+/**
+ * A class containing convenient functions on distributions.
+ * 
+ * @since CloudSim Toolkit 3.0
+ */
+public class DistributionUtil {
+
+	/**
+	 * Fills an array with new random numbers of a distribution.
+	 * 
+	 * @param distribution the distribution
+	 * @param samples the array receiving the samples
+	 */
+	public static void sample(ContinuousDistribution distribution, double[] samples) {
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = distribution.sample();
+		}
+	}
+
+}
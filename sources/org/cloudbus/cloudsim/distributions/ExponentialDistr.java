@@ -47,7 +47,22 @@ public class ExponentialDistr implements ContinuousDistribution {
 		if (mean <= 0.0) {
 			throw new IllegalArgumentException("Mean must be greated than 0.0");
 		}
-		numGen = new Random(System.currentTimeMillis());
+		numGen = new SplitMixRandom();
+		this.mean = mean;
+	}
+
+	/**
+	 * Creates a new exponential number generator.
+	 * 
+	 * @param random the random number generator to be used, sampled by the ziggurat method if it
+	 *            is a {@link SplitMixRandom}
+	 * @param mean the mean for the distribution.
+	 */
+	public ExponentialDistr(Random random, double mean) {
+		if (mean <= 0.0) {
+			throw new IllegalArgumentException("Mean must be greater than 0.0");
+		}
+		numGen = random;
 		this.mean = mean;
 	}
 
@@ -58,6 +73,9 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
+		if (numGen instanceof SplitMixRandom) {
+			return mean * ((SplitMixRandom) numGen).nextExponential();
+		}
 		return -mean * Math.log(numGen.nextDouble());
 	}
 
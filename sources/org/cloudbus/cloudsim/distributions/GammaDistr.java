@@ -56,7 +56,7 @@ public class GammaDistr implements ContinuousDistribution {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
+		numGen = new SplitMixRandom();
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -67,6 +67,15 @@ public class GammaDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
+		if (numGen instanceof SplitMixRandom) {
+			SplitMixRandom random = (SplitMixRandom) numGen;
+			double sum = 0.0;
+			for (int i = 0; i < alpha; i++) {
+				sum += random.nextExponential();
+			}
+			return beta * sum;
+		}
+
 		double sum = 0.0;
 		for (int i = 0; i < alpha; i++) {
 			sum += Math.log(numGen.nextDouble());
@@ -55,7 +55,7 @@ public class LognormalDistr implements ContinuousDistribution {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
+		numGen = new SplitMixRandom();
 		this.mean = mean;
 		this.dev = dev;
 	}
@@ -66,9 +66,15 @@ public class LognormalDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
-		// generate a normal variate from a uniform variate
-		double n = Math.sqrt(-2 * Math.log(numGen.nextDouble()))
-				* Math.sin(2 * Math.PI * numGen.nextDouble());
+		double n;
+		if (numGen instanceof SplitMixRandom) {
+			// the normal variate of the ziggurat method
+			n = numGen.nextGaussian();
+		} else {
+			// generate a normal variate from a uniform variate
+			n = Math.sqrt(-2 * Math.log(numGen.nextDouble()))
+					* Math.sin(2 * Math.PI * numGen.nextDouble());
+		}
 
 		// use it to generate the lognormal variate
 		return Math.pow(Math.E, mean + dev * n);
@@ -56,7 +56,7 @@ public class ParetoDistr implements ContinuousDistribution {
 			throw new IllegalArgumentException("Mean and deviation must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
+		numGen = new SplitMixRandom();
 		this.shape = shape;
 		this.location = location;
 	}
@@ -0,0 +1,174 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast random number generator, which can be given to the distributions in place of a
+ * {@link Random}. It implements the SplitMix64 algorithm: the state is a counter incremented by an
+ * odd gamma, and each output is a mix of the bits of the counter.
+ *
+ * Unlike {@link Random}, it is not synchronized, so an instance must not be shared by threads.
+ * Independent streams, for example one per entity or per thread, are created by {@link #split()},
+ * so that a simulation using several streams stays reproducible from a single seed. The normal and
+ * exponential variates are sampled by the ziggurat method, and the distributions use them instead
+ * of the inversion and Box-Muller formulas when they are given a SplitMixRandom.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SplitMixRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The default gamma, derived from the golden ratio. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** The source of the seeds of the generators created without a seed. */
+	private static final AtomicLong defaultSeeds = new AtomicLong(mix64(System.currentTimeMillis())
+			^ mix64(System.nanoTime()));
+
+	/** The counter. */
+	private long state;
+
+	/** The increment of the counter, an odd number. */
+	private long gamma;
+
+	/**
+	 * Creates a new generator, with a seed that differs from the seeds of the other generators
+	 * created without a seed.
+	 */
+	public SplitMixRandom() {
+		this(mix64(defaultSeeds.getAndAdd(2 * GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * Creates a new generator.
+	 *
+	 * @param seed the seed
+	 */
+	public SplitMixRandom(long seed) {
+		super(seed);
+		setSeed(seed);
+	}
+
+	/**
+	 * Creates a new generator with a gamma.
+	 *
+	 * @param seed the seed
+	 * @param gamma the gamma, an odd number
+	 */
+	private SplitMixRandom(long seed, long gamma) {
+		this(seed);
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Creates a new generator whose stream is independent of the stream of this generator, and
+	 * advances this generator.
+	 *
+	 * @return the new generator
+	 */
+	public SplitMixRandom split() {
+		return new SplitMixRandom(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/**
+	 * Sets the seed, and the default gamma.
+	 *
+	 * @param seed the seed
+	 */
+	@Override
+	public void setSeed(long seed) {
+		state = seed;
+		gamma = GOLDEN_GAMMA;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	@Override
+	public float nextFloat() {
+		return (nextLong() >>> 40) * 0x1.0p-24f;
+	}
+
+	/**
+	 * Gets a normal variate, of mean 0 and standard deviation 1, by the ziggurat method.
+	 *
+	 * @return the variate
+	 */
+	@Override
+	public double nextGaussian() {
+		return Ziggurat.nextGaussian(this);
+	}
+
+	/**
+	 * Gets an exponential variate, of mean 1, by the ziggurat method.
+	 *
+	 * @return the variate
+	 */
+	public double nextExponential() {
+		return Ziggurat.nextExponential(this);
+	}
+
+	/**
+	 * Advances the counter.
+	 *
+	 * @return the new counter
+	 */
+	private long nextSeed() {
+		return state += gamma;
+	}
+
+	/**
+	 * Mixes the bits of a value, as the output function of SplitMix64. It can derive unrelated
+	 * seeds from a seed and a counter, such as an id.
+	 *
+	 * @param z the value
+	 * @return the mixed value
+	 */
+	public static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Mixes a value into a gamma, an odd number with enough bit transitions.
+	 *
+	 * @param z the value
+	 * @return the gamma
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return n < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+}
@@ -34,7 +34,7 @@ public class UniformDistr implements ContinuousDistribution {
 		if (min >= max) {
 			throw new IllegalArgumentException("Maximum must be greater than the minimum.");
 		}
-		numGen = new Random();
+		numGen = new SplitMixRandom();
 		mag = max - min;
 		this.min = min;
 	}
@@ -56,6 +56,23 @@ public class UniformDistr implements ContinuousDistribution {
 		this.min = min;
 	}
 
+	/**
+	 * Creates new uniform distribution.
+	 * 
+	 * @param random the random number generator to be used
+	 * @param min minimum value
+	 * @param max maximum value
+	 */
+	public UniformDistr(Random random, double min, double max) {
+		if (min >= max) {
+			throw new IllegalArgumentException("Maximum must be greater than the minimum.");
+		}
+
+		numGen = random;
+		mag = max - min;
+		this.min = min;
+	}
+
 	/**
 	 * Generate a new random number.
 	 * 
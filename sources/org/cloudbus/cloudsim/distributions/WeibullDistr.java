@@ -56,7 +56,7 @@ public class WeibullDistr implements ContinuousDistribution {
 			throw new IllegalArgumentException("Alpha and beta must be greater than 0.0");
 		}
 
-		numGen = new Random(System.currentTimeMillis());
+		numGen = new SplitMixRandom();
 		this.alpha = alpha;
 		this.beta = beta;
 	}
@@ -67,6 +67,9 @@ public class WeibullDistr implements ContinuousDistribution {
 	 */
 	@Override
 	public double sample() {
+		if (numGen instanceof SplitMixRandom) {
+			return beta * Math.pow(((SplitMixRandom) numGen).nextExponential(), 1 / alpha);
+		}
 		return beta * Math.pow(-Math.log(numGen.nextDouble()), 1 / alpha);
 	}
 
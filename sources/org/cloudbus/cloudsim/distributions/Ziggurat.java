@@ -0,0 +1,157 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.util.Random;
+
+/**
+ * The ziggurat method of Marsaglia and Tsang for the normal and exponential distributions. The
+ * density is covered by layers of equal area, 128 for the normal and 256 for the exponential
+ * distribution, and most variates are a random point of a layer accepted by a single comparison,
+ * without computing a logarithm or an exponential.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+final class Ziggurat {
+
+	/** The start of the tail of the normal distribution. */
+	private static final double NORMAL_R = 3.442619855899;
+
+	/** The area of a layer of the normal distribution. */
+	private static final double NORMAL_V = 9.91256303526217e-3;
+
+	/** The start of the tail of the exponential distribution. */
+	private static final double EXPONENTIAL_R = 7.697117470131487;
+
+	/** The area of a layer of the exponential distribution. */
+	private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+
+	private static final long[] kn = new long[128];
+
+	private static final double[] wn = new double[128];
+
+	private static final double[] fn = new double[128];
+
+	private static final long[] ke = new long[256];
+
+	private static final double[] we = new double[256];
+
+	private static final double[] fe = new double[256];
+
+	static {
+		double m1 = 2147483648.0;
+		double dn = NORMAL_R;
+		double tn = dn;
+		double q = NORMAL_V / Math.exp(-.5 * dn * dn);
+		kn[0] = (long) ((dn / q) * m1);
+		kn[1] = 0;
+		wn[0] = q / m1;
+		wn[127] = dn / m1;
+		fn[0] = 1;
+		fn[127] = Math.exp(-.5 * dn * dn);
+		for (int i = 126; i >= 1; i--) {
+			dn = Math.sqrt(-2 * Math.log(NORMAL_V / dn + Math.exp(-.5 * dn * dn)));
+			kn[i + 1] = (long) ((dn / tn) * m1);
+			tn = dn;
+			fn[i] = Math.exp(-.5 * dn * dn);
+			wn[i] = dn / m1;
+		}
+
+		double m2 = 4294967296.0;
+		double de = EXPONENTIAL_R;
+		double te = de;
+		q = EXPONENTIAL_V / Math.exp(-de);
+		ke[0] = (long) ((de / q) * m2);
+		ke[1] = 0;
+		we[0] = q / m2;
+		we[255] = de / m2;
+		fe[0] = 1;
+		fe[255] = Math.exp(-de);
+		for (int i = 254; i >= 1; i--) {
+			de = -Math.log(EXPONENTIAL_V / de + Math.exp(-de));
+			ke[i + 1] = (long) ((de / te) * m2);
+			te = de;
+			fe[i] = Math.exp(-de);
+			we[i] = de / m2;
+		}
+	}
+
+	private Ziggurat() {
+	}
+
+	/**
+	 * Gets a normal variate, of mean 0 and standard deviation 1.
+	 *
+	 * @param random the generator
+	 * @return the variate
+	 */
+	static double nextGaussian(Random random) {
+		while (true) {
+			long bits = random.nextLong();
+			int i = (int) bits & 127;
+			// the high bits give the signed position in the layer
+			long hz = (int) (bits >> 32);
+			if (Math.abs(hz) < kn[i]) {
+				return hz * wn[i];
+			}
+			if (i == 0) {
+				// the tail
+				double x;
+				double y;
+				do {
+					x = -Math.log(uniform(random)) / NORMAL_R;
+					y = -Math.log(uniform(random));
+				} while (y + y < x * x);
+				return hz > 0 ? NORMAL_R + x : -NORMAL_R - x;
+			}
+			double x = hz * wn[i];
+			if (fn[i] + random.nextDouble() * (fn[i - 1] - fn[i]) < Math.exp(-.5 * x * x)) {
+				return x;
+			}
+		}
+	}
+
+	/**
+	 * Gets an exponential variate, of mean 1.
+	 *
+	 * @param random the generator
+	 * @return the variate
+	 */
+	static double nextExponential(Random random) {
+		double offset = 0;
+		while (true) {
+			long bits = random.nextLong();
+			int i = (int) bits & 255;
+			long jz = bits >>> 32;
+			if (jz < ke[i]) {
+				return offset + jz * we[i];
+			}
+			if (i == 0) {
+				// the tail is the distribution shifted by its start
+				offset += EXPONENTIAL_R;
+				continue;
+			}
+			double x = jz * we[i];
+			if (fe[i] + random.nextDouble() * (fe[i - 1] - fe[i]) < Math.exp(-x)) {
+				return offset + x;
+			}
+		}
+	}
+
+	/**
+	 * Gets a uniform variate in (0, 1].
+	 *
+	 * @param random the generator
+	 * @return the variate
+	 */
+	private static double uniform(Random random) {
+		return 1 - random.nextDouble();
+	}
+
+}
@@ -12,7 +12,9 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 /**
- * The Class ZipfDistr.
+ * The Class ZipfDistr. The cumulative probabilities are computed once, with a guide table that
+ * gives for each interval of the uniform variates the first rank to examine, so that a sample
+ * takes a constant expected time instead of a time linear in the rank.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
@@ -28,6 +30,18 @@ public class ZipfDistr implements ContinuousDistribution {
 	/** The den. */
 	private double den;
 
+	/**
+	 * The cumulative probabilities: the element j is the sum of the first j + 1 terms divided by
+	 * den.
+	 */
+	private double[] cumulative;
+
+	/**
+	 * The guide table: the element i is the first rank whose next cumulative probability is at
+	 * least i divided by the length of the table.
+	 */
+	private int[] guide;
+
 	/**
 	 * Instantiates a new zipf distr.
 	 * 
@@ -36,13 +50,7 @@ public class ZipfDistr implements ContinuousDistribution {
 	 * @param population the population
 	 */
 	public ZipfDistr(long seed, double shape, int population) {
-		if (shape <= 0.0 || population < 1) {
-			throw new IllegalArgumentException("Mean must be greater than 0.0 and population greater than 0");
-		}
-		numGen = new Random(seed);
-		this.shape = shape;
-
-		computeDen(shape, population);
+		this(new Random(seed), shape, population);
 	}
 
 	/**
@@ -52,12 +60,25 @@ public class ZipfDistr implements ContinuousDistribution {
 	 * @param population the population
 	 */
 	public ZipfDistr(double shape, int population) {
-		if (shape <= 0.0) {
-			throw new IllegalArgumentException("Mean must be greated than 0.0 and population greater than 0");
+		this(new SplitMixRandom(), shape, population);
+	}
+
+	/**
+	 * Instantiates a new zipf distr.
+	 * 
+	 * @param random the random number generator to be used
+	 * @param shape the shape
+	 * @param population the population
+	 */
+	public ZipfDistr(Random random, double shape, int population) {
+		if (shape <= 0.0 || population < 1) {
+			throw new IllegalArgumentException("Mean must be greater than 0.0 and population greater than 0");
 		}
-		numGen = new Random(System.currentTimeMillis());
+		numGen = random;
 		this.shape = shape;
+
 		computeDen(shape, population);
+		computeTables(shape, population);
 	}
 
 	/**
@@ -68,17 +89,11 @@ public class ZipfDistr implements ContinuousDistribution {
 	@Override
 	public double sample() {
 		double variate = numGen.nextDouble();
-		double num = 1;
-		double nextNum = 1 + 1 / Math.pow(2, shape);
-		double j = 3;
-
-		while (variate > nextNum / den) {
-			num = nextNum;
-			nextNum += 1 / Math.pow(j, shape);
-			j++;
+		int k = guide[(int) (variate * guide.length)];
+		while (variate > cumulative[k + 1]) {
+			k++;
 		}
-
-		return num / den;
+		return cumulative[k];
 	}
 
 	/**
@@ -94,4 +109,33 @@ public class ZipfDistr implements ContinuousDistribution {
 		}
 	}
 
+	/**
+	 * Computes the cumulative probabilities and the guide table. The sums are accumulated in the
+	 * same order as den, so that the last one is exactly 1.
+	 * 
+	 * @param shape the shape
+	 * @param population the population
+	 */
+	private void computeTables(double shape, int population) {
+		// a sample needs the probability after its rank, even with a single rank
+		int length = Math.max(population, 2);
+		cumulative = new double[length];
+		double sum = 0.0;
+		for (int j = 0; j < length; j++) {
+			sum += 1 / Math.pow(j + 1, shape);
+			cumulative[j] = sum / den;
+		}
+
+		// the sampled rank is at most length - 2
+		guide = new int[length - 1];
+		int k = 0;
+		for (int i = 0; i < guide.length; i++) {
+			double lower = (double) i / guide.length;
+			while (k < length - 2 && cumulative[k + 1] < lower) {
+				k++;
+			}
+			guide[i] = k;
+		}
+	}
+
 }
@@ -8,8 +8,6 @@
 
 package org.cloudbus.cloudsim.network;
 
-import java.util.Iterator;
-
 /**
  * This class represents an delay-topology storing every distance between connected nodes
  * 
@@ -86,17 +84,15 @@ public class DelayMatrix_Float {
 			}
 		}
 
-		Iterator<TopologicalLink> itr = graph.getLinkIterator();
-
-		TopologicalLink edge;
-		while (itr.hasNext()) {
-			edge = itr.next();
+		for (int link = 0; link < graph.getNumberOfLinks(); link++) {
+			int src = graph.getLinkSrcNodeID(link);
+			int dest = graph.getLinkDestNodeID(link);
 
-			mDelayMatrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkDelay();
+			mDelayMatrix[src][dest] = graph.getLinkDelay(link);
 
 			if (!directed) {
 				// according to aproximity of symmetry to all kommunication-paths
-				mDelayMatrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkDelay();
+				mDelayMatrix[dest][src] = graph.getLinkDelay(link);
 			}
 
 		}
@@ -108,7 +104,7 @@ public class DelayMatrix_Float {
 	private void calculateShortestPath() {
 		FloydWarshall_Float floyd = new FloydWarshall_Float();
 
-		floyd.initialize(mTotalNodeNum);
+		floyd.initialize(mTotalNodeNum, false);
 		mDelayMatrix = floyd.allPairsShortestPaths(mDelayMatrix);
 	}
 
@@ -8,9 +8,25 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * FloydWarshall algorithm to calculate all pairs delay and predecessor matrix.
  * 
+ * The matrix is stored in a single array, row after row, and it is processed by square blocks so
+ * that the rows used by an update stay in the cache. Every iteration over a row of blocks has three
+ * phases: the block on the diagonal is updated with itself, then the other blocks of its row and
+ * column with it, and finally all the other blocks with the blocks of that row and column. The
+ * blocks of the last two phases are independent and they are updated in parallel.
+ * 
+ * The predecessor matrix is optional, and it is not computed if only the delays are needed.
+ * 
  * @author Rahul Simha
  * @author Weishuai Yang
  * @version 1.2, 6/20/2005
@@ -18,28 +34,43 @@ package org.cloudbus.cloudsim.network;
  */
 public class FloydWarshall_Float {
 
+	/** The default size of the side of a block. */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
 	/**
 	 * Number of vertices (when initialized)
 	 */
 	private int numVertices;
 
-	// /**
-	// * The adjacency matrix (given as input),
-	// * here I use float rather than double to save memory,
-	// * since there won't be a lot of spilting for delay,
-	// * and float is accurate enough.
-	// */
-	// private float[][] adjMatrix;
+	/**
+	 * Whether the predecessor matrix is computed
+	 */
+	private boolean trackPredecessors;
+
+	/**
+	 * The size of the side of a block
+	 */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * The number of threads updating the blocks
+	 */
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Matrix used in dynamic programming, row after row
+	 */
+	private float[] D;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Predecessor matrix, row after row, or null if not computed
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private int[] P;
 
 	/**
-	 * Matrices used in dynamic programming
+	 * The executor updating the blocks during a computation
 	 */
-	private int[][] Pk, Pk_minus_one;
+	private ExecutorService executor;
 
 	/**
 	 * initialization matrix
@@ -47,24 +78,20 @@ public class FloydWarshall_Float {
 	 * @param numVertices number of nodes
 	 */
 	public void initialize(int numVertices) {
-		this.numVertices = numVertices;
-
-		// Initialize Dk matrices.
-		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
-		}
-
-		// Initialize Pk matrices.
-		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
-		}
+		initialize(numVertices, true);
+	}
 
+	/**
+	 * initialization matrix
+	 * 
+	 * @param numVertices number of nodes
+	 * @param trackPredecessors true if the predecessor matrix is computed
+	 */
+	public void initialize(int numVertices, boolean trackPredecessors) {
+		this.numVertices = numVertices;
+		this.trackPredecessors = trackPredecessors;
+		D = null;
+		P = null;
 	}
 
 	/**
@@ -74,68 +101,211 @@ public class FloydWarshall_Float {
 	 * @return all pairs delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
-		for (int i = 0; i < numVertices; i++) {
-			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
-				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
-				}
-				// NOTE: we have set the value to infinity and will exploit
-				// this to avoid a comparison.
-			}
+		int n = numVertices;
+		float[] flat = new float[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(adjMatrix[i], 0, flat, i * n, n);
 		}
+		allPairsShortestPaths(flat);
 
-		// Now iterate over k.
-
-		for (int k = 0; k < numVertices; k++) {
-
-			// Compute Dk[i][j], for each i,j
+		float[][] delays = new float[n][];
+		for (int i = 0; i < n; i++) {
+			delays[i] = new float[n];
+			System.arraycopy(D, i * n, delays[i], 0, n);
+		}
+		return delays;
+	}
 
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
+	/**
+	 * calculates all pairs delay of a matrix stored row after row. The matrix is updated in place.
+	 * 
+	 * @param adjMatrix original delay matrix, where a delay of 0 means that there is no link
+	 * @return all pairs delay matrix, which is the given matrix
+	 */
+	public float[] allPairsShortestPaths(float[] adjMatrix) {
+		int n = numVertices;
+		D = adjMatrix;
+		P = trackPredecessors ? new int[n * n] : null;
+
+		// D = weights when k = -1
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				int ij = i * n + j;
+				boolean linked = D[ij] != 0;
+				if (!linked) {
+					D[ij] = Float.MAX_VALUE;
+				}
+				if (P != null) {
+					P[ij] = linked && i != j ? i : -1;
+				}
+			}
+			// NOTE: we have set the value to infinity and will exploit
+			// this to avoid a comparison.
+			D[i * n + i] = 0;
+		}
 
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
+		int numBlocks = (n + blockSize - 1) / blockSize;
+		boolean parallel = numberOfThreads > 1 && numBlocks > 2;
+		if (parallel) {
+			executor = Executors.newFixedThreadPool(numberOfThreads);
+		}
+		try {
+			for (int kb = 0; kb < numBlocks; kb++) {
+				// phase 1: the block on the diagonal
+				updateBlock(kb, kb, kb);
+
+				// phase 2: the other blocks of the row and the column of the diagonal block
+				List<int[]> blocks = new ArrayList<int[]>(2 * numBlocks);
+				for (int b = 0; b < numBlocks; b++) {
+					if (b != kb) {
+						blocks.add(new int[] { kb, b });
+						blocks.add(new int[] { b, kb });
+					}
+				}
+				updateBlocks(kb, blocks, parallel);
+
+				// phase 3: the other blocks
+				blocks.clear();
+				for (int ib = 0; ib < numBlocks; ib++) {
+					for (int jb = 0; jb < numBlocks; jb++) {
+						if (ib != kb && jb != kb) {
+							blocks.add(new int[] { ib, jb });
 						}
-					} else {
-						Pk[i][j] = -1;
 					}
 				}
+				updateBlocks(kb, blocks, parallel);
+			} // end-outermost-for
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
 			}
+		}
+
+		return D;
+	}
 
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
+	/**
+	 * Updates blocks through the vertices of a block of the diagonal.
+	 * 
+	 * @param kb the block of the intermediate vertices
+	 * @param blocks the row and column of each block to update
+	 * @param parallel true if the blocks are updated in parallel
+	 */
+	private void updateBlocks(final int kb, final List<int[]> blocks, boolean parallel) {
+		if (!parallel || blocks.size() < 2) {
+			for (int[] block : blocks) {
+				updateBlock(block[0], block[1], kb);
+			}
+			return;
+		}
+		int threads = Math.min(numberOfThreads, blocks.size());
+		List<Callable<Void>> workers = new ArrayList<Callable<Void>>(threads);
+		for (int t = 0; t < threads; t++) {
+			final int first = t;
+			final int step = threads;
+			workers.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					for (int b = first; b < blocks.size(); b += step) {
+						updateBlock(blocks.get(b)[0], blocks.get(b)[1], kb);
+					}
+					return null;
 				}
+			});
+		}
+		try {
+			for (Future<Void> future : executor.invokeAll(workers)) {
+				future.get();
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The computation of the delays has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("The computation of the delays has failed", e.getCause());
+		}
+	}
 
-		} // end-outermost-for
-
-		return Dk;
-
+	/**
+	 * Updates a block through the vertices of a block of the diagonal: D[i][j] = min (D[i][j],
+	 * D[i][k] + D[k][j]) for every vertex k of the block of the diagonal.
+	 * 
+	 * @param ib the row of the block
+	 * @param jb the column of the block
+	 * @param kb the block of the intermediate vertices
+	 */
+	private void updateBlock(int ib, int jb, int kb) {
+		int n = numVertices;
+		int iEnd = Math.min((ib + 1) * blockSize, n);
+		int jStart = jb * blockSize;
+		int jEnd = Math.min(jStart + blockSize, n);
+		int kEnd = Math.min((kb + 1) * blockSize, n);
+		for (int k = kb * blockSize; k < kEnd; k++) {
+			int kRow = k * n;
+			for (int i = ib * blockSize; i < iEnd; i++) {
+				int iRow = i * n;
+				float dik = D[iRow + k];
+				if (dik == Float.MAX_VALUE) {
+					continue;
+				}
+				for (int j = jStart; j < jEnd; j++) {
+					float d = dik + D[kRow + j];
+					if (d < D[iRow + j]) {
+						D[iRow + j] = d;
+						if (P != null) {
+							P[iRow + j] = P[kRow + j];
+						}
+					}
+				}
+			}
+		}
 	}
 
 	/**
 	 * gets predecessor matrix
 	 * 
-	 * @return predecessor matrix
+	 * @return predecessor matrix, or null if it is not computed
 	 */
 	public int[][] getPK() {
+		if (P == null) {
+			return null;
+		}
+		int n = numVertices;
+		int[][] Pk = new int[n][];
+		for (int i = 0; i < n; i++) {
+			Pk[i] = new int[n];
+			System.arraycopy(P, i * n, Pk[i], 0, n);
+		}
 		return Pk;
 	}
 
+	/**
+	 * Sets the size of the side of a block.
+	 * 
+	 * @param blockSize the block size
+	 * @throws IllegalArgumentException if the block size is not positive
+	 */
+	public void setBlockSize(int blockSize) throws IllegalArgumentException {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("The block size must be positive");
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Sets the number of threads updating the blocks.
+	 * 
+	 * @param numberOfThreads the number of threads
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 */
+	public void setNumberOfThreads(int numberOfThreads) throws IllegalArgumentException {
+		if (numberOfThreads <= 0) {
+			throw new IllegalArgumentException("The number of threads must be positive");
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
 
 /*
   public static void main (String[] argv)
@@ -8,17 +8,21 @@
 
 package org.cloudbus.cloudsim.network;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.StringTokenizer;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 /**
  * This class is just an file-reader for the special brite-format! the brite-file is structured as
  * followed: Node-section: NodeID, xpos, ypos, indegree, outdegree, ASid, type(router/AS)
  * Edge-section: EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, AS_from, AS_to,
  * type
- * 
+ *
+ * The file is memory-mapped and parsed in place, without creating a string per line or token, and
+ * the nodes and links are added directly to the arrays of the {@link TopologicalGraph}. The sizes
+ * given in the "Nodes:" and "Edges:" headers are used to size the graph.
+ *
  * @author Thomas Hohnstein
  * @since CloudSim Toolkit 1.0
  */
@@ -30,13 +34,33 @@ public class GraphReaderBrite implements GraphReaderIF {
 
 	private static final int PARSE_EDGES = 2;
 
+	/** The largest part of the file mapped at once. */
+	private static final long MAX_WINDOW = 1L << 30;
+
+	/** The powers of ten that are exact floats. */
+	private static final float[] FLOAT_POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f,
+			1e7f, 1e8f, 1e9f, 1e10f };
+
+	private static final byte[] NODES_HEADER = { 'N', 'o', 'd', 'e', 's', ':' };
+
+	private static final byte[] EDGES_HEADER = { 'E', 'd', 'g', 'e', 's', ':' };
+
 	private int state = PARSE_NOTHING;
 
 	private TopologicalGraph graph = null;
 
+	/** The mapped part of the file. */
+	private MappedByteBuffer buffer;
+
+	/** The position in the mapped part of the file. */
+	private int pos;
+
+	/** The end of the line being parsed. */
+	private int end;
+
 	/**
 	 * this method just reads the file and creates an TopologicalGraph object
-	 * 
+	 *
 	 * @param filename name of the file to read
 	 * @return created TopologicalGraph
 	 * @throws IOException
@@ -45,160 +69,330 @@ public class GraphReaderBrite implements GraphReaderIF {
 	public TopologicalGraph readGraphFile(String filename) throws IOException {
 
 		graph = new TopologicalGraph();
+		state = PARSE_NOTHING;
 
 		// lets read the file
-		FileReader fr = new FileReader(filename);
-		BufferedReader br = new BufferedReader(fr);
-
-		String lineSep = System.getProperty("line.separator");
-		String nextLine = null;
-		StringBuffer sb = new StringBuffer();
-
-		while ((nextLine = br.readLine()) != null) {
-			sb.append(nextLine);
-			//
-			// note:
-			// BufferedReader strips the EOL character.
-			//
-			sb.append(lineSep);
-
-			// functionality to diferentiate between all the parsing-states
-			// state that should just find the start of node-declaration
-			if (state == PARSE_NOTHING) {
-				if (nextLine.contains("Nodes:")) {
-					// Log.printLine("found start of Nodes... switch to parse nodes!");
-					state = PARSE_NODES;
+		RandomAccessFile file = new RandomAccessFile(filename, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			long offset = 0;
+			while (offset < size) {
+				long length = Math.min(size - offset, MAX_WINDOW);
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+				boolean last = offset + length == size;
+				int lineStart = 0;
+				int limit = (int) length;
+				while (lineStart < limit) {
+					int lineEnd = indexOfNewLine(lineStart, limit);
+					if (lineEnd == limit && !last) {
+						// the line goes on in the next part of the file
+						break;
+					}
+					parseLine(lineStart, lineEnd);
+					lineStart = lineEnd + 1;
 				}
+				if (lineStart == 0 && !last) {
+					throw new IOException("Line too long in BRITE file " + filename);
+				}
+				offset += Math.min(lineStart, limit);
 			}
-
-			// the state to retrieve all node-information
-			else if (state == PARSE_NODES) {
-				// perform the parsing of this node-line
-				parseNodeString(nextLine);
-			}
-
-			// the state to retrieve all edges-information
-			else if (state == PARSE_EDGES) {
-				parseEdgesString(nextLine);
-			}
-
+		} finally {
+			buffer = null;
+			file.close();
 		}
 
-		br.close();
-
-		// Log.printLine("read file successfully...");
-		// Log.printLine(sb.toString());
-
 		return graph;
 	}
 
-	private void parseNodeString(String nodeLine) {
-
-		StringTokenizer tokenizer = new StringTokenizer(nodeLine);
+	/**
+	 * Parses a line of the file according to the parsing-state.
+	 *
+	 * @param lineStart the position of the first character of the line
+	 * @param lineEnd the position after the last character of the line
+	 */
+	private void parseLine(int lineStart, int lineEnd) {
+		pos = lineStart;
+		end = lineEnd;
+
+		// functionality to diferentiate between all the parsing-states
+		// state that should just find the start of node-declaration
+		if (state == PARSE_NOTHING) {
+			int header = indexOf(NODES_HEADER, lineStart, lineEnd);
+			if (header >= 0) {
+				// Log.printLine("found start of Nodes... switch to parse nodes!");
+				state = PARSE_NODES;
+				parseSize(header + NODES_HEADER.length, true);
+			}
+		}
 
-		// number of node parameters to parse (counts at linestart)
-		int parameters = 3;
+		// the state to retrieve all node-information
+		else if (state == PARSE_NODES) {
+			// first test to step to the next parsing-state (edges)
+			int header = indexOf(EDGES_HEADER, lineStart, lineEnd);
+			if (header >= 0) {
+				// Log.printLine("found start of Edges... switch to parse edges!");
+				state = PARSE_EDGES;
+				parseSize(header + EDGES_HEADER.length, false);
+				return;
+			}
+			// perform the parsing of this node-line
+			parseNodeLine();
+		}
 
-		// first test to step to the next parsing-state (edges)
-		if (nodeLine.contains("Edges:")) {
-			// Log.printLine("found start of Edges... switch to parse edges!");
-			state = PARSE_EDGES;
+		// the state to retrieve all edges-information
+		else if (state == PARSE_EDGES) {
+			parseEdgesLine();
+		}
+	}
 
-			return;
+	/**
+	 * Parses the number of nodes or edges of a header, like "Nodes: ( 5 )", and sizes the graph.
+	 *
+	 * @param from the position after the header
+	 * @param nodes true for the nodes header, false for the edges header
+	 */
+	private void parseSize(int from, boolean nodes) {
+		int size = 0;
+		for (int i = from; i < end; i++) {
+			byte c = buffer.get(i);
+			if (c >= '0' && c <= '9') {
+				size = 10 * size + (c - '0');
+				if (size > 1 << 28) {
+					return;
+				}
+			} else if (size > 0 || c == ')') {
+				break;
+			}
 		}
+		if (size > 0) {
+			if (nodes) {
+				graph.ensureCapacity(size, 0);
+			} else {
+				graph.ensureCapacity(0, size);
+			}
+		}
+	}
+
+	private void parseNodeLine() {
 
 		// test against an empty line
-		if (!tokenizer.hasMoreElements()) {
+		if (!skipWhitespace()) {
 			// Log.printLine("this line contains no tokens...");
 			return;
 		}
 
-		// parse this string-line to read all node-parameters
+		// parse this line to read all node-parameters
 		// NodeID, xpos, ypos, indegree, outdegree, ASid, type(router/AS)
 
-		int nodeID = 0;
-		String nodeLabel = "";
-		int xPos = 0;
-		int yPos = 0;
-
-		for (int actualParam = 0; tokenizer.hasMoreElements() && actualParam < parameters; actualParam++) {
-			String token = tokenizer.nextToken();
-			switch (actualParam) {
-				case 0:	// Log.printLine("nodeID: "+token);
-						// Log.printLine("nodeLabel: "+token);
-					nodeID = Integer.valueOf(token);
-					nodeLabel = Integer.toString(nodeID);
-					break;
-
-				case 1:	// Log.printLine("x-Pos: "+token);
-					xPos = Integer.valueOf(token);
-					break;
-
-				case 2:	// Log.printLine("y-Pos: "+token);
-					yPos = Integer.valueOf(token);
-					break;
-			}
-		}
-
-		// instanciate an new node-object with previous parsed parameters
-		TopologicalNode topoNode = new TopologicalNode(nodeID, nodeLabel, xPos, yPos);
-		graph.addNode(topoNode);
+		int nodeID = parseInt();
+		int xPos = skipWhitespace() ? parseInt() : 0;
+		int yPos = skipWhitespace() ? parseInt() : 0;
 
-	}// parseNodeString-END
+		// instanciate an new node with previous parsed parameters
+		graph.addNode(nodeID, xPos, yPos);
 
-	private void parseEdgesString(String nodeLine) {
-		StringTokenizer tokenizer = new StringTokenizer(nodeLine);
+	}// parseNodeLine-END
 
-		// number of node parameters to parse (counts at linestart)
-		int parameters = 6;
+	private void parseEdgesLine() {
 
 		// test against an empty line
-		if (!tokenizer.hasMoreElements()) {
+		if (!skipWhitespace()) {
 			// Log.printLine("this line contains no tokens...");
 			return;
 		}
 
-		// parse this string-line to read all node-parameters
+		// parse this line to read all edge-parameters
 		// EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, AS_from, AS_to, type
 
-		// int edgeID = 0;
 		int fromNode = 0;
 		int toNode = 0;
-		// float euclideanLength = 0;
 		float linkDelay = 0;
 		int linkBandwith = 0;
 
-		for (int actualParam = 0; tokenizer.hasMoreElements() && actualParam < parameters; actualParam++) {
-			String token = tokenizer.nextToken();
+		for (int actualParam = 0; actualParam < 6 && skipWhitespace(); actualParam++) {
 			switch (actualParam) {
-				case 0:	// Log.printLine("edgeID: "+token);
-						// edgeID = Integer.valueOf(token);
-					break;
-
-				case 1:	// Log.printLine("fromNode: "+token);
-					fromNode = Integer.valueOf(token);
+				case 1:
+					fromNode = parseInt();
 					break;
 
-				case 2:	// Log.printLine("toNode: "+token);
-					toNode = Integer.valueOf(token);
+				case 2:
+					toNode = parseInt();
 					break;
 
-				case 3:	// Log.printLine("euclideanLength: "+token);
-						// euclideanLength = Float.valueOf(token);
+				case 4:
+					linkDelay = parseFloat();
 					break;
 
-				case 4:	// Log.printLine("linkDelay: "+token);
-					linkDelay = Float.valueOf(token);
+				case 5:
+					linkBandwith = (int) parseFloat();
 					break;
 
-				case 5:	// Log.printLine("linkBandwith: "+token);
-					linkBandwith = Float.valueOf(token).intValue();
+				default:
+					// edgeID and euclideanLength
+					skipToken();
 					break;
 			}// switch-END
 		}// for-END
 
-		graph.addLink(new TopologicalLink(fromNode, toNode, linkDelay, linkBandwith));
+		graph.addLink(fromNode, toNode, linkDelay, linkBandwith);
+
+	}
 
+	/**
+	 * Skips the whitespace before the next token of the line.
+	 *
+	 * @return true if there is a token
+	 */
+	private boolean skipWhitespace() {
+		while (pos < end && isWhitespace(buffer.get(pos))) {
+			pos++;
+		}
+		return pos < end;
+	}
+
+	/**
+	 * Skips the current token.
+	 *
+	 * @return the position after the token
+	 */
+	private int skipToken() {
+		while (pos < end && !isWhitespace(buffer.get(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	/**
+	 * Parses the current token as an int.
+	 *
+	 * @return the value
+	 * @throws NumberFormatException if the token is not an int
+	 */
+	private int parseInt() throws NumberFormatException {
+		int start = pos;
+		int tokenEnd = skipToken();
+		int i = start;
+		boolean negative = buffer.get(i) == '-';
+		if (negative || buffer.get(i) == '+') {
+			i++;
+		}
+		if (i == tokenEnd || tokenEnd - i > 9) {
+			return Integer.valueOf(getToken(start, tokenEnd));
+		}
+		int value = 0;
+		for (; i < tokenEnd; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return Integer.valueOf(getToken(start, tokenEnd));
+			}
+			value = 10 * value + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parses the current token as a float. A plain decimal number with up to 7 significant digits
+	 * and 10 decimals is computed with a single division, which is exact as both operands are
+	 * exact floats, and any other number is parsed by {@link Float#valueOf(String)}.
+	 *
+	 * @return the value
+	 * @throws NumberFormatException if the token is not a float
+	 */
+	private float parseFloat() throws NumberFormatException {
+		int start = pos;
+		int tokenEnd = skipToken();
+		int i = start;
+		boolean negative = buffer.get(i) == '-';
+		if (negative || buffer.get(i) == '+') {
+			i++;
+		}
+		int mantissa = 0;
+		int decimals = -1;
+		int digits = 0;
+		for (; i < tokenEnd; i++) {
+			byte c = buffer.get(i);
+			if (c == '.' && decimals < 0) {
+				decimals = 0;
+				continue;
+			}
+			int digit = c - '0';
+			if (digit < 0 || digit > 9 || digits == 9) {
+				return Float.valueOf(getToken(start, tokenEnd));
+			}
+			mantissa = 10 * mantissa + digit;
+			digits++;
+			if (decimals >= 0) {
+				decimals++;
+			}
+		}
+		if (digits == 0 || decimals >= FLOAT_POWERS_OF_TEN.length || mantissa >= 1 << 24) {
+			return Float.valueOf(getToken(start, tokenEnd));
+		}
+		float value = decimals > 0 ? mantissa / FLOAT_POWERS_OF_TEN[decimals] : mantissa;
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Gets a token as a string.
+	 *
+	 * @param start the position of the first character of the token
+	 * @param tokenEnd the position after the token
+	 * @return the token
+	 */
+	private String getToken(int start, int tokenEnd) {
+		char[] chars = new char[tokenEnd - start];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) (buffer.get(start + i) & 0xFF);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Gets the position of the next new line, or the limit.
+	 *
+	 * @param from the position to start from
+	 * @param limit the limit
+	 * @return the position of the new line
+	 */
+	private int indexOfNewLine(int from, int limit) {
+		for (int i = from; i < limit; i++) {
+			if (buffer.get(i) == '\n') {
+				return i;
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * Gets the position of a string in the line.
+	 *
+	 * @param pattern the string
+	 * @param from the position to start from
+	 * @param to the position after the last character of the line
+	 * @return the position of the string, or -1 if it is not in the line
+	 */
+	private int indexOf(byte[] pattern, int from, int to) {
+		for (int i = from; i <= to - pattern.length; i++) {
+			int j = 0;
+			while (j < pattern.length && buffer.get(i + j) == pattern[j]) {
+				j++;
+			}
+			if (j == pattern.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether a character separates the tokens, as for {@link java.util.StringTokenizer}.
+	 *
+	 * @param c the character
+	 * @return true if the character is whitespace
+	 */
+	private static boolean isWhitespace(byte c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
 	}
 
 }
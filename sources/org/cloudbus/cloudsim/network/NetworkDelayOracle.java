@@ -0,0 +1,426 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class answers the shortest-path delay and the link bandwidth between the nodes of a
+ * topology without building the dense matrices of {@link DelayMatrix_Float}. The links are stored
+ * as a compressed sparse row (CSR) adjacency, and the delays from a source node are computed with
+ * Dijkstra's algorithm the first time they are requested, then kept in a bounded cache of rows.
+ * When the topology is small and dense enough, all the rows are computed at once with
+ * {@link FloydWarshall_Float}.
+ *
+ * As in {@link DelayMatrix_Float}, a link with a delay of 0 is ignored, the last link added
+ * between two nodes replaces the previous ones, the delay from a node to itself is 0 and the delay
+ * between unconnected nodes is Float.MAX_VALUE.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkDelayOracle {
+
+	/** The default maximum number of rows of delays kept in the cache. */
+	public static final int DEFAULT_CACHED_ROWS = 1024;
+
+	/** The maximum number of delays kept in the cache. */
+	private static final int MAX_CACHED_DELAYS = 1 << 24;
+
+	/** The maximum number of nodes for which all the rows are computed at once. */
+	private static final int DENSE_MAX_NODES = 4096;
+
+	/** The minimum fraction of connected node pairs for which all the rows are computed at once. */
+	private static final double DENSE_MIN_DENSITY = 0.25;
+
+	/** The number of nodes. */
+	private final int numberOfNodes;
+
+	/** The first adjacency entry of each node, and the number of entries at the end. */
+	private final int[] offsets;
+
+	/** The node at the end of each adjacency entry. */
+	private final int[] targets;
+
+	/** The delay of each adjacency entry. */
+	private final float[] delays;
+
+	/** The bandwidth of each adjacency entry. */
+	private final float[] bandwidths;
+
+	/** The cached rows of delays, by source node, or null if all the rows are computed. */
+	private final Map<Integer, float[]> rows;
+
+	/** All the rows of delays, or null if they are computed on demand. */
+	private float[] allDelays;
+
+	/** Whether the links only go from their source to their destination. */
+	private final boolean directed;
+
+	/**
+	 * Creates the oracle of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @param directed true if the links only go from their source to their destination
+	 */
+	public NetworkDelayOracle(TopologicalGraph graph, boolean directed) {
+		this(graph, directed, DEFAULT_CACHED_ROWS);
+	}
+
+	/**
+	 * Creates the oracle of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @param directed true if the links only go from their source to their destination
+	 * @param cachedRows the maximum number of rows of delays kept in the cache
+	 */
+	public NetworkDelayOracle(TopologicalGraph graph, boolean directed, int cachedRows) {
+		this(
+				graph.getNumberOfNodes(),
+				graph.getNumberOfLinks(),
+				getSources(graph),
+				getDestinations(graph),
+				getDelays(graph),
+				getBandwidths(graph),
+				directed,
+				cachedRows);
+	}
+
+	/**
+	 * Creates the oracle of a topology given as arrays of links.
+	 *
+	 * @param numberOfNodes the number of nodes
+	 * @param numberOfLinks the number of links, which are the first ones of the arrays
+	 * @param sources the source node of each link
+	 * @param destinations the destination node of each link
+	 * @param linkDelays the delay of each link
+	 * @param linkBandwidths the bandwidth of each link
+	 * @param directed true if the links only go from their source to their destination
+	 * @param cachedRows the maximum number of rows of delays kept in the cache
+	 * @throws IllegalArgumentException if a link has a node out of range
+	 */
+	public NetworkDelayOracle(
+			int numberOfNodes,
+			int numberOfLinks,
+			int[] sources,
+			int[] destinations,
+			float[] linkDelays,
+			float[] linkBandwidths,
+			boolean directed,
+			int cachedRows) throws IllegalArgumentException {
+		this.numberOfNodes = numberOfNodes;
+		this.directed = directed;
+
+		// the last link between two nodes replaces the previous ones
+		Map<Long, Integer> lastLinks = new HashMap<Long, Integer>();
+		for (int i = 0; i < numberOfLinks; i++) {
+			int src = sources[i];
+			int dest = destinations[i];
+			if (src < 0 || src >= numberOfNodes || dest < 0 || dest >= numberOfNodes) {
+				throw new IllegalArgumentException("Link " + i + " has a node out of range");
+			}
+			lastLinks.put(getPairKey(src, dest), i);
+			if (!directed) {
+				lastLinks.put(getPairKey(dest, src), i);
+			}
+		}
+
+		offsets = new int[numberOfNodes + 1];
+		for (Long key : lastLinks.keySet()) {
+			offsets[(int) (key >>> 32) + 1]++;
+		}
+		for (int v = 0; v < numberOfNodes; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int numberOfEntries = offsets[numberOfNodes];
+		targets = new int[numberOfEntries];
+		delays = new float[numberOfEntries];
+		bandwidths = new float[numberOfEntries];
+		int[] next = Arrays.copyOf(offsets, numberOfNodes);
+		for (Map.Entry<Long, Integer> es : lastLinks.entrySet()) {
+			long key = es.getKey();
+			int src = (int) (key >>> 32);
+			int link = es.getValue();
+			int entry = next[src]++;
+			targets[entry] = (int) key;
+			delays[entry] = linkDelays[link];
+			bandwidths[entry] = linkBandwidths[link];
+		}
+
+		if (numberOfNodes > 1 && numberOfNodes <= DENSE_MAX_NODES
+				&& numberOfEntries >= DENSE_MIN_DENSITY * numberOfNodes * (numberOfNodes - 1)) {
+			rows = null;
+			computeAllDelays();
+		} else {
+			final int maxRows = Math.max(
+					1,
+					Math.min(cachedRows, MAX_CACHED_DELAYS / Math.max(numberOfNodes, 1)));
+			rows = new LinkedHashMap<Integer, float[]>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+					return size() > maxRows;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Gets the shortest-path delay between two nodes.
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the delay, or Float.MAX_VALUE if the nodes are not connected
+	 */
+	public float getDelay(int srcID, int destID) {
+		if (srcID < 0 || srcID >= numberOfNodes || destID < 0 || destID >= numberOfNodes) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is out of the stored node-IDs!");
+		}
+		if (allDelays != null) {
+			return allDelays[srcID * numberOfNodes + destID];
+		}
+		float[] row = rows.get(srcID);
+		if (row != null) {
+			return row[destID];
+		}
+		if (!directed) {
+			row = rows.get(destID);
+			if (row != null) {
+				return row[srcID];
+			}
+		}
+		row = new float[numberOfNodes];
+		computeDelays(srcID, row, 0, new int[numberOfNodes], new int[numberOfNodes]);
+		rows.put(srcID, row);
+		return row[destID];
+	}
+
+	/**
+	 * Gets the bandwidth of the link between two nodes.
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the bandwidth, or 0 if the nodes are not linked
+	 */
+	public double getBw(int srcID, int destID) {
+		if (srcID < 0 || srcID >= numberOfNodes) {
+			return 0.0;
+		}
+		for (int e = offsets[srcID]; e < offsets[srcID + 1]; e++) {
+			if (targets[e] == destID) {
+				return bandwidths[e];
+			}
+		}
+		return 0.0;
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	/**
+	 * Computes the delays from a source node with Dijkstra's algorithm.
+	 *
+	 * @param src the source node
+	 * @param dist the array receiving the delays
+	 * @param from the index of the delay of the first node in the array
+	 * @param heap a buffer of one value per node
+	 * @param positions a buffer of one value per node
+	 */
+	private void computeDelays(int src, float[] dist, int from, int[] heap, int[] positions) {
+		Arrays.fill(dist, from, from + numberOfNodes, Float.MAX_VALUE);
+		Arrays.fill(positions, -1);
+		dist[from + src] = 0;
+		int size = 0;
+		heap[size] = src;
+		positions[src] = size++;
+
+		while (size > 0) {
+			int u = heap[0];
+			positions[u] = -2;
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(heap, positions, size, dist, from, 0);
+			}
+			float du = dist[from + u];
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				if (delays[e] == 0) {
+					continue;
+				}
+				int v = targets[e];
+				if (positions[v] == -2) {
+					continue;
+				}
+				float dv = du + delays[e];
+				if (dv < dist[from + v]) {
+					dist[from + v] = dv;
+					if (positions[v] < 0) {
+						heap[size] = v;
+						positions[v] = size++;
+					}
+					siftUp(heap, positions, dist, from, positions[v]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves a node of the heap up to its place.
+	 *
+	 * @param heap the heap
+	 * @param positions the position of each node in the heap
+	 * @param dist the delays
+	 * @param from the index of the delay of the first node
+	 * @param i the position of the node
+	 */
+	private static void siftUp(int[] heap, int[] positions, float[] dist, int from, int i) {
+		int v = heap[i];
+		float dv = dist[from + v];
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			int p = heap[parent];
+			if (dist[from + p] <= dv) {
+				break;
+			}
+			heap[i] = p;
+			positions[p] = i;
+			i = parent;
+		}
+		heap[i] = v;
+		positions[v] = i;
+	}
+
+	/**
+	 * Moves a node of the heap down to its place.
+	 *
+	 * @param heap the heap
+	 * @param positions the position of each node in the heap
+	 * @param size the size of the heap
+	 * @param dist the delays
+	 * @param from the index of the delay of the first node
+	 * @param i the position of the node
+	 */
+	private static void siftDown(int[] heap, int[] positions, int size, float[] dist, int from, int i) {
+		int v = heap[i];
+		float dv = dist[from + v];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && dist[from + heap[child + 1]] < dist[from + heap[child]]) {
+				child++;
+			}
+			int c = heap[child];
+			if (dist[from + c] >= dv) {
+				break;
+			}
+			heap[i] = c;
+			positions[c] = i;
+			i = child;
+		}
+		heap[i] = v;
+		positions[v] = i;
+	}
+
+	/**
+	 * Computes the delays from every node with the blocked, parallel Floyd-Warshall algorithm.
+	 */
+	private void computeAllDelays() {
+		int n = numberOfNodes;
+		float[] adjMatrix = new float[n * n];
+		for (int src = 0; src < n; src++) {
+			for (int e = offsets[src]; e < offsets[src + 1]; e++) {
+				adjMatrix[src * n + targets[e]] = delays[e];
+			}
+		}
+		FloydWarshall_Float floyd = new FloydWarshall_Float();
+		floyd.initialize(n, false);
+		allDelays = floyd.allPairsShortestPaths(adjMatrix);
+	}
+
+	/**
+	 * Gets the key of a pair of nodes.
+	 *
+	 * @param src the source node
+	 * @param dest the destination node
+	 * @return the key
+	 */
+	private static Long getPairKey(int src, int dest) {
+		return Long.valueOf(((long) src << 32) | (dest & 0xFFFFFFFFL));
+	}
+
+	/**
+	 * Gets the source node of each link of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @return the source nodes
+	 */
+	private static int[] getSources(TopologicalGraph graph) {
+		int[] sources = new int[graph.getNumberOfLinks()];
+		for (int i = 0; i < sources.length; i++) {
+			sources[i] = graph.getLinkSrcNodeID(i);
+		}
+		return sources;
+	}
+
+	/**
+	 * Gets the destination node of each link of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @return the destination nodes
+	 */
+	private static int[] getDestinations(TopologicalGraph graph) {
+		int[] destinations = new int[graph.getNumberOfLinks()];
+		for (int i = 0; i < destinations.length; i++) {
+			destinations[i] = graph.getLinkDestNodeID(i);
+		}
+		return destinations;
+	}
+
+	/**
+	 * Gets the delay of each link of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @return the delays
+	 */
+	private static float[] getDelays(TopologicalGraph graph) {
+		float[] linkDelays = new float[graph.getNumberOfLinks()];
+		for (int i = 0; i < linkDelays.length; i++) {
+			linkDelays[i] = graph.getLinkDelay(i);
+		}
+		return linkDelays;
+	}
+
+	/**
+	 * Gets the bandwidth of each link of a topological graph.
+	 *
+	 * @param graph the topological graph
+	 * @return the bandwidths
+	 */
+	private static float[] getBandwidths(TopologicalGraph graph) {
+		float[] linkBandwidths = new float[graph.getNumberOfLinks()];
+		for (int i = 0; i < linkBandwidths.length; i++) {
+			linkBandwidths[i] = graph.getLinkBw(i);
+		}
+		return linkBandwidths;
+	}
+
+}
@@ -8,84 +8,303 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * This class represents an graph containing nodes and edges, used for input with an network-layer
  * Graphical-Output Restricions! EdgeColors: GraphicalProperties.getColorEdge NodeColors:
  * GraphicalProperties.getColorNode
- * 
+ *
+ * The nodes and links are stored in arrays of primitive values, one per attribute, so that large
+ * topologies stay compact. The {@link TopologicalNode} and {@link TopologicalLink} objects of the
+ * iterators are created on demand.
+ *
  * @author Thomas Hohnstein
  * @since CloudSim Toolkit 1.0
  */
 public class TopologicalGraph {
 
-	private List<TopologicalLink> linkList = null;
+	/** The initial capacity of the arrays. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The number of nodes. */
+	private int numberOfNodes = 0;
+
+	/** The id of each node. */
+	private int[] nodeIDs;
+
+	/** The label of each node, or null if it is the id of the node. */
+	private String[] nodeLabels;
+
+	/** The x coordinate of each node. */
+	private int[] nodeXs;
+
+	/** The y coordinate of each node. */
+	private int[] nodeYs;
+
+	/** The number of links. */
+	private int numberOfLinks = 0;
+
+	/** The source node of each link. */
+	private int[] linkSrcNodeIDs;
 
-	private List<TopologicalNode> nodeList = null;
+	/** The destination node of each link. */
+	private int[] linkDestNodeIDs;
+
+	/** The delay of each link. */
+	private float[] linkDelays;
+
+	/** The bandwidth of each link. */
+	private float[] linkBws;
 
 	/**
 	 * just the constructor to create an empty graph-object
 	 */
 	public TopologicalGraph() {
-		linkList = new LinkedList<TopologicalLink>();
-		nodeList = new LinkedList<TopologicalNode>();
+		nodeIDs = new int[INITIAL_CAPACITY];
+		nodeLabels = new String[INITIAL_CAPACITY];
+		nodeXs = new int[INITIAL_CAPACITY];
+		nodeYs = new int[INITIAL_CAPACITY];
+		linkSrcNodeIDs = new int[INITIAL_CAPACITY];
+		linkDestNodeIDs = new int[INITIAL_CAPACITY];
+		linkDelays = new float[INITIAL_CAPACITY];
+		linkBws = new float[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * makes room for the given number of nodes and links, so that adding them does not grow the
+	 * arrays again
+	 *
+	 * @param nodeCapacity the expected number of nodes
+	 * @param linkCapacity the expected number of links
+	 */
+	public void ensureCapacity(int nodeCapacity, int linkCapacity) {
+		if (nodeCapacity > nodeIDs.length) {
+			nodeIDs = Arrays.copyOf(nodeIDs, nodeCapacity);
+			nodeLabels = Arrays.copyOf(nodeLabels, nodeCapacity);
+			nodeXs = Arrays.copyOf(nodeXs, nodeCapacity);
+			nodeYs = Arrays.copyOf(nodeYs, nodeCapacity);
+		}
+		if (linkCapacity > linkSrcNodeIDs.length) {
+			linkSrcNodeIDs = Arrays.copyOf(linkSrcNodeIDs, linkCapacity);
+			linkDestNodeIDs = Arrays.copyOf(linkDestNodeIDs, linkCapacity);
+			linkDelays = Arrays.copyOf(linkDelays, linkCapacity);
+			linkBws = Arrays.copyOf(linkBws, linkCapacity);
+		}
 	}
 
 	/**
 	 * adds an link between two topological nodes
-	 * 
+	 *
 	 * @param edge the topological link
 	 */
 	public void addLink(TopologicalLink edge) {
-		linkList.add(edge);
+		addLink(edge.getSrcNodeID(), edge.getDestNodeID(), edge.getLinkDelay(), edge.getLinkBw());
+	}
+
+	/**
+	 * adds an link between two topological nodes
+	 *
+	 * @param srcNodeID the id of the source node
+	 * @param destNodeID the id of the destination node
+	 * @param delay the delay of the link
+	 * @param bw the bandwidth of the link
+	 */
+	public void addLink(int srcNodeID, int destNodeID, float delay, float bw) {
+		if (numberOfLinks == linkSrcNodeIDs.length) {
+			ensureCapacity(0, 2 * numberOfLinks);
+		}
+		linkSrcNodeIDs[numberOfLinks] = srcNodeID;
+		linkDestNodeIDs[numberOfLinks] = destNodeID;
+		linkDelays[numberOfLinks] = delay;
+		linkBws[numberOfLinks] = bw;
+		numberOfLinks++;
 	}
 
 	/**
 	 * adds an Topological Node to this graph
-	 * 
+	 *
 	 * @param node the topological node to add
 	 */
 	public void addNode(TopologicalNode node) {
-		nodeList.add(node);
+		addNode(node.getNodeID(), node.getCoordinateX(), node.getCoordinateY());
+		nodeLabels[numberOfNodes - 1] = node.getNodeLabel();
+	}
+
+	/**
+	 * adds an Topological Node to this graph, labelled with its id
+	 *
+	 * @param nodeID the id of the node
+	 * @param x the x coordinate of the node
+	 * @param y the y coordinate of the node
+	 */
+	public void addNode(int nodeID, int x, int y) {
+		if (numberOfNodes == nodeIDs.length) {
+			ensureCapacity(2 * numberOfNodes, 0);
+		}
+		nodeIDs[numberOfNodes] = nodeID;
+		nodeLabels[numberOfNodes] = null;
+		nodeXs[numberOfNodes] = x;
+		nodeYs[numberOfNodes] = y;
+		numberOfNodes++;
 	}
 
 	/**
 	 * returns the number of nodes contained inside the topological-graph
-	 * 
+	 *
 	 * @return number of nodes
 	 */
 	public int getNumberOfNodes() {
-		return nodeList.size();
+		return numberOfNodes;
 	}
 
 	/**
 	 * returns the number of links contained inside the topological-graph
-	 * 
+	 *
 	 * @return number of links
 	 */
 	public int getNumberOfLinks() {
-		return linkList.size();
+		return numberOfLinks;
+	}
+
+	/**
+	 * returns the id of a node
+	 *
+	 * @param index the index of the node, in the order the nodes were added
+	 * @return the id of the node
+	 */
+	public int getNodeID(int index) {
+		return nodeIDs[index];
+	}
+
+	/**
+	 * returns the source node of a link
+	 *
+	 * @param index the index of the link, in the order the links were added
+	 * @return the id of the source node
+	 */
+	public int getLinkSrcNodeID(int index) {
+		return linkSrcNodeIDs[index];
+	}
+
+	/**
+	 * returns the destination node of a link
+	 *
+	 * @param index the index of the link, in the order the links were added
+	 * @return the id of the destination node
+	 */
+	public int getLinkDestNodeID(int index) {
+		return linkDestNodeIDs[index];
+	}
+
+	/**
+	 * returns the delay of a link
+	 *
+	 * @param index the index of the link, in the order the links were added
+	 * @return the delay of the link
+	 */
+	public float getLinkDelay(int index) {
+		return linkDelays[index];
+	}
+
+	/**
+	 * returns the bandwidth of a link
+	 *
+	 * @param index the index of the link, in the order the links were added
+	 * @return the bandwidth of the link
+	 */
+	public float getLinkBw(int index) {
+		return linkBws[index];
+	}
+
+	/**
+	 * returns the node at an index
+	 *
+	 * @param index the index of the node, in the order the nodes were added
+	 * @return the node
+	 */
+	public TopologicalNode getNode(int index) {
+		String label = nodeLabels[index];
+		if (label == null) {
+			return new TopologicalNode(nodeIDs[index], nodeXs[index], nodeYs[index]);
+		}
+		return new TopologicalNode(nodeIDs[index], label, nodeXs[index], nodeYs[index]);
+	}
+
+	/**
+	 * returns the link at an index
+	 *
+	 * @param index the index of the link, in the order the links were added
+	 * @return the link
+	 */
+	public TopologicalLink getLink(int index) {
+		return new TopologicalLink(
+				linkSrcNodeIDs[index],
+				linkDestNodeIDs[index],
+				linkDelays[index],
+				linkBws[index]);
 	}
 
 	/**
 	 * return an iterator through all network-graph links
-	 * 
+	 *
 	 * @return the iterator throug all links
 	 */
 	public Iterator<TopologicalLink> getLinkIterator() {
-		return linkList.iterator();
+		return new Iterator<TopologicalLink>() {
+
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < numberOfLinks;
+			}
+
+			@Override
+			public TopologicalLink next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return getLink(index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	/**
 	 * returns an iterator through all network-graph nodes
-	 * 
+	 *
 	 * @return the iterator through all nodes
 	 */
 	public Iterator<TopologicalNode> getNodeIterator() {
-		return nodeList.iterator();
+		return new Iterator<TopologicalNode>() {
+
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < numberOfNodes;
+			}
+
+			@Override
+			public TopologicalNode next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return getNode(index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	/**
@@ -96,16 +315,15 @@ public class TopologicalGraph {
 		StringBuffer buffer = new StringBuffer();
 		buffer.append("topological-node-information: \n");
 
-		for (TopologicalNode node : nodeList) {
-			buffer.append(node.getNodeID() + " | x is: " + node.getCoordinateX() + " y is: "
-					+ node.getCoordinateY() + "\n");
+		for (int i = 0; i < numberOfNodes; i++) {
+			buffer.append(nodeIDs[i] + " | x is: " + nodeXs[i] + " y is: " + nodeYs[i] + "\n");
 		}
 
 		buffer.append("\n\n node-link-information:\n");
 
-		for (TopologicalLink link : linkList) {
-			buffer.append("from: " + link.getSrcNodeID() + " to: " + link.getDestNodeID() + " delay: "
-					+ link.getLinkDelay() + "\n");
+		for (int i = 0; i < numberOfLinks; i++) {
+			buffer.append("from: " + linkSrcNodeIDs[i] + " to: " + linkDestNodeIDs[i] + " delay: "
+					+ linkDelays[i] + "\n");
 		}
 		return buffer.toString();
 	}
@@ -87,6 +87,9 @@ public class NetDatacenterBroker extends SimEntity {
 
 	public static int cachedcloudlet = 0;
 
+	/** The policy placing the cloudlets of the applications on the VMs, or null to place them randomly. */
+	private NetworkAwarePlacementPolicy placementPolicy;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -252,6 +255,9 @@ public class NetDatacenterBroker extends SimEntity {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
 		cloudletsSubmitted--;
+		if (getPlacementPolicy() != null) {
+			getPlacementPolicy().release(cloudlet);
+		}
 		// all cloudlets executed
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && NetworkConstants.iteration > 10) {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
@@ -319,19 +325,30 @@ public class NetDatacenterBroker extends SimEntity {
 		for (AppCloudlet app : this.getAppCloudletList()) {
 
 			List<Integer> vmids = new ArrayList<Integer>();
-			int numVms = linkDC.getVmList().size();
-			UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
-			for (int i = 0; i < app.numbervm; i++) {
+			boolean placed = getPlacementPolicy() != null && getPlacementPolicy().hasVms();
+			if (placed) {
+				// the cloudlets are created for VM slots, which the policy maps to VMs
+				for (int i = 0; i < app.numbervm; i++) {
+					vmids.add(i);
+				}
+			} else {
+				int numVms = linkDC.getVmList().size();
+				UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
+				for (int i = 0; i < app.numbervm; i++) {
 
-				int vmid = (int) ufrnd.sample();
-				vmids.add(vmid);
+					int vmid = (int) ufrnd.sample();
+					vmids.add(vmid);
 
+				}
 			}
 
 			if (vmids != null) {
 				if (!vmids.isEmpty()) {
 
 					app.createCloudletList(vmids);
+					if (placed) {
+						getPlacementPolicy().placeApp(app);
+					}
 					for (int i = 0; i < app.numbervm; i++) {
 						app.clist.get(i).setUserId(getId());
 						appCloudletRecieved.put(app.appID, app.numbervm);
@@ -686,4 +703,23 @@ public class NetDatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Gets the placement policy.
+	 * 
+	 * @return the placement policy, or null if the cloudlets are placed randomly
+	 */
+	public NetworkAwarePlacementPolicy getPlacementPolicy() {
+		return placementPolicy;
+	}
+
+	/**
+	 * Sets the placement policy.
+	 * 
+	 * @param placementPolicy the placement policy, or null to place the cloudlets randomly, as
+	 *            they also are when the policy has no VM
+	 */
+	public void setPlacementPolicy(NetworkAwarePlacementPolicy placementPolicy) {
+		this.placementPolicy = placementPolicy;
+	}
+
 }
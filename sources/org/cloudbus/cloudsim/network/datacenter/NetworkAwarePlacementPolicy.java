@@ -0,0 +1,490 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * NetworkAwarePlacementPolicy chooses the VMs running the cloudlets of an application so that the
+ * VMs that communicate the most are close in the network. The cloudlets of the application are
+ * created for VM slots 0 to numbervm - 1, and the data sent by the WAIT_SEND stages between the
+ * slots gives the communication graph of the application. The slots are placed greedily, heaviest
+ * communicator first, each on the VM that minimizes its traffic to the slots already placed
+ * weighted by the distance between their hosts: the same host, the same edge switch, the same pod
+ * (edge switches sharing an aggregate switch) or the other side of the root switches. This is a
+ * greedy min-cut of the graph along the levels of the tree.
+ *
+ * The free capacity of the VMs, in PEs, is kept in indexes per host, per edge switch and per pod,
+ * which are updated when a cloudlet is placed or released, so a placement does not scan the hosts.
+ * When no VM has free capacity left, the least loaded VMs are used, and the cloudlets wait in the
+ * scheduler of the VM.
+ *
+ * The policy predicts the data crossing the edge switches and the aggregate switches.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkAwarePlacementPolicy {
+
+	/** The distance between two slots on the same host. */
+	private static final int SAME_HOST = 0;
+
+	/** The distance between two slots on hosts of the same edge switch. */
+	private static final int SAME_EDGE = 1;
+
+	/** The distance between two slots on edge switches of the same pod. */
+	private static final int SAME_POD = 2;
+
+	/** The distance between two slots in different pods. */
+	private static final int OTHER_POD = 3;
+
+	/** Orders the nodes of an index by decreasing free capacity, then by id. */
+	private static final Comparator<Node> BY_FREE_CAPACITY = new Comparator<Node>() {
+
+		@Override
+		public int compare(Node a, Node b) {
+			if (a.free != b.free) {
+				return a.free > b.free ? -1 : 1;
+			}
+			return a.id < b.id ? -1 : (a.id == b.id ? 0 : 1);
+		}
+	};
+
+	public NetworkDatacenter dc;
+
+	/** The VMs, by id. */
+	private Map<Integer, VmNode> vms;
+
+	/** The pods, by free capacity. */
+	private TreeSet<Node> pods;
+
+	/** The data of the placed applications predicted to cross an edge switch. */
+	private double crossEdgeData;
+
+	/** The data of the placed applications predicted to cross an aggregate switch. */
+	private double crossPodData;
+
+	/**
+	 * Instantiates a new network-aware placement policy.
+	 *
+	 * @param dc the datacenter running the VMs
+	 */
+	public NetworkAwarePlacementPolicy(NetworkDatacenter dc) {
+		this.dc = dc;
+	}
+
+	/**
+	 * Places the cloudlets of an application, created for the VM slots 0 to numbervm - 1, on VMs of
+	 * the datacenter. The VM of each cloudlet and the peers of its stages are set to the chosen
+	 * VMs.
+	 *
+	 * @param app the application
+	 * @return the data of the application predicted to cross an edge switch, or -1 if no VM of the
+	 *         datacenter is connected to the network, in which case the cloudlets are not placed
+	 * @see #hasVms()
+	 */
+	public double placeApp(AppCloudlet app) {
+		if (!hasVms()) {
+			return -1;
+		}
+		int numberOfSlots = app.numbervm;
+		double[][] traffic = new double[numberOfSlots][numberOfSlots];
+		int[] pes = new int[numberOfSlots];
+		for (NetworkCloudlet cl : app.clist) {
+			int slot = cl.getVmId();
+			pes[slot] += cl.getNumberOfPes();
+			for (TaskStage st : cl.stages) {
+				if (st.type == NetworkConstants.WAIT_SEND && st.peer != slot) {
+					traffic[slot][st.peer] += st.data;
+					traffic[st.peer][slot] += st.data;
+				}
+			}
+		}
+
+		VmNode[] placed = new VmNode[numberOfSlots];
+		for (int n = 0; n < numberOfSlots; n++) {
+			int slot = getNextSlot(traffic, placed);
+			VmNode vm = chooseVm(slot, traffic, placed);
+			if (vm == null) {
+				return -1;
+			}
+			placed[slot] = vm;
+			updateFree(vm, -pes[slot]);
+		}
+
+		for (NetworkCloudlet cl : app.clist) {
+			cl.setVmId(placed[cl.getVmId()].id);
+			for (TaskStage st : cl.stages) {
+				st.peer = placed[st.peer].id;
+			}
+		}
+
+		double crossEdge = 0;
+		for (int i = 0; i < numberOfSlots; i++) {
+			for (int j = i + 1; j < numberOfSlots; j++) {
+				int distance = getDistance(placed[i].host, placed[j].host);
+				if (distance > SAME_EDGE) {
+					crossEdge += traffic[i][j];
+				}
+				if (distance > SAME_POD) {
+					crossPodData += traffic[i][j];
+				}
+			}
+		}
+		crossEdgeData += crossEdge;
+		return crossEdge;
+	}
+
+	/**
+	 * Checks whether the policy has VMs to place the cloudlets on, that is VMs of the datacenter
+	 * on hosts connected to the network.
+	 *
+	 * @return true if the applications can be placed
+	 */
+	public boolean hasVms() {
+		if (vms == null) {
+			buildIndexes();
+		}
+		return !vms.isEmpty();
+	}
+
+	/**
+	 * Releases the capacity used by a cloudlet that has finished.
+	 *
+	 * @param cloudlet the cloudlet
+	 */
+	public void release(Cloudlet cloudlet) {
+		if (vms == null) {
+			return;
+		}
+		VmNode vm = vms.get(cloudlet.getVmId());
+		if (vm != null) {
+			updateFree(vm, cloudlet.getNumberOfPes());
+		}
+	}
+
+	/**
+	 * Gets the data of the placed applications predicted to cross an edge switch, that is sent
+	 * between hosts of different edge switches.
+	 *
+	 * @return the cross-edge data
+	 */
+	public double getPredictedCrossEdgeData() {
+		return crossEdgeData;
+	}
+
+	/**
+	 * Gets the data of the placed applications predicted to cross an aggregate switch, that is sent
+	 * between hosts of different pods.
+	 *
+	 * @return the cross-pod data
+	 */
+	public double getPredictedCrossPodData() {
+		return crossPodData;
+	}
+
+	/**
+	 * Gets the next slot to place: the slot with the most traffic to the placed slots, or with the
+	 * most traffic overall if none is connected to them.
+	 *
+	 * @param traffic the traffic between the slots
+	 * @param placed the VM of each placed slot
+	 * @return the slot
+	 */
+	private static int getNextSlot(double[][] traffic, VmNode[] placed) {
+		int best = -1;
+		double bestPlaced = -1;
+		double bestTotal = -1;
+		for (int s = 0; s < placed.length; s++) {
+			if (placed[s] != null) {
+				continue;
+			}
+			double toPlaced = 0;
+			double total = 0;
+			for (int p = 0; p < placed.length; p++) {
+				total += traffic[s][p];
+				if (placed[p] != null) {
+					toPlaced += traffic[s][p];
+				}
+			}
+			if (toPlaced > bestPlaced || (toPlaced == bestPlaced && total > bestTotal)) {
+				best = s;
+				bestPlaced = toPlaced;
+				bestTotal = total;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Chooses the VM of a slot among the VMs of the hosts, edge switches and pods of its placed
+	 * peers and the VM with the most free capacity, as the one minimizing its traffic times the
+	 * distance to the placed peers.
+	 *
+	 * @param slot the slot
+	 * @param traffic the traffic between the slots
+	 * @param placed the VM of each placed slot
+	 * @return the VM, or null if no VM is indexed
+	 */
+	private VmNode chooseVm(int slot, double[][] traffic, VmNode[] placed) {
+		List<Node> candidates = new ArrayList<Node>();
+		candidates.add(getBestHost(pods));
+		for (int p = 0; p < placed.length; p++) {
+			if (placed[p] == null || traffic[slot][p] == 0) {
+				continue;
+			}
+			Node host = placed[p].host;
+			candidates.add(host);
+			candidates.add(getBestHost(host.parent.children));
+			candidates.add(getBestHost(host.parent.parent.children));
+		}
+
+		Node best = null;
+		double bestCost = Double.MAX_VALUE;
+		for (int c = 0; c < candidates.size(); c++) {
+			Node host = candidates.get(c);
+			if (host == null || (c > 0 && host.free <= 0)) {
+				continue;
+			}
+			double cost = 0;
+			for (int p = 0; p < placed.length; p++) {
+				if (placed[p] != null) {
+					cost += traffic[slot][p] * getDistance(host, placed[p].host);
+				}
+			}
+			if (best == null || cost < bestCost
+					|| (cost == bestCost && BY_FREE_CAPACITY.compare(host, best) < 0)) {
+				best = host;
+				bestCost = cost;
+			}
+		}
+		if (best == null) {
+			return null;
+		}
+		return (VmNode) best.children.first();
+	}
+
+	/**
+	 * Gets the host with the most free capacity under the nodes of an index.
+	 *
+	 * @param index the index
+	 * @return the host, or null if the index is empty
+	 */
+	private static Node getBestHost(TreeSet<Node> index) {
+		if (index.isEmpty()) {
+			return null;
+		}
+		Node node = index.first();
+		while (!(node.children.first() instanceof VmNode)) {
+			node = node.children.first();
+		}
+		return node;
+	}
+
+	/**
+	 * Gets the distance between two hosts.
+	 *
+	 * @param a a host
+	 * @param b another host
+	 * @return the distance
+	 */
+	private static int getDistance(Node a, Node b) {
+		if (a == b) {
+			return SAME_HOST;
+		}
+		if (a.parent == b.parent) {
+			return SAME_EDGE;
+		}
+		if (a.parent.parent == b.parent.parent) {
+			return SAME_POD;
+		}
+		return OTHER_POD;
+	}
+
+	/**
+	 * Changes the free capacity of a VM, and of its host, edge switch and pod, keeping the indexes
+	 * ordered.
+	 *
+	 * @param vm the VM
+	 * @param pes the number of PEs freed, or used if negative
+	 */
+	private void updateFree(VmNode vm, int pes) {
+		List<Node> path = new ArrayList<Node>(4);
+		for (Node node = vm; node != null; node = node.parent) {
+			path.add(node);
+		}
+		// remove the nodes from their index top-down before changing their capacity
+		for (int i = path.size() - 1; i >= 0; i--) {
+			getIndex(path.get(i)).remove(path.get(i));
+		}
+		for (int i = 0; i < path.size(); i++) {
+			path.get(i).free += pes;
+			getIndex(path.get(i)).add(path.get(i));
+		}
+	}
+
+	/**
+	 * Gets the index holding a node.
+	 *
+	 * @param node the node
+	 * @return the index
+	 */
+	private TreeSet<Node> getIndex(Node node) {
+		return node.parent == null ? pods : node.parent.children;
+	}
+
+	/**
+	 * Builds the indexes of the VMs of the datacenter, grouping the edge switches sharing an
+	 * uplink switch in pods.
+	 */
+	private void buildIndexes() {
+		NetworkRoutingTable routes = dc.getRoutingTable();
+		vms = new HashMap<Integer, VmNode>();
+		pods = new TreeSet<Node>(BY_FREE_CAPACITY);
+
+		// the pods are the connected groups of edge switches and their uplink switches
+		Map<Integer, Integer> groups = new HashMap<Integer, Integer>();
+		for (Switch sw : dc.Switchlist.values()) {
+			if (sw.level != NetworkConstants.EDGE_LEVEL) {
+				continue;
+			}
+			int id = sw.getId();
+			for (int port = 0; port < routes.getNumberOfPorts(id); port++) {
+				if (routes.isUplinkPort(id, port)) {
+					union(groups, id, routes.getPortNodeId(id, port));
+				}
+			}
+		}
+
+		Map<Integer, Node> podNodes = new HashMap<Integer, Node>();
+		Map<Integer, Node> edgeNodes = new HashMap<Integer, Node>();
+		Map<Integer, Node> hostNodes = new HashMap<Integer, Node>();
+		for (Host host : dc.getHostList()) {
+			int edgeId = routes.getHostEdgeSwitchId(host.getId());
+			Node edge = edgeNodes.get(edgeId);
+			if (edge == null) {
+				int podId = find(groups, edgeId);
+				Node pod = podNodes.get(podId);
+				if (pod == null) {
+					pod = new Node(podId, null);
+					podNodes.put(podId, pod);
+				}
+				edge = new Node(edgeId, pod);
+				edgeNodes.put(edgeId, edge);
+			}
+			hostNodes.put(host.getId(), new Node(host.getId(), edge));
+		}
+
+		// the capacities are summed bottom-up before the nodes are indexed
+		List<Node> nodes = new ArrayList<Node>();
+		for (Vm vm : dc.getVmList()) {
+			Node host = hostNodes.get(routes.getHostId(vm.getId()));
+			if (host == null) {
+				continue;
+			}
+			VmNode vmNode = new VmNode(vm.getId(), host, vm.getNumberOfPes());
+			vms.put(vm.getId(), vmNode);
+			nodes.add(vmNode);
+		}
+		for (Node node : nodes) {
+			for (Node parent = node.parent; parent != null; parent = parent.parent) {
+				parent.free += node.free;
+			}
+		}
+		nodes.addAll(hostNodes.values());
+		nodes.addAll(edgeNodes.values());
+		nodes.addAll(podNodes.values());
+		for (Node node : nodes) {
+			// the hosts, edge switches and pods without VMs are left out
+			if (node instanceof VmNode || !node.children.isEmpty()) {
+				getIndex(node).add(node);
+			}
+		}
+	}
+
+	/**
+	 * Gets the representative of the group of a switch.
+	 *
+	 * @param groups the parent of each switch in the groups
+	 * @param id the id of the switch
+	 * @return the id of the representative
+	 */
+	private static int find(Map<Integer, Integer> groups, int id) {
+		Integer parent = groups.get(id);
+		while (parent != null && parent != id) {
+			id = parent;
+			parent = groups.get(id);
+		}
+		return id;
+	}
+
+	/**
+	 * Merges the groups of two switches.
+	 *
+	 * @param groups the parent of each switch in the groups
+	 * @param a the id of a switch
+	 * @param b the id of another switch
+	 */
+	private static void union(Map<Integer, Integer> groups, int a, int b) {
+		int rootA = find(groups, a);
+		int rootB = find(groups, b);
+		if (rootA != rootB) {
+			groups.put(rootB, rootA);
+		}
+	}
+
+	/**
+	 * A pod, edge switch, host or VM of the indexes, with its free capacity in PEs.
+	 */
+	private static class Node {
+
+		/** The id of the node. */
+		final int id;
+
+		/** The parent node, or null for a pod. */
+		final Node parent;
+
+		/** The children, by free capacity. */
+		final TreeSet<Node> children = new TreeSet<Node>(BY_FREE_CAPACITY);
+
+		/** The free capacity. */
+		int free;
+
+		Node(int id, Node parent) {
+			this.id = id;
+			this.parent = parent;
+		}
+
+	}
+
+	/**
+	 * A VM of the indexes.
+	 */
+	private static class VmNode extends Node {
+
+		/** The host of the VM. */
+		final Node host;
+
+		VmNode(int id, Node host, int pes) {
+			super(id, host);
+			this.host = host;
+			free = pes;
+		}
+
+	}
+
+}
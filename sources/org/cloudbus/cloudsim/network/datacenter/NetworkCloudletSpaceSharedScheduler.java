@@ -8,9 +8,9 @@
 
 package org.cloudbus.cloudsim.network.datacenter;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -55,7 +55,17 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 	public Map<Integer, List<HostPacket>> pkttosend;
 
-	public Map<Integer, List<HostPacket>> pktrecv;
+	/**
+	 * The received packets, by sending VM and receiving cloudlet, with the cloudlet waiting for
+	 * them.
+	 */
+	private final Map<Long, Mailbox> mailboxes;
+
+	/** The cloudlets waiting for a packet that has been received. */
+	private List<NetworkCloudlet> wokenCloudlets;
+
+	/** The woken cloudlets being processed, swapped with the woken cloudlets on every update. */
+	private List<NetworkCloudlet> processedCloudlets;
 
 	/**
 	 * Creates a new CloudletSchedulerSpaceShared object. This method must be invoked before
@@ -73,7 +83,28 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		usedPes = 0;
 		currentCpus = 0;
 		pkttosend = new HashMap<Integer, List<HostPacket>>();
-		pktrecv = new HashMap<Integer, List<HostPacket>>();
+		mailboxes = new HashMap<Long, Mailbox>();
+		wokenCloudlets = new ArrayList<NetworkCloudlet>();
+		processedCloudlets = new ArrayList<NetworkCloudlet>();
+	}
+
+	/**
+	 * Receives a packet sent to a cloudlet of the VM. The packet is queued by sending VM and
+	 * receiving cloudlet, and the cloudlet is woken if it is waiting for it.
+	 * 
+	 * @param pkt the packet
+	 */
+	public void receivePacket(HostPacket pkt) {
+		Long key = getMailboxKey(pkt.sender, pkt.virtualrecvid);
+		Mailbox mailbox = mailboxes.get(key);
+		if (mailbox == null) {
+			mailbox = new Mailbox();
+			mailboxes.put(key, mailbox);
+		}
+		mailbox.packets.add(pkt);
+		if (mailbox.waiting != null && mailbox.packets.size() == 1) {
+			wokenCloudlets.add(mailbox.waiting);
+		}
 	}
 
 	/**
@@ -102,6 +133,11 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		currentCpus = cpus;
 		capacity /= cpus; // average capacity of each cpu
 
+		// the cloudlets woken during this update receive their packet in the next one
+		List<NetworkCloudlet> woken = wokenCloudlets;
+		wokenCloudlets = processedCloudlets;
+		processedCloudlets = woken;
+
 		for (ResCloudlet rcl : getCloudletExecList()) { // each machine in the
 			// exec list has the
 			// same amount of cpu
@@ -128,31 +164,10 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 						// change the stage
 					}
 				}
-				if (st.type == NetworkConstants.WAIT_RECV) {
-					List<HostPacket> pktlist = pktrecv.get(st.peer);
-					List<HostPacket> pkttoremove = new ArrayList<HostPacket>();
-					if (pktlist != null) {
-						Iterator<HostPacket> it = pktlist.iterator();
-						HostPacket pkt = null;
-						if (it.hasNext()) {
-							pkt = it.next();
-							// Asumption packet will not arrive in the same cycle
-							if (pkt.reciever == cl.getVmId()) {
-								pkt.recievetime = CloudSim.clock();
-								st.time = CloudSim.clock() - pkt.sendtime;
-								changetonextstage(cl, st);
-								pkttoremove.add(pkt);
-							}
-						}
-						pktlist.removeAll(pkttoremove);
-						// if(pkt!=null)
-						// else wait for recieving the packet
-					}
-				}
-
 			} else {
 				cl.currStagenum = 0;
 				cl.timetostartStage = CloudSim.clock();
+				waitForPacket(cl);
 
 				if (cl.stages.get(0).type == NetworkConstants.EXECUTION) {
 					NetDatacenterBroker.linkDC.schedule(
@@ -170,6 +185,12 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 		}
 
+		// the waiting cloudlets are only checked when a packet has been received for them
+		for (NetworkCloudlet cl : woken) {
+			recvPacket(cl);
+		}
+		woken.clear();
+
 		if (getCloudletExecList().size() == 0 && getCloudletWaitingList().size() == 0) { // no
 			// more cloudlets in this scheduler
 			setPreviousTime(currentTime);
@@ -229,6 +250,72 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return nextEvent;
 	}
 
+	/**
+	 * Completes the receive stage of a woken cloudlet with the first packet queued for it. The
+	 * cloudlet stays waiting if it is no longer executing, or if the packet has been taken.
+	 * 
+	 * @param cl the cloudlet
+	 */
+	private void recvPacket(NetworkCloudlet cl) {
+		if (cl.getCloudletStatus() != Cloudlet.INEXEC || cl.currStagenum < 0) {
+			return;
+		}
+		TaskStage st = cl.stages.get(cl.currStagenum);
+		if (st.type != NetworkConstants.WAIT_RECV) {
+			return;
+		}
+		Long key = getMailboxKey(st.peer, cl.getCloudletId());
+		Mailbox mailbox = mailboxes.get(key);
+		if (mailbox == null || mailbox.waiting != cl || mailbox.packets.isEmpty()) {
+			return;
+		}
+		HostPacket pkt = mailbox.packets.poll();
+		mailbox.waiting = null;
+		if (mailbox.packets.isEmpty()) {
+			mailboxes.remove(key);
+		}
+		pkt.recievetime = CloudSim.clock();
+		st.time = CloudSim.clock() - pkt.sendtime;
+		changetonextstage(cl, st);
+	}
+
+	/**
+	 * Registers a cloudlet whose current stage is a receive stage as waiting for its packet, and
+	 * wakes it if the packet has already been received.
+	 * 
+	 * @param cl the cloudlet
+	 */
+	private void waitForPacket(NetworkCloudlet cl) {
+		if (cl.currStagenum < 0 || cl.currStagenum >= cl.stages.size()) {
+			return;
+		}
+		TaskStage st = cl.stages.get(cl.currStagenum);
+		if (st.type != NetworkConstants.WAIT_RECV) {
+			return;
+		}
+		Long key = getMailboxKey(st.peer, cl.getCloudletId());
+		Mailbox mailbox = mailboxes.get(key);
+		if (mailbox == null) {
+			mailbox = new Mailbox();
+			mailboxes.put(key, mailbox);
+		}
+		mailbox.waiting = cl;
+		if (!mailbox.packets.isEmpty()) {
+			wokenCloudlets.add(cl);
+		}
+	}
+
+	/**
+	 * Gets the key of the packets sent by a VM to a cloudlet.
+	 * 
+	 * @param senderVmId the id of the sending VM
+	 * @param cloudletId the id of the receiving cloudlet
+	 * @return the key
+	 */
+	private static Long getMailboxKey(int senderVmId, int cloudletId) {
+		return Long.valueOf(((long) senderVmId << 32) | (cloudletId & 0xFFFFFFFFL));
+	}
+
 	private void changetonextstage(NetworkCloudlet cl, TaskStage st) {
 		cl.timespentInStage = 0;
 		cl.timetostartStage = CloudSim.clock();
@@ -268,6 +355,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 				cl.currStagenum = NetworkConstants.FINISH;
 			} else {
 				cl.currStagenum = i;
+				waitForPacket(cl);
 				if (cl.stages.get(i).type == NetworkConstants.EXECUTION) {
 					NetDatacenterBroker.linkDC.schedule(
 							NetDatacenterBroker.linkDC.getId(),
@@ -447,6 +535,7 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 
 				getCloudletExecList().add(rcl);
 				usedPes += rcl.getNumberOfPes();
+				waitForPacket((NetworkCloudlet) rcl.getCloudlet());
 
 				// calculate the expected time for cloudlet completion
 				double capacity = 0.0;
@@ -794,4 +883,17 @@ public class NetworkCloudletSpaceSharedScheduler extends CloudletScheduler {
 		return 0;
 	}
 
+	/**
+	 * The packets received from a VM by a cloudlet, and the cloudlet if it is waiting for them.
+	 */
+	private static class Mailbox {
+
+		/** The received packets, in the order of arrival. */
+		final ArrayDeque<HostPacket> packets = new ArrayDeque<HostPacket>();
+
+		/** The cloudlet waiting for the packets, or null. */
+		NetworkCloudlet waiting;
+
+	}
+
 }
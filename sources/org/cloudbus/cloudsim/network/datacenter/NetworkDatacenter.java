@@ -88,6 +88,12 @@ public class NetworkDatacenter extends Datacenter {
 
 	public Map<Integer, Integer> VmtoHostlist;
 
+	/** The flow-level network model, or null to forward every packet through the switches. */
+	private NetworkFlowModel flowModel;
+
+	/** The routing table, built on first use. */
+	private NetworkRoutingTable routingTable;
+
 	/**
 	 * Get list of all EdgeSwitches in the Datacenter network One can design similar functions for
 	 * other type of switches.
@@ -104,6 +110,64 @@ public class NetworkDatacenter extends Datacenter {
 
 	}
 
+	/**
+	 * Registers a switch of the datacenter network.
+	 * 
+	 * @param sw the switch
+	 */
+	public void registerSwitch(Switch sw) {
+		Switchlist.put(sw.getId(), sw);
+		routingTable = null;
+	}
+
+	/**
+	 * Connects a host to an edge switch of the datacenter network.
+	 * 
+	 * @param host the host
+	 * @param edge the edge switch
+	 */
+	public void registerHost(NetworkHost host, Switch edge) {
+		edge.hostlist.put(host.getId(), host);
+		HostToSwitchid.put(host.getId(), edge.getId());
+		host.sw = edge;
+		routingTable = null;
+	}
+
+	/**
+	 * Gets the routing table of the datacenter network. The table is built from the registered
+	 * switches and hosts on the first call after a registration.
+	 * 
+	 * @return the routing table
+	 */
+	public NetworkRoutingTable getRoutingTable() {
+		if (routingTable == null) {
+			routingTable = new NetworkRoutingTable(Switchlist.values(), getHostList());
+			for (Entry<Integer, Integer> es : VmtoHostlist.entrySet()) {
+				routingTable.setVm(es.getKey(), es.getValue());
+			}
+		}
+		return routingTable;
+	}
+
+	/**
+	 * Gets the flow-level network model.
+	 * 
+	 * @return the flow model, or null if the packets are forwarded through the switches
+	 */
+	public NetworkFlowModel getFlowModel() {
+		return flowModel;
+	}
+
+	/**
+	 * Sets the flow-level network model. When a flow model is set, the packets sent between hosts
+	 * are transmitted as flows instead of being forwarded by the switches.
+	 * 
+	 * @param flowModel the flow model, or null to forward the packets through the switches
+	 */
+	public void setFlowModel(NetworkFlowModel flowModel) {
+		this.flowModel = flowModel;
+	}
+
 	/**
 	 * Create the VM within the NetworkDatacenter. It can be directly accessed by Datacenter Broker
 	 * which manage allocation of Cloudlets.
@@ -117,6 +181,7 @@ public class NetworkDatacenter extends Datacenter {
 		if (result) {
 			VmToSwitchid.put(vm.getId(), ((NetworkHost) vm.getHost()).sw.getId());
 			VmtoHostlist.put(vm.getId(), vm.getHost().getId());
+			getRoutingTable().setVm(vm.getId(), vm.getHost().getId());
 			System.out.println(vm.getId() + " VM is created on " + vm.getHost().getId());
 
 			getVmList().add(vm);
@@ -127,6 +192,24 @@ public class NetworkDatacenter extends Datacenter {
 		return result;
 	}
 
+	/**
+	 * Processes the end of a VM migration, and updates the routes to the VM.
+	 * 
+	 * @param ev a SimEvent object
+	 * @param ack an acknowledgement
+	 */
+	@Override
+	protected void processVmMigrate(SimEvent ev, boolean ack) {
+		super.processVmMigrate(ev, ack);
+		@SuppressWarnings("unchecked")
+		Map<String, Object> migrate = (Map<String, Object>) ev.getData();
+		Vm vm = (Vm) migrate.get("vm");
+		NetworkHost host = (NetworkHost) migrate.get("host");
+		VmToSwitchid.put(vm.getId(), host.sw.getId());
+		VmtoHostlist.put(vm.getId(), host.getId());
+		getRoutingTable().setVm(vm.getId(), host.getId());
+	}
+
 	/**
 	 * Processes a Cloudlet submission.
 	 * 
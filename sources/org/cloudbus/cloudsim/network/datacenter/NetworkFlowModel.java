@@ -0,0 +1,389 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * NetworkFlowModel is a flow-level (fluid) alternative to the per-packet forwarding of the
+ * switches. Every packet sent between two hosts is a flow over the links of its path: the uplink of
+ * the sending host, the edge, aggregate and root switch links it crosses, and the downlink of the
+ * receiving host. The flows sharing a link share its bandwidth with max-min fairness.
+ *
+ * The rates of the flows are only recomputed when a flow starts or completes, and a single event is
+ * pending at any time for the next completion. A completed flow is delivered to the receiving host
+ * after the switching delays of its path, and the datacenter is asked to update the processing of
+ * its VMs.
+ *
+ * The model is used by a datacenter once set with
+ * {@link NetworkDatacenter#setFlowModel(NetworkFlowModel)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkFlowModel extends SimEntity {
+
+	/** The kind of the link from a host to its edge switch. */
+	private static final long HOST_UP = 0;
+
+	/** The kind of the link from a port of a switch to the switch or host on the port. */
+	private static final long SWITCH_PORT = 1;
+
+	public NetworkDatacenter dc;
+
+	/** The active flows. */
+	private final List<Flow> flows = new ArrayList<Flow>();
+
+	/** The indices of the links, by kind and node. */
+	private final Map<Long, Integer> linkIndices = new HashMap<Long, Integer>();
+
+	/** The bandwidth of each link. */
+	private double[] capacities = new double[16];
+
+	/** The bandwidth of each link not yet given to a flow. */
+	private double[] residuals = new double[16];
+
+	/** The number of flows of each link without a rate. */
+	private int[] counts = new int[16];
+
+	/** The time the remaining data of the flows was last updated. */
+	private double lastUpdateTime;
+
+	/** The number of the pending completion event, older events are ignored. */
+	private int generation;
+
+	/** The number of flows started. */
+	private long flowCount;
+
+	/**
+	 * Instantiates a new flow model.
+	 *
+	 * @param name the name of the entity
+	 * @param dc the datacenter whose network is modelled
+	 */
+	public NetworkFlowModel(String name, NetworkDatacenter dc) {
+		super(name);
+		this.dc = dc;
+	}
+
+	@Override
+	public void startEntity() {
+		Log.printLine(getName() + " is starting...");
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		switch (ev.getTag()) {
+			case CloudSimTags.Network_Event_send:
+				if (((Integer) ev.getData()).intValue() == generation) {
+					updateFlows();
+				}
+				break;
+			case CloudSimTags.Network_Event_Host:
+				processhostpacket(ev);
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public void shutdownEntity() {
+		Log.printLine(getName() + " is shutting down...");
+	}
+
+	/**
+	 * Starts the flow of a packet sent by a host to a VM on another host.
+	 *
+	 * @param sender the sending host
+	 * @param hspkt the packet
+	 */
+	public void startFlow(NetworkHost sender, NetworkPacket hspkt) {
+		NetworkHost receiver = getReceiverHost(hspkt);
+		hspkt.recieverhostid = receiver.getId();
+		advanceFlows();
+		flows.add(createFlow(sender, hspkt));
+		flowCount++;
+		scheduleNextCompletion();
+	}
+
+	/**
+	 * Gets the number of flows started.
+	 *
+	 * @return the number of flows
+	 */
+	public long getFlowCount() {
+		return flowCount;
+	}
+
+	/**
+	 * Gets the number of flows being transmitted.
+	 *
+	 * @return the number of active flows
+	 */
+	public int getActiveFlowCount() {
+		return flows.size();
+	}
+
+	/**
+	 * Delivers a packet to the receiving host and asks the datacenter to process it.
+	 *
+	 * @param ev the event holding the packet
+	 */
+	protected void processhostpacket(SimEvent ev) {
+		NetworkPacket hspkt = (NetworkPacket) ev.getData();
+		hspkt.rtime = CloudSim.clock();
+		NetworkHost hs = getReceiverHost(hspkt);
+		hs.packetrecieved.add(hspkt);
+		sendNow(dc.getId(), CloudSimTags.VM_DATACENTER_EVENT);
+	}
+
+	/**
+	 * Completes the flows that have transmitted all their data and reschedules the next
+	 * completion.
+	 */
+	protected void updateFlows() {
+		advanceFlows();
+		scheduleNextCompletion();
+	}
+
+	/**
+	 * Updates the remaining data of the flows up to the current time, and sends the completed
+	 * flows to their receiving host.
+	 */
+	private void advanceFlows() {
+		double currentTime = CloudSim.clock();
+		double elapsed = currentTime - lastUpdateTime;
+		lastUpdateTime = currentTime;
+		Iterator<Flow> it = flows.iterator();
+		while (it.hasNext()) {
+			Flow flow = it.next();
+			flow.remaining -= flow.rate * elapsed;
+			if (flow.remaining <= 1e-9 * flow.size
+					|| (flow.rate > 0 && flow.remaining / flow.rate < CloudSim.getMinTimeBetweenEvents())) {
+				it.remove();
+				schedule(getId(), flow.latency, CloudSimTags.Network_Event_Host, flow.packet);
+			}
+		}
+	}
+
+	/**
+	 * Computes the rates of the flows and schedules an event for the earliest completion.
+	 */
+	private void scheduleNextCompletion() {
+		generation++;
+		if (flows.isEmpty()) {
+			return;
+		}
+		computeMaxMinRates();
+		double delay = Double.MAX_VALUE;
+		for (Flow flow : flows) {
+			if (flow.rate > 0) {
+				delay = Math.min(delay, flow.remaining / flow.rate);
+			}
+		}
+		if (delay < Double.MAX_VALUE) {
+			schedule(getId(), delay, CloudSimTags.Network_Event_send, Integer.valueOf(generation));
+		}
+	}
+
+	/**
+	 * Computes the max-min fair rates of the flows by progressive filling: the link with the
+	 * smallest fair share is saturated first, its flows get that share, and the other links are
+	 * filled with what is left.
+	 */
+	private void computeMaxMinRates() {
+		int numberOfLinks = linkIndices.size();
+		System.arraycopy(capacities, 0, residuals, 0, numberOfLinks);
+		for (int l = 0; l < numberOfLinks; l++) {
+			counts[l] = 0;
+		}
+		for (Flow flow : flows) {
+			flow.fixed = false;
+			for (int link : flow.links) {
+				counts[link]++;
+			}
+		}
+
+		int unfixed = flows.size();
+		while (unfixed > 0) {
+			int bottleneck = -1;
+			double share = Double.MAX_VALUE;
+			for (int l = 0; l < numberOfLinks; l++) {
+				if (counts[l] > 0 && residuals[l] / counts[l] < share) {
+					share = residuals[l] / counts[l];
+					bottleneck = l;
+				}
+			}
+			share = Math.max(share, 0);
+			for (Flow flow : flows) {
+				if (flow.fixed || !flow.uses(bottleneck)) {
+					continue;
+				}
+				flow.rate = share;
+				flow.fixed = true;
+				unfixed--;
+				for (int link : flow.links) {
+					residuals[link] -= share;
+					counts[link]--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the flow of a packet along the path from the sending host to the receiving host. The
+	 * path goes up through the uplinks chosen for the flow until a switch above the receiving host,
+	 * then down to it.
+	 *
+	 * @param sender the sending host
+	 * @param hspkt the packet
+	 * @return the flow
+	 */
+	private Flow createFlow(NetworkHost sender, NetworkPacket hspkt) {
+		NetworkRoutingTable routes = dc.getRoutingTable();
+		int recvVMid = hspkt.pkt.reciever;
+		int flowHash = NetworkRoutingTable.getFlowHash(hspkt);
+		List<Integer> path = new ArrayList<Integer>();
+		double latency = 0;
+
+		path.add(getLinkIndex(HOST_UP, sender.getId(), 0, sender.bandwidth));
+		Switch sw = sender.sw;
+		while (true) {
+			latency += getSwitchingDelay(sw);
+			int port = routes.getDownlinkPort(sw.getId(), recvVMid);
+			boolean down = port >= 0;
+			if (!down) {
+				port = routes.getUplinkPort(sw.getId(), flowHash);
+				if (port < 0) {
+					throw new IllegalStateException("No route to VM #" + recvVMid);
+				}
+			}
+			routes.addTraffic(sw.getId(), port, hspkt.pkt.data);
+			path.add(getLinkIndex(
+					SWITCH_PORT,
+					sw.getId(),
+					port,
+					down ? sw.downlinkbandwidth : sw.uplinkbandwidth));
+			if (down && sw.level == NetworkConstants.EDGE_LEVEL) {
+				break;
+			}
+			sw = routes.getSwitch(routes.getPortNodeId(sw.getId(), port));
+		}
+
+		int[] links = new int[path.size()];
+		for (int i = 0; i < links.length; i++) {
+			links[i] = path.get(i);
+		}
+		return new Flow(hspkt, links, 1000 * hspkt.pkt.data, latency);
+	}
+
+	/**
+	 * Gets the host of the VM receiving a packet.
+	 *
+	 * @param hspkt the packet
+	 * @return the receiving host
+	 */
+	private NetworkHost getReceiverHost(NetworkPacket hspkt) {
+		return dc.getRoutingTable().getHost(hspkt.pkt.reciever);
+	}
+
+	/**
+	 * Gets the index of a link, adding the link if it is new.
+	 *
+	 * @param kind the kind of the link
+	 * @param id the id of the host or switch the link starts from
+	 * @param port the port of the switch
+	 * @param bandwidth the bandwidth of the link
+	 * @return the index of the link
+	 */
+	private int getLinkIndex(long kind, int id, int port, double bandwidth) {
+		Long key = Long.valueOf((kind << 62) | ((id & 0xFFFFFFFFL) << 24) | port);
+		Integer index = linkIndices.get(key);
+		if (index == null) {
+			index = linkIndices.size();
+			if (index == capacities.length) {
+				int length = 2 * capacities.length;
+				double[] newCapacities = new double[length];
+				System.arraycopy(capacities, 0, newCapacities, 0, index);
+				capacities = newCapacities;
+				residuals = new double[length];
+				counts = new int[length];
+			}
+			capacities[index] = bandwidth;
+			linkIndices.put(key, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the delay a packet spends in a switch.
+	 *
+	 * @param sw the switch
+	 * @return the switching delay
+	 */
+	private static double getSwitchingDelay(Switch sw) {
+		return sw.switching_delay + sw.latency;
+	}
+
+	/**
+	 * A packet being transmitted.
+	 */
+	private static class Flow {
+
+		/** The packet. */
+		final NetworkPacket packet;
+
+		/** The links of the path. */
+		final int[] links;
+
+		/** The data to transmit, in the units of the switches. */
+		final double size;
+
+		/** The switching delay of the path. */
+		final double latency;
+
+		/** The data left to transmit. */
+		double remaining;
+
+		/** The current rate. */
+		double rate;
+
+		/** Whether the rate is set in the current computation. */
+		boolean fixed;
+
+		Flow(NetworkPacket packet, int[] links, double size, double latency) {
+			this.packet = packet;
+			this.links = links;
+			this.size = size;
+			this.latency = latency;
+			remaining = size;
+		}
+
+		boolean uses(int link) {
+			for (int l : links) {
+				if (l == link) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
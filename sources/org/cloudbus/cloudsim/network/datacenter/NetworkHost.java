@@ -9,8 +9,12 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Pe;
@@ -19,7 +23,6 @@ import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.lists.PeList;
-import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -40,8 +43,6 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class NetworkHost extends Host {
 
-	public List<NetworkPacket> packetTosendLocal;
-
 	public List<NetworkPacket> packetTosendGlobal;
 
 	public List<NetworkPacket> packetrecieved;
@@ -57,6 +58,12 @@ public class NetworkHost extends Host {
 
 	public double fintime = 0;
 
+	/** The VMs running on the host, by id. */
+	private final Map<Integer, Vm> vmsById = new HashMap<Integer, Vm>();
+
+	/** The VMs that received packets from VMs of the host, to be updated. */
+	private final Set<Vm> receivingVms = new LinkedHashSet<Vm>();
+
 	public NetworkHost(
 			int id,
 			RamProvisioner ramProvisioner,
@@ -68,8 +75,6 @@ public class NetworkHost extends Host {
 
 		packetrecieved = new ArrayList<NetworkPacket>();
 		packetTosendGlobal = new ArrayList<NetworkPacket>();
-		packetTosendLocal = new ArrayList<NetworkPacket>();
-
 	}
 
 	/**
@@ -113,41 +118,36 @@ public class NetworkHost extends Host {
 			hs.pkt.recievetime = CloudSim.clock();
 
 			// insertthe packet in recievedlist of VM
-			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
-			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
-					.get(hs.pkt.sender);
-
-			if (pktlist == null) {
-				pktlist = new ArrayList<HostPacket>();
-				((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv.put(
-						hs.pkt.sender,
-						pktlist);
-
-			}
-			pktlist.add(hs.pkt);
-
+			Vm vm = getLocalVm(hs.pkt.reciever);
+			((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).receivePacket(hs.pkt);
 		}
 		packetrecieved.clear();
 	}
 
 	/**
 	 * Send packet check whether a packet belongs to a local VM or to a VM hosted on other machine.
+	 * The packets to local VMs are delivered directly, and only the VMs receiving them are updated
+	 * again. The packets to other hosts are sent to the edge switch in a single message.
 	 * 
 	 * 
 	 */
 	private void sendpackets() {
+		NetworkDatacenter dc = (NetworkDatacenter) getDatacenter();
+		NetworkRoutingTable routes = dc.getRoutingTable();
 
 		for (Vm vm : super.getVmList()) {
 			for (Entry<Integer, List<HostPacket>> es : ((NetworkCloudletSpaceSharedScheduler) vm
 					.getCloudletScheduler()).pkttosend.entrySet()) {
 				List<HostPacket> pktlist = es.getValue();
 				for (HostPacket pkt : pktlist) {
-					NetworkPacket hpkt = new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender);
-					Vm vm2 = VmList.getById(this.getVmList(), hpkt.recievervmid);
-					if (vm2 != null) {
-						packetTosendLocal.add(hpkt);
+					if (routes.getHostId(pkt.reciever) == getId()) {
+						// insertthe packet in recievedlist
+						pkt.recievetime = CloudSim.clock();
+						Vm vm2 = getLocalVm(pkt.reciever);
+						((NetworkCloudletSpaceSharedScheduler) vm2.getCloudletScheduler()).receivePacket(pkt);
+						receivingVms.add(vm2);
 					} else {
-						packetTosendGlobal.add(hpkt);
+						packetTosendGlobal.add(new NetworkPacket(getId(), pkt, vm.getId(), pkt.sender));
 					}
 				}
 				pktlist.clear();
@@ -156,45 +156,62 @@ public class NetworkHost extends Host {
 
 		}
 
-		boolean flag = false;
-
-		for (NetworkPacket hs : packetTosendLocal) {
-			flag = true;
-			hs.stime = hs.rtime;
-			hs.pkt.recievetime = CloudSim.clock();
-			// insertthe packet in recievedlist
-			Vm vm = VmList.getById(getVmList(), hs.pkt.reciever);
-
-			List<HostPacket> pktlist = ((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv
-					.get(hs.pkt.sender);
-			if (pktlist == null) {
-				pktlist = new ArrayList<HostPacket>();
-				((NetworkCloudletSpaceSharedScheduler) vm.getCloudletScheduler()).pktrecv.put(
-						hs.pkt.sender,
-						pktlist);
-			}
-			pktlist.add(hs.pkt);
+		for (Vm vm : receivingVms) {
+			vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsForVm(vm));
+		}
+		receivingVms.clear();
 
+		if (packetTosendGlobal.isEmpty()) {
+			return;
 		}
-		if (flag) {
-			for (Vm vm : super.getVmList()) {
-				vm.updateVmProcessing(CloudSim.clock(), getVmScheduler().getAllocatedMipsForVm(vm));
+		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
+		NetworkFlowModel flowModel = dc.getFlowModel();
+		if (flowModel != null) {
+			// or transmitted as a flow
+			for (NetworkPacket hs : packetTosendGlobal) {
+				NetworkConstants.totaldatatransfer += hs.pkt.data;
+				flowModel.startFlow(this, hs);
 			}
+			packetTosendGlobal.clear();
+			return;
 		}
-
-		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
-		packetTosendLocal.clear();
-		double avband = bandwidth / packetTosendGlobal.size();
+		// the packets share the bandwidth of the host, so the last one is sent once all the data
+		// has been transmitted, and they are sent to the switch together at that time
+		double data = 0;
 		for (NetworkPacket hs : packetTosendGlobal) {
-			double delay = (1000 * hs.pkt.data) / avband;
-			NetworkConstants.totaldatatransfer += hs.pkt.data;
-
-			CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, hs);
-			// send to switch with delay
+			data += hs.pkt.data;
+		}
+		NetworkConstants.totaldatatransfer += data;
+		double delay = (1000 * data) / bandwidth;
+		Object batch;
+		if (packetTosendGlobal.size() == 1) {
+			batch = packetTosendGlobal.get(0);
+		} else {
+			batch = new ArrayList<NetworkPacket>(packetTosendGlobal);
 		}
+		CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, batch);
+		// send to switch with delay
 		packetTosendGlobal.clear();
 	}
 
+	/**
+	 * Gets a VM running on the host by its id.
+	 * 
+	 * @param vmId the id of the VM
+	 * @return the VM, or null if it is not running on the host
+	 */
+	private Vm getLocalVm(int vmId) {
+		Vm vm = vmsById.get(vmId);
+		if (vm == null || vm.getHost() != this) {
+			vmsById.clear();
+			for (Vm localVm : getVmList()) {
+				vmsById.put(localVm.getId(), localVm);
+			}
+			vm = vmsById.get(vmId);
+		}
+		return vm;
+	}
+
 	public double getMaxUtilizationAmongVmsPes(Vm vm) {
 		return PeList.getMaxUtilizationAmongVmsPes(getPeList(), vm);
 	}
@@ -0,0 +1,409 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Host;
+
+/**
+ * NetworkRoutingTable holds the routes of the network of a NetworkDatacenter in arrays indexed by
+ * VM, host and switch id, so that a switch finds the next hop of a packet with a few array reads
+ * instead of map lookups and scans of its downlink switches.
+ *
+ * The ports of a switch are numbered with its uplink switches first, then its downlink switches,
+ * or its hosts for an edge switch. For every switch the table holds the port leading down to each
+ * edge switch below it. A packet whose destination is not below a switch goes up through one of its
+ * uplinks, chosen by the hash of the flow of the packet (ECMP), so that the packets of a flow
+ * follow the same path while the flows are spread over the paths. The table also counts the data
+ * sent through every port.
+ *
+ * For every VM the table holds its host and edge switch. The ports are read from the switches and
+ * hosts when the table is built, and the VM entries are updated when a VM is created or migrated. A
+ * missing entry is -1.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkRoutingTable {
+
+	/** The hosts, by id. */
+	private NetworkHost[] hosts = new NetworkHost[0];
+
+	/** The edge switch of each host, by host id. */
+	private int[] hostEdges = new int[0];
+
+	/** The port of its edge switch leading to each host, by host id. */
+	private int[] hostPorts = new int[0];
+
+	/** The switches, by id. */
+	private Switch[] switches = new Switch[0];
+
+	/** The id of the switch or host on each port of each switch, by switch id. */
+	private int[][] ports = new int[0][];
+
+	/** The number of uplink ports of each switch, by switch id. */
+	private int[] uplinkCounts = new int[0];
+
+	/** The index of each edge switch among the edge switches, by switch id. */
+	private int[] edgeIndices = new int[0];
+
+	/** The port of each switch leading down to each edge switch, by switch id and edge index. */
+	private int[][] downlinkPorts = new int[0][];
+
+	/** The data sent through each port of each switch, by switch id. */
+	private double[][] traffic = new double[0][];
+
+	/** The host of each vm, by vm id. */
+	private int[] vmHosts = new int[0];
+
+	/** The edge switch of each vm, by vm id. */
+	private int[] vmEdges = new int[0];
+
+	/**
+	 * Builds the routing table of a network.
+	 *
+	 * @param switchList the switches
+	 * @param hostList the hosts
+	 */
+	public NetworkRoutingTable(Collection<? extends Switch> switchList, List<? extends Host> hostList) {
+		int maxSwitchId = -1;
+		for (Switch sw : switchList) {
+			maxSwitchId = Math.max(maxSwitchId, sw.getId());
+		}
+		switches = new Switch[maxSwitchId + 1];
+		ports = new int[maxSwitchId + 1][];
+		uplinkCounts = new int[maxSwitchId + 1];
+		edgeIndices = newIndex(maxSwitchId + 1);
+		downlinkPorts = new int[maxSwitchId + 1][];
+		traffic = new double[maxSwitchId + 1][];
+		int numberOfEdges = 0;
+		for (Switch sw : switchList) {
+			switches[sw.getId()] = sw;
+			if (sw.level == NetworkConstants.EDGE_LEVEL) {
+				edgeIndices[sw.getId()] = numberOfEdges++;
+			}
+		}
+
+		int maxHostId = -1;
+		for (Host host : hostList) {
+			maxHostId = Math.max(maxHostId, host.getId());
+		}
+		hosts = new NetworkHost[maxHostId + 1];
+		hostEdges = newIndex(maxHostId + 1);
+		hostPorts = newIndex(maxHostId + 1);
+		for (Host host : hostList) {
+			NetworkHost hs = (NetworkHost) host;
+			hosts[hs.getId()] = hs;
+		}
+
+		for (Switch sw : switchList) {
+			int uplinks = sw.uplinkswitches == null ? 0 : sw.uplinkswitches.size();
+			int[] switchPorts;
+			if (sw.level == NetworkConstants.EDGE_LEVEL) {
+				List<Integer> hostIds = new ArrayList<Integer>(sw.hostlist.keySet());
+				Collections.sort(hostIds);
+				switchPorts = new int[uplinks + hostIds.size()];
+				for (int p = 0; p < hostIds.size(); p++) {
+					int hostId = hostIds.get(p);
+					switchPorts[uplinks + p] = hostId;
+					hostEdges[hostId] = sw.getId();
+					hostPorts[hostId] = uplinks + p;
+				}
+			} else {
+				int downlinks = sw.downlinkswitches == null ? 0 : sw.downlinkswitches.size();
+				switchPorts = new int[uplinks + downlinks];
+				for (int p = 0; p < downlinks; p++) {
+					switchPorts[uplinks + p] = sw.downlinkswitches.get(p).getId();
+				}
+			}
+			for (int p = 0; p < uplinks; p++) {
+				switchPorts[p] = sw.uplinkswitches.get(p).getId();
+			}
+			ports[sw.getId()] = switchPorts;
+			uplinkCounts[sw.getId()] = uplinks;
+			traffic[sw.getId()] = new double[switchPorts.length];
+		}
+
+		// the ports leading down to the edge switches, from the aggregate level up
+		List<Switch> upperSwitches = new ArrayList<Switch>();
+		for (Switch sw : switchList) {
+			if (sw.level != NetworkConstants.EDGE_LEVEL) {
+				upperSwitches.add(sw);
+			}
+		}
+		Collections.sort(upperSwitches, new Comparator<Switch>() {
+
+			@Override
+			public int compare(Switch a, Switch b) {
+				return b.level - a.level;
+			}
+		});
+		for (Switch sw : upperSwitches) {
+			int[] down = newIndex(numberOfEdges);
+			int[] switchPorts = ports[sw.getId()];
+			for (int p = uplinkCounts[sw.getId()]; p < switchPorts.length; p++) {
+				int child = switchPorts[p];
+				if (edgeIndices[child] >= 0) {
+					if (down[edgeIndices[child]] < 0) {
+						down[edgeIndices[child]] = p;
+					}
+				} else if (downlinkPorts[child] != null) {
+					int[] childDown = downlinkPorts[child];
+					for (int e = 0; e < numberOfEdges; e++) {
+						if (childDown[e] >= 0 && down[e] < 0) {
+							down[e] = p;
+						}
+					}
+				}
+			}
+			downlinkPorts[sw.getId()] = down;
+		}
+	}
+
+	/**
+	 * Sets the host of a VM, when it is created or migrated.
+	 *
+	 * @param vmId the vm id
+	 * @param hostId the host id
+	 */
+	public void setVm(int vmId, int hostId) {
+		if (vmId >= vmHosts.length) {
+			int length = Math.max(vmId + 1, 2 * vmHosts.length);
+			vmHosts = grow(vmHosts, length);
+			vmEdges = grow(vmEdges, length);
+		}
+		vmHosts[vmId] = hostId;
+		vmEdges[vmId] = getHostEdgeSwitchId(hostId);
+	}
+
+	/**
+	 * Removes a VM.
+	 *
+	 * @param vmId the vm id
+	 */
+	public void removeVm(int vmId) {
+		if (vmId >= 0 && vmId < vmHosts.length) {
+			vmHosts[vmId] = -1;
+			vmEdges[vmId] = -1;
+		}
+	}
+
+	/**
+	 * Gets the id of the host of a VM.
+	 *
+	 * @param vmId the vm id
+	 * @return the host id, or -1
+	 */
+	public int getHostId(int vmId) {
+		return vmId >= 0 && vmId < vmHosts.length ? vmHosts[vmId] : -1;
+	}
+
+	/**
+	 * Gets the host of a VM.
+	 *
+	 * @param vmId the vm id
+	 * @return the host, or null
+	 */
+	public NetworkHost getHost(int vmId) {
+		return getHostById(getHostId(vmId));
+	}
+
+	/**
+	 * Gets a host by id.
+	 *
+	 * @param hostId the host id
+	 * @return the host, or null
+	 */
+	public NetworkHost getHostById(int hostId) {
+		return hostId >= 0 && hostId < hosts.length ? hosts[hostId] : null;
+	}
+
+	/**
+	 * Gets the id of the edge switch of a VM.
+	 *
+	 * @param vmId the vm id
+	 * @return the switch id, or -1
+	 */
+	public int getEdgeSwitchId(int vmId) {
+		return vmId >= 0 && vmId < vmEdges.length ? vmEdges[vmId] : -1;
+	}
+
+	/**
+	 * Gets the id of the edge switch of a host.
+	 *
+	 * @param hostId the host id
+	 * @return the switch id, or -1
+	 */
+	public int getHostEdgeSwitchId(int hostId) {
+		return hostId >= 0 && hostId < hostEdges.length ? hostEdges[hostId] : -1;
+	}
+
+	/**
+	 * Gets the port of a switch leading down to a VM.
+	 *
+	 * @param switchId the switch id
+	 * @param vmId the vm id
+	 * @return the port, or -1 if the vm is not below the switch
+	 */
+	public int getDownlinkPort(int switchId, int vmId) {
+		int edge = getEdgeSwitchId(vmId);
+		if (edge < 0) {
+			return -1;
+		}
+		if (edgeIndices[switchId] >= 0) {
+			return edge == switchId ? hostPorts[vmHosts[vmId]] : -1;
+		}
+		int[] down = downlinkPorts[switchId];
+		return down == null ? -1 : down[edgeIndices[edge]];
+	}
+
+	/**
+	 * Gets the uplink port of a switch chosen for a flow. The switch id is mixed into the hash, so
+	 * that the switches of a path choose their uplinks independently, and the flows spread over all
+	 * the paths instead of polarizing on the uplinks of the same index at every tier.
+	 *
+	 * @param switchId the switch id
+	 * @param flowHash the hash of the flow
+	 * @return the port, or -1 if the switch has no uplink
+	 */
+	public int getUplinkPort(int switchId, int flowHash) {
+		int uplinks = uplinkCounts[switchId];
+		if (uplinks == 0) {
+			return -1;
+		}
+		return (mix(flowHash ^ switchId * 0x9e3779b9) & 0x7fffffff) % uplinks;
+	}
+
+	/**
+	 * Checks whether a port of a switch is an uplink port.
+	 *
+	 * @param switchId the switch id
+	 * @param port the port
+	 * @return true if the port is an uplink port
+	 */
+	public boolean isUplinkPort(int switchId, int port) {
+		return port < uplinkCounts[switchId];
+	}
+
+	/**
+	 * Gets the id of the switch, or of the host for the host ports of an edge switch, on a port of
+	 * a switch.
+	 *
+	 * @param switchId the switch id
+	 * @param port the port
+	 * @return the id of the switch or host
+	 */
+	public int getPortNodeId(int switchId, int port) {
+		return ports[switchId][port];
+	}
+
+	/**
+	 * Gets the number of ports of a switch.
+	 *
+	 * @param switchId the switch id
+	 * @return the number of ports
+	 */
+	public int getNumberOfPorts(int switchId) {
+		return ports[switchId] == null ? 0 : ports[switchId].length;
+	}
+
+	/**
+	 * Adds data sent through a port of a switch.
+	 *
+	 * @param switchId the switch id
+	 * @param port the port
+	 * @param data the data
+	 */
+	public void addTraffic(int switchId, int port, double data) {
+		traffic[switchId][port] += data;
+	}
+
+	/**
+	 * Gets the data sent through a port of a switch.
+	 *
+	 * @param switchId the switch id
+	 * @param port the port
+	 * @return the data
+	 */
+	public double getTraffic(int switchId, int port) {
+		return traffic[switchId][port];
+	}
+
+	/**
+	 * Gets a switch by id.
+	 *
+	 * @param switchId the switch id
+	 * @return the switch, or null
+	 */
+	public Switch getSwitch(int switchId) {
+		return switchId >= 0 && switchId < switches.length ? switches[switchId] : null;
+	}
+
+	/**
+	 * Gets the hash of the flow of a packet, which is the same for all the packets exchanged by two
+	 * cloudlets in the same direction.
+	 *
+	 * @param hspkt the packet
+	 * @return the hash
+	 */
+	public static int getFlowHash(NetworkPacket hspkt) {
+		int hash = hspkt.pkt.sender;
+		hash = hash * 31 + hspkt.pkt.reciever;
+		hash = hash * 31 + hspkt.pkt.virtualsendid;
+		hash = hash * 31 + hspkt.pkt.virtualrecvid;
+		// mixes the bits, so that consecutive ids do not take consecutive ports
+		return mix(hash);
+	}
+
+	/**
+	 * Mixes the bits of a value, as the finalizer of MurmurHash3.
+	 *
+	 * @param hash the value
+	 * @return the mixed value
+	 */
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	/**
+	 * Creates an index with no entry.
+	 *
+	 * @param length the length
+	 * @return the index
+	 */
+	private static int[] newIndex(int length) {
+		int[] index = new int[length];
+		Arrays.fill(index, -1);
+		return index;
+	}
+
+	/**
+	 * Grows an index, the new entries being missing.
+	 *
+	 * @param index the index
+	 * @param length the new length
+	 * @return the new index
+	 */
+	private static int[] grow(int[] index, int length) {
+		int[] newIndex = newIndex(length);
+		System.arraycopy(index, 0, newIndex, 0, index.length);
+		return newIndex;
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Host;
+
+/**
+ * NetworkTopologyBuilder creates the switches of a NetworkDatacenter and connects its hosts to
+ * them, as a k-ary fat tree or as a leaf-spine fabric. Every edge (leaf) switch has several
+ * uplinks, and the switches spread the flows over them by hash (ECMP) using the routing table of
+ * the datacenter.
+ *
+ * The hosts are connected with {@link NetworkConstants#BandWidthEdgeHost}. The oversubscription is
+ * the ratio of the bandwidth of the hosts of an edge switch to the bandwidth of its uplinks, and
+ * the upper levels are not oversubscribed.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkTopologyBuilder {
+
+	/**
+	 * Builds a k-ary fat tree: k pods of k/2 edge and k/2 aggregate switches, and (k/2)^2 root
+	 * switches. Every edge switch is connected to the aggregate switches of its pod, and the i-th
+	 * aggregate switch of every pod to the i-th group of k/2 root switches. Up to k^3/4 hosts are
+	 * connected, k/2 per edge switch in the order of the host list.
+	 *
+	 * @param dc the datacenter
+	 * @param k the number of ports of the switches, an even number
+	 * @param oversubscription the oversubscription of the edge switches
+	 * @return the switches
+	 * @throws IllegalArgumentException if k is not even and positive, the oversubscription is not
+	 *         positive or there are more than k^3/4 hosts
+	 */
+	public static List<Switch> buildFatTree(NetworkDatacenter dc, int k, double oversubscription)
+			throws IllegalArgumentException {
+		if (k <= 0 || k % 2 != 0 || oversubscription <= 0) {
+			throw new IllegalArgumentException("Invalid fat tree parameters");
+		}
+		int half = k / 2;
+		List<? extends Host> hostList = dc.getHostList();
+		if (hostList.size() > k * half * half) {
+			throw new IllegalArgumentException("A " + k + "-ary fat tree connects at most " + k * half * half
+					+ " hosts");
+		}
+		double hostBandwidth = NetworkConstants.BandWidthEdgeHost;
+		double uplinkBandwidth = hostBandwidth / oversubscription;
+		List<Switch> switches = new ArrayList<Switch>();
+
+		RootSwitch[] roots = new RootSwitch[half * half];
+		for (int i = 0; i < roots.length; i++) {
+			roots[i] = new RootSwitch("Root" + i, NetworkConstants.ROOT_LEVEL, dc);
+			roots[i].downlinkbandwidth = uplinkBandwidth;
+			roots[i].numport = k;
+			switches.add(roots[i]);
+		}
+
+		EdgeSwitch[] edges = new EdgeSwitch[k * half];
+		for (int pod = 0; pod < k; pod++) {
+			AggregateSwitch[] aggs = new AggregateSwitch[half];
+			for (int a = 0; a < half; a++) {
+				aggs[a] = new AggregateSwitch("Agg" + pod + "_" + a, NetworkConstants.Agg_LEVEL, dc);
+				aggs[a].uplinkbandwidth = uplinkBandwidth;
+				aggs[a].downlinkbandwidth = uplinkBandwidth;
+				aggs[a].numport = k;
+				for (int r = a * half; r < (a + 1) * half; r++) {
+					connect(aggs[a], roots[r]);
+				}
+				switches.add(aggs[a]);
+			}
+			for (int e = 0; e < half; e++) {
+				EdgeSwitch edge = createEdgeSwitch(
+						"Edge" + pod + "_" + e,
+						dc,
+						hostBandwidth,
+						uplinkBandwidth,
+						k);
+				for (AggregateSwitch agg : aggs) {
+					connect(edge, agg);
+				}
+				edges[pod * half + e] = edge;
+				switches.add(edge);
+			}
+		}
+
+		register(dc, switches, edges, half, hostBandwidth);
+		return switches;
+	}
+
+	/**
+	 * Builds a leaf-spine fabric: every leaf (edge) switch is connected to every spine switch, which
+	 * are aggregate switches without uplinks. The hosts are spread evenly over the leaves in the
+	 * order of the host list.
+	 *
+	 * @param dc the datacenter
+	 * @param numberOfLeaves the number of leaf switches
+	 * @param numberOfSpines the number of spine switches
+	 * @param oversubscription the oversubscription of the leaf switches
+	 * @return the switches
+	 * @throws IllegalArgumentException if a parameter is not positive
+	 */
+	public static List<Switch> buildLeafSpine(
+			NetworkDatacenter dc,
+			int numberOfLeaves,
+			int numberOfSpines,
+			double oversubscription) throws IllegalArgumentException {
+		if (numberOfLeaves <= 0 || numberOfSpines <= 0 || oversubscription <= 0) {
+			throw new IllegalArgumentException("Invalid leaf-spine parameters");
+		}
+		int hostsPerLeaf = (dc.getHostList().size() + numberOfLeaves - 1) / numberOfLeaves;
+		double hostBandwidth = NetworkConstants.BandWidthEdgeHost;
+		double uplinkBandwidth = hostBandwidth * Math.max(hostsPerLeaf, 1)
+				/ (numberOfSpines * oversubscription);
+		List<Switch> switches = new ArrayList<Switch>();
+
+		AggregateSwitch[] spines = new AggregateSwitch[numberOfSpines];
+		for (int s = 0; s < numberOfSpines; s++) {
+			spines[s] = new AggregateSwitch("Spine" + s, NetworkConstants.Agg_LEVEL, dc);
+			spines[s].downlinkbandwidth = uplinkBandwidth;
+			spines[s].numport = numberOfLeaves;
+			switches.add(spines[s]);
+		}
+		EdgeSwitch[] leaves = new EdgeSwitch[numberOfLeaves];
+		for (int l = 0; l < numberOfLeaves; l++) {
+			leaves[l] = createEdgeSwitch(
+					"Leaf" + l,
+					dc,
+					hostBandwidth,
+					uplinkBandwidth,
+					hostsPerLeaf + numberOfSpines);
+			for (AggregateSwitch spine : spines) {
+				connect(leaves[l], spine);
+			}
+			switches.add(leaves[l]);
+		}
+
+		register(dc, switches, leaves, hostsPerLeaf, hostBandwidth);
+		return switches;
+	}
+
+	/**
+	 * Creates an edge switch.
+	 *
+	 * @param name the name
+	 * @param dc the datacenter
+	 * @param hostBandwidth the bandwidth of the host ports
+	 * @param uplinkBandwidth the bandwidth of the uplink ports
+	 * @param numport the number of ports
+	 * @return the edge switch
+	 */
+	private static EdgeSwitch createEdgeSwitch(
+			String name,
+			NetworkDatacenter dc,
+			double hostBandwidth,
+			double uplinkBandwidth,
+			int numport) {
+		EdgeSwitch edge = new EdgeSwitch(name, NetworkConstants.EDGE_LEVEL, dc);
+		edge.downlinkbandwidth = hostBandwidth;
+		edge.uplinkbandwidth = uplinkBandwidth;
+		edge.numport = numport;
+		return edge;
+	}
+
+	/**
+	 * Connects a switch to an uplink switch.
+	 *
+	 * @param sw the switch
+	 * @param uplink the uplink switch
+	 */
+	private static void connect(Switch sw, Switch uplink) {
+		sw.uplinkswitches.add(uplink);
+		uplink.downlinkswitches.add(sw);
+	}
+
+	/**
+	 * Registers the switches in the datacenter and connects the hosts to the edge switches.
+	 *
+	 * @param dc the datacenter
+	 * @param switches the switches
+	 * @param edges the edge switches
+	 * @param hostsPerEdge the number of hosts per edge switch
+	 * @param hostBandwidth the bandwidth of the hosts
+	 */
+	private static void register(
+			NetworkDatacenter dc,
+			List<Switch> switches,
+			EdgeSwitch[] edges,
+			int hostsPerEdge,
+			double hostBandwidth) {
+		for (Switch sw : switches) {
+			dc.registerSwitch(sw);
+		}
+		int i = 0;
+		for (Host host : dc.getHostList()) {
+			NetworkHost hs = (NetworkHost) host;
+			hs.bandwidth = hostBandwidth;
+			dc.registerHost(hs, edges[i / hostsPerEdge]);
+			i++;
+		}
+	}
+
+}
@@ -12,11 +12,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.core.CloudSimTags;
-import org.cloudbus.cloudsim.core.SimEvent;
-import org.cloudbus.cloudsim.core.predicates.PredicateType;
-
 /**
  * This class allows to simulate Root switch which connects Datacenter to external network. It
  * interacts with other switches in order to exchange packets.
@@ -50,48 +45,4 @@ public class RootSwitch extends Switch {
 		numport = NetworkConstants.RootSwitchPort;
 	}
 
-	/**
-	 * Send Packet to switch connected through a downlink port
-	 * 
-	 * @param ev Event/packet to process
-	 */
-	@Override
-	protected void processpacket_up(SimEvent ev) {
-
-		// packet coming from down level router.
-		// has to send up
-		// check which switch to forward to
-		// add packet in the switch list
-
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
-
-		if (level == NetworkConstants.ROOT_LEVEL) {
-			// get id of edge router
-			int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch has it
-			int aggSwtichid = -1;
-			;
-			for (Switch sw : downlinkswitches) {
-				for (Switch edge : sw.downlinkswitches) {
-					if (edge.getId() == edgeswitchid) {
-						aggSwtichid = sw.getId();
-						break;
-					}
-				}
-			}
-			if (aggSwtichid < 0) {
-				System.out.println(" No destination for this packet");
-			} else {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(aggSwtichid, pktlist);
-				}
-				pktlist.add(hspkt);
-			}
-		}
-	}
 }
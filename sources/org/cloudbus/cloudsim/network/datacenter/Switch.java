@@ -72,6 +72,12 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	/** Whether a forwarding event is pending. */
+	private boolean forwardPending;
+
+	/** The time of the pending forwarding event. */
+	private double nextForwardTime;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
@@ -98,7 +104,9 @@ public class Switch extends SimEntity {
 				processpacket_down(ev);
 				break;
 			case CloudSimTags.Network_Event_send:
-				processpacketforward(ev);
+				if (isForwardDue(ev)) {
+					processpacketforward(ev);
+				}
 				break;
 
 			case CloudSimTags.Network_Event_Host:
@@ -125,137 +133,114 @@ public class Switch extends SimEntity {
 	protected void processpacket_down(SimEvent ev) {
 		// packet coming from up level router.
 		// has to send downward
-		// check which switch to forward to
-		// add packet in the switch list
-		// add packet in the host list
-		// int src=ev.getSource();
+		// check which switch or host to forward to
+		// add packet in the switch list or in the host list
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), latency, CloudSimTags.Network_Event_send);
-		if (level == NetworkConstants.EDGE_LEVEL) {
-			// packet is to be recieved by host
-			int hostid = dc.VmtoHostlist.get(recvVMid);
-			hspkt.recieverhostid = hostid;
-			List<NetworkPacket> pktlist = packetTohost.get(hostid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				packetTohost.put(hostid, pktlist);
-			}
-			pktlist.add(hspkt);
+		scheduleForward(latency);
+		NetworkRoutingTable routes = dc.getRoutingTable();
+		int port = routes.getDownlinkPort(getId(), hspkt.pkt.reciever);
+		if (port < 0) {
+			System.out.println(" No destination for this packet");
 			return;
 		}
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from root so need to be sent to edgelevel swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				downlinkswitchpktlist.put(switchid, pktlist);
+		queuePacket(routes, port, hspkt);
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void processpacket_up(SimEvent ev) {
+		// packet coming from down level router or host.
+		// has to send down if the receiver is below this switch,
+		// otherwise up through the uplink chosen for the flow
+		// a host sends the packets of an update together
+		scheduleForward(switching_delay);
+		NetworkRoutingTable routes = dc.getRoutingTable();
+		if (ev.getData() instanceof List) {
+			for (NetworkPacket hspkt : (List<NetworkPacket>) ev.getData()) {
+				routeUp(routes, hspkt);
 			}
-			pktlist.add(hspkt);
-			return;
+		} else {
+			routeUp(routes, (NetworkPacket) ev.getData());
 		}
+	}
 
+	/**
+	 * Queues a packet coming from below on the port leading to its receiver.
+	 * 
+	 * @param routes the routing table
+	 * @param hspkt the packet
+	 */
+	private void routeUp(NetworkRoutingTable routes, NetworkPacket hspkt) {
+		int port = routes.getDownlinkPort(getId(), hspkt.pkt.reciever);
+		if (port < 0) {
+			port = routes.getUplinkPort(getId(), NetworkRoutingTable.getFlowHash(hspkt));
+		}
+		if (port < 0) {
+			System.out.println(" No destination for this packet");
+			return;
+		}
+		queuePacket(routes, port, hspkt);
 	}
 
-	protected void processpacket_up(SimEvent ev) {
-		// packet coming from down level router.
-		// has to send up
-		// check which switch to forward to
-		// add packet in the switch list
-		//
-		// int src=ev.getSource();
-		NetworkPacket hspkt = (NetworkPacket) ev.getData();
-		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
-		if (level == NetworkConstants.EDGE_LEVEL) {
-			// packet is recieved from host
-			// packet is to be sent to aggregate level or to another host in the
-			// same level
-
-			int hostid = dc.VmtoHostlist.get(recvVMid);
-			NetworkHost hs = hostlist.get(hostid);
-			hspkt.recieverhostid = hostid;
-			if (hs != null) {
-				// packet to be sent to host connected to the switch
-				List<NetworkPacket> pktlist = packetTohost.get(hostid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					packetTohost.put(hostid, pktlist);
-				}
-				pktlist.add(hspkt);
-				return;
+	/**
+	 * Adds a packet to the list of the switch or host on a port, and counts its data on the port.
+	 * 
+	 * @param routes the routing table
+	 * @param port the port
+	 * @param hspkt the packet
+	 */
+	protected void queuePacket(NetworkRoutingTable routes, int port, NetworkPacket hspkt) {
+		int tosend = routes.getPortNodeId(getId(), port);
+		Map<Integer, List<NetworkPacket>> queues;
+		if (routes.isUplinkPort(getId(), port)) {
+			queues = uplinkswitchpktlist;
+		} else if (level == NetworkConstants.EDGE_LEVEL) {
+			hspkt.recieverhostid = tosend;
+			queues = packetTohost;
+		} else {
+			queues = downlinkswitchpktlist;
+		}
+		List<NetworkPacket> pktlist = queues.get(tosend);
+		if (pktlist == null) {
+			pktlist = new ArrayList<NetworkPacket>();
+			queues.put(tosend, pktlist);
+		}
+		pktlist.add(hspkt);
+		routes.addTraffic(getId(), port, hspkt.pkt.data);
+	}
 
-			}
-			// packet is to be sent to upper switch
-			// ASSUMPTION EACH EDGE is Connected to one aggregate level switch
-
-			Switch sw = uplinkswitches.get(0);
-			List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-			if (pktlist == null) {
-				pktlist = new ArrayList<NetworkPacket>();
-				uplinkswitchpktlist.put(sw.getId(), pktlist);
-			}
-			pktlist.add(hspkt);
-			return;
+	/**
+	 * Schedules the forwarding of the queued packets after a delay. The packets received while a
+	 * forwarding is pending are forwarded with it, so the switch posts one forwarding event per
+	 * switching window instead of rescheduling it for every packet. A forwarding is only scheduled
+	 * again if the delay ends before the pending one.
+	 * 
+	 * @param delay the switching delay
+	 */
+	protected void scheduleForward(double delay) {
+		double time = CloudSim.clock() + delay;
+		if (!forwardPending || time < nextForwardTime) {
+			forwardPending = true;
+			nextForwardTime = time;
+			schedule(getId(), delay, CloudSimTags.Network_Event_send, Double.valueOf(time));
 		}
-		if (level == NetworkConstants.Agg_LEVEL) {
-			// packet is coming from edge level router so need to be sent to
-			// either root or another edge level swich
-			// find the id for edgelevel switch
-			int switchid = dc.VmToSwitchid.get(recvVMid);
-			boolean flagtoswtich = false;
-			for (Switch sw : downlinkswitches) {
-				if (switchid == sw.getId()) {
-					flagtoswtich = true;
-				}
-			}
-			if (flagtoswtich) {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(switchid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(switchid, pktlist);
-				}
-				pktlist.add(hspkt);
-			} else// send to up
-			{
-				Switch sw = uplinkswitches.get(0);
-				List<NetworkPacket> pktlist = uplinkswitchpktlist.get(sw.getId());
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					uplinkswitchpktlist.put(sw.getId(), pktlist);
-				}
-				pktlist.add(hspkt);
-			}
+	}
+
+	/**
+	 * Checks whether a forwarding event is the pending one, as an earlier forwarding replaces a
+	 * later one.
+	 * 
+	 * @param ev the forwarding event
+	 * @return true if the queued packets must be forwarded
+	 */
+	private boolean isForwardDue(SimEvent ev) {
+		if (!(ev.getData() instanceof Double)) {
+			return true;
 		}
-		if (level == NetworkConstants.ROOT_LEVEL) {
-			// get id of edge router
-			int edgeswitchid = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch has it
-			int aggSwtichid = -1;
-			;
-			for (Switch sw : downlinkswitches) {
-				for (Switch edge : sw.downlinkswitches) {
-					if (edge.getId() == edgeswitchid) {
-						aggSwtichid = sw.getId();
-						break;
-					}
-				}
-			}
-			if (aggSwtichid < 0) {
-				System.out.println(" No destination for this packet");
-			} else {
-				List<NetworkPacket> pktlist = downlinkswitchpktlist.get(aggSwtichid);
-				if (pktlist == null) {
-					pktlist = new ArrayList<NetworkPacket>();
-					downlinkswitchpktlist.put(aggSwtichid, pktlist);
-				}
-				pktlist.add(hspkt);
-			}
+		if (!forwardPending || ((Double) ev.getData()).doubleValue() != nextForwardTime) {
+			return false;
 		}
+		forwardPending = false;
+		return true;
 	}
 
 	private void registerHost(SimEvent ev) {
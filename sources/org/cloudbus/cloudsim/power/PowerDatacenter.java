@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +24,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 import org.cloudbus.cloudsim.examples.power.bandwidth.BwHelper;
 import org.cloudbus.cloudsim.network.datacenter.NetDatacenterBroker;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelTable;
 
 /**
  * PowerDatacenter is a class that enables simulation of power-aware data centers.
@@ -52,6 +55,21 @@ public class PowerDatacenter extends Datacenter {
 	/** The migration count. */
 	private int migrationCount;
 
+	/** The power model table of the hosts. */
+	private PowerModelTable powerModelTable;
+
+	/** The previous utilization of each host. */
+	private double[] previousUtilizations;
+
+	/** The utilization of each host. */
+	private double[] utilizations;
+
+	/** The energy consumed by each host in the last time frame. */
+	private double[] hostEnergies;
+
+	/** The planner of the migrations. */
+	private PowerMigrationPlanner migrationPlanner = new PowerMigrationPlanner();
+
 	/**
 	 * Instantiates a new datacenter.
 	 * 
@@ -105,32 +123,14 @@ public class PowerDatacenter extends Datacenter {
 						getVmList());
 
 				if (migrationMap != null) {
+					double[] delays = getMigrationPlanner().getMigrationDelays(migrationMap);
+					List<String> migrationLog = new ArrayList<String>();
+					double transmissionEnergy = 0;
+					int i = 0;
 					for (Map<String, Object> migrate : migrationMap) {
 						Vm vm = (Vm) migrate.get("vm");
 						PowerHost targetHost = (PowerHost) migrate.get("host");
 						PowerHost oldHost = (PowerHost) vm.getHost();
-						if (oldHost != null)
-						{
-							if (oldHost.getId() != targetHost.getId())
-							{
-								System.out.println("not equal!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!");
-								System.out.println("oldhost: " + oldHost.getId() + ", newhost: " + targetHost.getId());
-								try
-								{
-									BwHelper.outputMigrationFile
-											.write("oldhost: "
-													+ oldHost.getId()
-													+ ", newhost: "
-													+ targetHost.getId());
-									BwHelper.outputMigrationFile.newLine();
-								}
-								catch (Exception e) 
-								{
-									e.printStackTrace();
-									Log.printLine("Unwanted errors happen");
-								}
-							}
-						}
 
 						if (oldHost == null) {
 							Log.formatLine(
@@ -145,28 +145,24 @@ public class PowerDatacenter extends Datacenter {
 									vm.getId(),
 									oldHost.getId(),
 									targetHost.getId());
+							if (BwHelper.writeFile && oldHost.getId() != targetHost.getId()) {
+								migrationLog.add("oldhost: " + oldHost.getId() + ", newhost: "
+										+ targetHost.getId());
+							}
 						}
 
 						targetHost.addMigratingInVm(vm);
 						incrementMigrationCount();
 
-						/** VM migration delay = RAM / bandwidth **/
-						// we use BW / 2 to model BW available for migration purposes, the other
-						// half of BW is for VM communication
-						// around 16 seconds for 1024 MB using 1 Gbit/s network
-						send(
-								getId(),
-								vm.getRam() / ((double) targetHost.getBw() / (2 * 8000)),
-								CloudSimTags.VM_MIGRATE,
-								migrate);
-						if(BwHelper.transmission)
-						{
-							double transmissionPower = BwHelper.getTransmissionPower(oldHost, targetHost, vm);
-							BwHelper.totalTransmisionEnergy += transmissionPower;
-							setPower(getPower() + transmissionPower);
-							
+						/** VM migration delay = RAM / bandwidth shared with the concurrent migrations **/
+						send(getId(), delays[i++], CloudSimTags.VM_MIGRATE, migrate);
+						if (BwHelper.transmission) {
+							transmissionEnergy += BwHelper.getTransmissionPower(oldHost, targetHost, vm);
 						}
 					}
+					BwHelper.totalTransmisionEnergy += transmissionEnergy;
+					setPower(getPower() + transmissionEnergy);
+					BwHelper.writeMigrationLog(migrationLog);
 				}
 			}
 
@@ -227,13 +223,22 @@ public class PowerDatacenter extends Datacenter {
 					getLastProcessTime(),
 					currentTime);
 
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
-				double utilizationOfCpu = host.getUtilizationOfCpu();
-				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
-						previousUtilizationOfCpu,
-						utilizationOfCpu,
-						timeDiff);
+			List<PowerHost> hostList = this.<PowerHost> getHostList();
+			PowerModelTable table = getPowerModelTable();
+			for (int i = 0; i < hostList.size(); i++) {
+				previousUtilizations[i] = hostList.get(i).getPreviousUtilizationOfCpu();
+				utilizations[i] = hostList.get(i).getUtilizationOfCpu();
+			}
+			try {
+				table.getEnergyLinearInterpolation(previousUtilizations, utilizations, timeDiff, hostEnergies);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(0);
+			}
+
+			for (int i = 0; i < hostList.size(); i++) {
+				PowerHost host = hostList.get(i);
+				double timeFrameHostEnergy = hostEnergies[i];
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
 				Log.printLine();
@@ -242,8 +247,8 @@ public class PowerDatacenter extends Datacenter {
 						currentTime,
 						host.getId(),
 						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+						previousUtilizations[i] * 100,
+						utilizations[i] * 100);
 				Log.formatLine(
 						"%.2f: [Host #%d] energy is %.2f W*sec",
 						currentTime,
@@ -301,6 +306,45 @@ public class PowerDatacenter extends Datacenter {
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/**
+	 * Gets the migration planner.
+	 * 
+	 * @return the migration planner
+	 */
+	public PowerMigrationPlanner getMigrationPlanner() {
+		return migrationPlanner;
+	}
+
+	/**
+	 * Sets the migration planner.
+	 * 
+	 * @param migrationPlanner the new migration planner
+	 */
+	public void setMigrationPlanner(PowerMigrationPlanner migrationPlanner) {
+		this.migrationPlanner = migrationPlanner;
+	}
+
+	/**
+	 * Gets the power model table of the hosts. The table is built on the first call, or again if the
+	 * number of hosts has changed.
+	 * 
+	 * @return the power model table
+	 */
+	public PowerModelTable getPowerModelTable() {
+		List<PowerHost> hostList = this.<PowerHost> getHostList();
+		if (powerModelTable == null || powerModelTable.size() != hostList.size()) {
+			List<PowerModel> powerModels = new ArrayList<PowerModel>(hostList.size());
+			for (PowerHost host : hostList) {
+				powerModels.add(host.getPowerModel());
+			}
+			powerModelTable = new PowerModelTable(powerModels);
+			previousUtilizations = new double[hostList.size()];
+			utilizations = new double[hostList.size()];
+			hostEnergies = new double[hostList.size()];
+		}
+		return powerModelTable;
+	}
+
 	/**
 	 * Gets the power.
 	 * 
@@ -0,0 +1,264 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Plans the migrations started at the same time by a data center. Every migration copies the RAM
+ * of its VM through the network interface of the source host and of the target host, and the
+ * migrations sharing an interface share its bandwidth with max-min fairness. The bandwidth of the
+ * interfaces is recomputed every time a migration completes, which gives the delay of every
+ * migration.
+ *
+ * A fraction of the bandwidth of a host is available for migrations, half by default, the other
+ * part being used for the communication of the VMs. A single migration therefore takes RAM /
+ * (min(source BW, target BW) / 2). The delay of a migration used to be computed from the bandwidth
+ * of the target host only, so the delays differ from the former ones when the source host has less
+ * bandwidth than the target host.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerMigrationPlanner {
+
+	/** The default fraction of the bandwidth of a host available for migrations. */
+	public static final double DEFAULT_BW_FRACTION = 0.5;
+
+	/** The number of bandwidth units per MB of RAM. */
+	private static final double BW_PER_MB = 8000;
+
+	/** The fraction of the bandwidth of a host available for migrations. */
+	private double bwFraction;
+
+	/**
+	 * Instantiates a new migration planner with the default bandwidth fraction.
+	 */
+	public PowerMigrationPlanner() {
+		this(DEFAULT_BW_FRACTION);
+	}
+
+	/**
+	 * Instantiates a new migration planner.
+	 *
+	 * @param bwFraction the fraction of the bandwidth of a host available for migrations
+	 * @throws IllegalArgumentException if the fraction is not in (0, 1]
+	 */
+	public PowerMigrationPlanner(double bwFraction) throws IllegalArgumentException {
+		setBwFraction(bwFraction);
+	}
+
+	/**
+	 * Gets the delays of migrations started at the same time.
+	 *
+	 * @param migrationMap the migration map, where the "vm" of each entry is migrated from its
+	 *            current host to the "host" of the entry
+	 * @return the delay of each migration, in the order of the migration map
+	 */
+	public double[] getMigrationDelays(List<Map<String, Object>> migrationMap) {
+		int numberOfMigrations = migrationMap.size();
+		double[] delays = new double[numberOfMigrations];
+		if (numberOfMigrations == 0) {
+			return delays;
+		}
+
+		Map<Host, Integer> hostIndices = new HashMap<Host, Integer>();
+		int[] sources = new int[numberOfMigrations];
+		int[] targets = new int[numberOfMigrations];
+		double[] remaining = new double[numberOfMigrations];
+		double[] capacities = new double[2 * numberOfMigrations];
+		int i = 0;
+		for (Map<String, Object> migrate : migrationMap) {
+			Vm vm = (Vm) migrate.get("vm");
+			Host targetHost = (Host) migrate.get("host");
+			Host sourceHost = vm.getHost();
+			targets[i] = getHostIndex(targetHost, hostIndices, capacities);
+			if (sourceHost == null || sourceHost == targetHost) {
+				sources[i] = -1;
+			} else {
+				sources[i] = getHostIndex(sourceHost, hostIndices, capacities);
+			}
+			remaining[i] = vm.getRam();
+			i++;
+		}
+		int numberOfHosts = hostIndices.size();
+
+		double[] rates = new double[numberOfMigrations];
+		boolean[] active = new boolean[numberOfMigrations];
+		boolean[] fixed = new boolean[numberOfMigrations];
+		double[] residuals = new double[numberOfHosts];
+		int[] counts = new int[numberOfHosts];
+		int numberOfActive = 0;
+		for (i = 0; i < numberOfMigrations; i++) {
+			if (remaining[i] > 0) {
+				active[i] = true;
+				numberOfActive++;
+			}
+		}
+
+		double time = 0;
+		while (numberOfActive > 0) {
+			computeMaxMinRates(
+					sources,
+					targets,
+					active,
+					capacities,
+					numberOfHosts,
+					rates,
+					fixed,
+					residuals,
+					counts);
+
+			double step = Double.POSITIVE_INFINITY;
+			for (i = 0; i < numberOfMigrations; i++) {
+				if (active[i] && rates[i] > 0) {
+					step = Math.min(step, remaining[i] / rates[i]);
+				}
+			}
+			if (step == Double.POSITIVE_INFINITY) {
+				for (i = 0; i < numberOfMigrations; i++) {
+					if (active[i]) {
+						delays[i] = Double.POSITIVE_INFINITY;
+					}
+				}
+				break;
+			}
+
+			time += step;
+			for (i = 0; i < numberOfMigrations; i++) {
+				if (!active[i]) {
+					continue;
+				}
+				double left = remaining[i] - rates[i] * step;
+				if (left <= 1e-9 * remaining[i] + 1e-12) {
+					active[i] = false;
+					delays[i] = time;
+					numberOfActive--;
+				} else {
+					remaining[i] = left;
+				}
+			}
+		}
+		return delays;
+	}
+
+	/**
+	 * Computes the max-min fair rates of the active migrations by progressive filling: the
+	 * interface with the smallest fair share is saturated first, its migrations get that share, and
+	 * the other interfaces are filled with what is left.
+	 *
+	 * @param sources the index of the source host of each migration, or -1
+	 * @param targets the index of the target host of each migration
+	 * @param active whether each migration is active
+	 * @param capacities the migration bandwidth of each host, in MB/s
+	 * @param numberOfHosts the number of hosts
+	 * @param rates the array receiving the rate of each migration, in MB/s
+	 * @param fixed a buffer of one flag per migration
+	 * @param residuals a buffer of one value per host
+	 * @param counts a buffer of one value per host
+	 */
+	protected void computeMaxMinRates(
+			int[] sources,
+			int[] targets,
+			boolean[] active,
+			double[] capacities,
+			int numberOfHosts,
+			double[] rates,
+			boolean[] fixed,
+			double[] residuals,
+			int[] counts) {
+		int numberOfMigrations = active.length;
+		System.arraycopy(capacities, 0, residuals, 0, numberOfHosts);
+		Arrays.fill(counts, 0, numberOfHosts, 0);
+		int numberOfUnfixed = 0;
+		for (int i = 0; i < numberOfMigrations; i++) {
+			rates[i] = 0;
+			fixed[i] = !active[i];
+			if (active[i]) {
+				numberOfUnfixed++;
+				counts[targets[i]]++;
+				if (sources[i] >= 0) {
+					counts[sources[i]]++;
+				}
+			}
+		}
+
+		while (numberOfUnfixed > 0) {
+			int bottleneck = -1;
+			double share = Double.POSITIVE_INFINITY;
+			for (int h = 0; h < numberOfHosts; h++) {
+				if (counts[h] > 0 && residuals[h] / counts[h] < share) {
+					share = residuals[h] / counts[h];
+					bottleneck = h;
+				}
+			}
+			share = Math.max(share, 0);
+			for (int i = 0; i < numberOfMigrations; i++) {
+				if (fixed[i] || (targets[i] != bottleneck && sources[i] != bottleneck)) {
+					continue;
+				}
+				rates[i] = share;
+				fixed[i] = true;
+				numberOfUnfixed--;
+				residuals[targets[i]] -= share;
+				counts[targets[i]]--;
+				if (sources[i] >= 0) {
+					residuals[sources[i]] -= share;
+					counts[sources[i]]--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the index of a host, adding the host and its migration bandwidth if it is new.
+	 *
+	 * @param host the host
+	 * @param hostIndices the indices of the hosts
+	 * @param capacities the migration bandwidth of each host, in MB/s
+	 * @return the index of the host
+	 */
+	private int getHostIndex(Host host, Map<Host, Integer> hostIndices, double[] capacities) {
+		Integer index = hostIndices.get(host);
+		if (index == null) {
+			index = hostIndices.size();
+			hostIndices.put(host, index);
+			capacities[index] = host.getBw() * getBwFraction() / BW_PER_MB;
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the fraction of the bandwidth of a host available for migrations.
+	 *
+	 * @return the bandwidth fraction
+	 */
+	public double getBwFraction() {
+		return bwFraction;
+	}
+
+	/**
+	 * Sets the fraction of the bandwidth of a host available for migrations.
+	 *
+	 * @param bwFraction the new bandwidth fraction
+	 * @throws IllegalArgumentException if the fraction is not in (0, 1]
+	 */
+	public void setBwFraction(double bwFraction) throws IllegalArgumentException {
+		if (bwFraction <= 0 || bwFraction > 1) {
+			throw new IllegalArgumentException("The bandwidth fraction must be in (0, 1]");
+		}
+		this.bwFraction = bwFraction;
+	}
+
+}
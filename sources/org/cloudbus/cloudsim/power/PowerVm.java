@@ -39,6 +39,9 @@ public class PowerVm extends Vm {
 	/** The utilization history. */
 	private final List<Double> utilizationHistory = new LinkedList<Double>();
 
+	/** The number of values added to the utilization history since the VM was created. */
+	private long utilizationHistoryCount;
+
 	/** The previous time. */
 	private double previousTime;
 
@@ -172,6 +175,7 @@ public class PowerVm extends Vm {
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
 		getUtilizationHistory().add(0, utilization);
+		utilizationHistoryCount++;
 		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
 			getUtilizationHistory().remove(HISTORY_LENGTH);
 		}
@@ -186,6 +190,17 @@ public class PowerVm extends Vm {
 		return utilizationHistory;
 	}
 
+	/**
+	 * Gets the number of values added to the utilization history since the VM was created. Unlike
+	 * the size of the history, the count keeps growing after the history reaches
+	 * {@link #HISTORY_LENGTH}, so it can be used to detect newly added values.
+	 * 
+	 * @return the utilization history count
+	 */
+	public long getUtilizationHistoryCount() {
+		return utilizationHistoryCount;
+	}
+
 	/**
 	 * Gets the previous time.
 	 * 
@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -21,18 +22,15 @@ import java.util.Set;
 import org.cloudbus.cloudsim.examples.power.Constants;
 import org.cloudbus.cloudsim.examples.power.bandwidth.BwHelper;
 import org.cloudbus.cloudsim.examples.power.bandwidth.EnergyCalculator;
-import org.cloudbus.cloudsim.examples.power.bandwidth.EnergyFitnessFunction;
-import org.cloudbus.cloudsim.examples.power.bandwidth.EnergyParticle;
-import net.sourceforge.jswarm_pso.Neighborhood;
-import net.sourceforge.jswarm_pso.Neighborhood1D;
-import net.sourceforge.jswarm_pso.Swarm;
-import net.sourceforge.jswarm_pso.example_2.SwarmShow2D;
+import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelTable;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
 
 /**
@@ -80,6 +78,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The execution time history total. */
 	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
 
+	/** The PSO placement optimizer. */
+	private PowerVmPlacementPso placementOptimizer;
+
+	/** The best-fit vm packing. */
+	private PowerVmPackingBestFit vmPacking;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
 	 * 
@@ -760,6 +764,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return migrationMap;
 	}
 	
+	/**
+	 * Gets the new vm placement that packs the vms to migrate on the hosts with the best fit. The
+	 * hosts are filled in decreasing order of utilization, each with the subset of the remaining
+	 * vms that uses most of its available capacity. The vms with the largest requested mips are
+	 * then taken out of the subset until the predicted utilization of the host is below 1.
+	 * 
+	 * @param vmsToMigrate the vms to migrate
+	 * @param excludedHosts the excluded hosts
+	 * @return the new vm placement
+	 */
 	protected List<Map<String, Object>> getNewVmPlacementBestfitVmDP(
 			List<? extends Vm> vmsToMigrate, Set<? extends Host> excludedHosts)
 	{
@@ -771,11 +785,11 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		
 		sortByCpuUtilizationDecrease(potentialHost);
 		
-		List<Vm> migratedVm = new LinkedList<Vm>();
-		for (Vm vm : vmsToMigrate)
-		{
-			migratedVm.add(vm);
-		}
+		List<Vm> migratedVm = new ArrayList<Vm>(vmsToMigrate);
+		double[] vmMips = new double[migratedVm.size()];
+		boolean[] selected = new boolean[migratedVm.size()];
+		List<Vm> packedVms = new ArrayList<Vm>();
+		PowerVmPackingBestFit packing = getVmPacking();
 		
 		for (PowerHost host : potentialHost)
 		{
@@ -784,145 +798,182 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			{
 				break;
 			}
-			int availableUtilization = 100 - (int)(getUtilizationOfCpuMips(host) / host.getTotalMips() * 100);
-			
-			int B[][] = new int[numOfMigratedVms + 1][availableUtilization + 1];
-			Vm C[][][] = new Vm[numOfMigratedVms + 1][availableUtilization + 1][numOfMigratedVms];
-			int lengthC[][] = new int[numOfMigratedVms + 1][availableUtilization + 1];
-			for (int m = 0; m < numOfMigratedVms + 1; m++)
+			for (int i = 0; i < numOfMigratedVms; i++)
 			{
-				for (int n = 0; n < availableUtilization + 1; n++)
-				{
-					lengthC[m][n] = 0;
-				}
+				vmMips[i] = migratedVm.get(i).getCurrentRequestedTotalMips();
 			}
-						
-			for (int w = 0; w < availableUtilization + 1; w++)
+			double availableMips = host.getTotalMips() - getUtilizationOfCpuMips(host);
+			if (packing.pack(vmMips, numOfMigratedVms, host.getTotalMips(), availableMips, selected) == 0)
 			{
-				B[0][w] = 0;
+				continue;
 			}
-			for (int i = 1; i < numOfMigratedVms + 1; i++)
+			
+			packedVms.clear();
+			for (int i = 0; i < numOfMigratedVms; i++)
 			{
-				for (int w = 0; w < availableUtilization + 1; w++)
+				if (selected[i] && host.vmCreate(migratedVm.get(i)))
 				{
-					int vmUtilization = (int) (migratedVm.get(i - 1).getCurrentRequestedTotalMips() / host.getTotalMips() * 100);
-					if (vmUtilization < w)
-					{
-						int prediction = getPredictAfterVmsAllocationThreshold(host, migratedVm.get(i - 1), C[i - 1][w- vmUtilization], lengthC[i - 1][w- vmUtilization], BwHelper.THRESHOLD);
-						
-						if (prediction > B[i - 1][w - vmUtilization] && prediction < 100)
-						{
-							B[i][w] = prediction;
-							C[i][w][lengthC[i][w]] = migratedVm.get(i - 1);
-							lengthC[i][w]++;
-						}
-						else
-						{
-							B[i][w] = B[i - 1][w];
-						}
-					}
-					else
-					{
-						B[i][w] = B[i - 1][w];
-					}
+					packedVms.add(migratedVm.get(i));
 				}
 			}
-						
-			for (int m = 0; m < lengthC[numOfMigratedVms][availableUtilization]; m++)
+			while (!packedVms.isEmpty() && getPredictThreshold(host, BwHelper.THRESHOLD) >= 1)
 			{
-				host.vmCreate(C[numOfMigratedVms][availableUtilization][m]);
-				Log.printLine("VM #" + C[numOfMigratedVms][availableUtilization][m].getId() + " allocated to host #"
-						+ host.getId());
+				host.vmDestroy(packedVms.remove(packedVms.size() - 1));
+			}
+			
+			for (Vm vm : packedVms)
+			{
+				Log.printLine("VM #" + vm.getId() + " allocated to host #" + host.getId());
 				Map<String, Object> migrate = new HashMap<String, Object>();
-				migrate.put("vm", C[numOfMigratedVms][availableUtilization][m]);
+				migrate.put("vm", vm);
 				migrate.put("host", host);
 				migrationMap.add(migrate);
-				migratedVm.remove(C[numOfMigratedVms][availableUtilization][m]);
 			}
+			migratedVm.removeAll(packedVms);
 		}
 		
 		return migrationMap;
 	}
 	
-	private int getPredictAfterVmsAllocationThreshold(PowerHost host, Vm newVm, Vm[] C, int lengthOfC, double threshold)
-	{
-		int predict = 0;
-		for (int i = 0; i < lengthOfC; i++)
-		{
-			if (!host.vmCreate(C[i])) 
-			{
-				break;
+	/**
+	 * Gets the best-fit vm packing, creating one with the default resolution if none is set.
+	 * 
+	 * @return the vm packing
+	 */
+	public PowerVmPackingBestFit getVmPacking() {
+		if (vmPacking == null) {
+			vmPacking = new PowerVmPackingBestFit();
+		}
+		return vmPacking;
+	}
+
+	/**
+	 * Sets the best-fit vm packing.
+	 * 
+	 * @param vmPacking the new vm packing
+	 */
+	public void setVmPacking(PowerVmPackingBestFit vmPacking) {
+		this.vmPacking = vmPacking;
+	}
+	
+	/**
+	 * Gets the new vm placement found by the PSO placement optimizer. The fitness of a placement is
+	 * the power increase of the target hosts plus the transmission energy of the migrations.
+	 * 
+	 * @param vmsToMigrate the vms to migrate
+	 * @param excludedHosts the excluded hosts
+	 * @return the new vm placement
+	 */
+	protected List<Map<String, Object>> getVmMapByPSO(
+			List<? extends Vm> vmsToMigrate,
+			Set<? extends Host> excludedHosts) {
+		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		List<PowerHost> potentialHost = new ArrayList<PowerHost>(getUsefulHostList(vmsToMigrate, excludedHosts));
+		if (vmsToMigrate.isEmpty() || potentialHost.isEmpty()) {
+			return migrationMap;
+		}
+		int numberOfVms = vmsToMigrate.size();
+		int numberOfHosts = potentialHost.size();
+
+		double[] vmMips = new double[numberOfVms];
+		for (int i = 0; i < numberOfVms; i++) {
+			vmMips[i] = vmsToMigrate.get(i).getCurrentRequestedTotalMips();
+		}
+		double[] hostBaseMips = new double[numberOfHosts];
+		double[] hostTotalMips = new double[numberOfHosts];
+		for (int j = 0; j < numberOfHosts; j++) {
+			PowerHost host = potentialHost.get(j);
+			hostBaseMips[j] = getUtilizationOfCpuMips(host);
+			hostTotalMips[j] = host.getTotalMips();
+		}
+		EnergyCalculator energyCalculator = new EnergyCalculator(potentialHost, vmsToMigrate);
+		double[] migrationCosts = new double[numberOfVms * numberOfHosts];
+		for (int i = 0; i < numberOfVms; i++) {
+			for (int j = 0; j < numberOfHosts; j++) {
+				migrationCosts[i * numberOfHosts + j] = energyCalculator.getTransmissionEnergy(i, j);
 			}
 		}
-		if (host.vmCreate(newVm)) 
-		{
-			predict = (int)(getPredictThreshold(host, threshold) * 100);
-			host.vmDestroy(newVm);
+
+		PowerVmPlacementPso optimizer = getPlacementOptimizer();
+		int[] placement = optimizer.optimize(
+				vmMips,
+				hostBaseMips,
+				hostTotalMips,
+				getPowerModelTable(potentialHost),
+				migrationCosts);
+		Log.formatLine(
+				"PSO placement of %d VMs on %d hosts: fitness %.2f after %d iterations",
+				numberOfVms,
+				numberOfHosts,
+				optimizer.getBestFitness(),
+				optimizer.getIterations());
+
+		for (int i = 0; i < numberOfVms; i++) {
+			Vm vm = vmsToMigrate.get(i);
+			PowerHost host = potentialHost.get(placement[i]);
+			host.vmCreate(vm);
+			Map<String, Object> migrate = new HashMap<String, Object>();
+			migrate.put("vm", vm);
+			migrate.put("host", host);
+			migrationMap.add(migrate);
 		}
-		for (int i = 0; i < lengthOfC; i++)
-		{
-			host.vmDestroy(C[i]);
+		return migrationMap;
+	}
+
+	/**
+	 * Gets the power model table of hosts. The rows are taken from the table of the data center of
+	 * the hosts, if it is a power data center, so that the power models are not examined again.
+	 * 
+	 * @param hosts the hosts
+	 * @return the power model table, with one model per host in the order of the hosts
+	 */
+	protected PowerModelTable getPowerModelTable(List<PowerHost> hosts) {
+		Datacenter datacenter = hosts.get(0).getDatacenter();
+		if (datacenter instanceof PowerDatacenter) {
+			List<PowerHost> datacenterHosts = datacenter.<PowerHost> getHostList();
+			Map<Host, Integer> datacenterIndices = new IdentityHashMap<Host, Integer>(datacenterHosts.size());
+			for (int i = 0; i < datacenterHosts.size(); i++) {
+				datacenterIndices.put(datacenterHosts.get(i), i);
+			}
+			int[] indices = new int[hosts.size()];
+			boolean found = true;
+			for (int j = 0; j < hosts.size() && found; j++) {
+				Integer index = datacenterIndices.get(hosts.get(j));
+				found = index != null;
+				indices[j] = found ? index : -1;
+			}
+			if (found) {
+				return new PowerModelTable(((PowerDatacenter) datacenter).getPowerModelTable(), indices);
+			}
 		}
-		return predict;		
+		List<PowerModel> powerModels = new ArrayList<PowerModel>(hosts.size());
+		for (PowerHost host : hosts) {
+			powerModels.add(host.getPowerModel());
+		}
+		return new PowerModelTable(powerModels);
 	}
-	
-	protected List<Map<String, Object>> getVmMapByPSO(
-            List<? extends Vm> vmsToMigrate,
-            Set<? extends Host> excludedHosts){
-        List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
-        List<PowerHost> potentialHost = getUsefulHostList(vmsToMigrate, excludedHosts);
-        int dimension = vmsToMigrate.size();
-        BwHelper.dimension = dimension;
-        EnergyCalculator energyCalculator = new EnergyCalculator(potentialHost, vmsToMigrate);
-        EnergyFitnessFunction fitnessFunction = new EnergyFitnessFunction(energyCalculator);
-        EnergyParticle particle = new EnergyParticle();
-        System.out.println("Begin: Example 1\n");
-
-        // Create a swarm (using 'MyParticle' as sample particle and 'MyFitnessFunction' as fitness function)
-        Swarm swarm = new Swarm(Swarm.DEFAULT_NUMBER_OF_PARTICLES * 4, particle, fitnessFunction);
-
-        // Use neighborhood
-        Neighborhood neigh = new Neighborhood1D(Swarm.DEFAULT_NUMBER_OF_PARTICLES * 4 / 5, true);
-        swarm.setNeighborhood(neigh);
-        swarm.setNeighborhoodIncrement(0.9);
-        swarm.setParticleIncrement(0.8);
-        swarm.setGlobalIncrement(0.8);
-        // Set position (and velocity) constraints. I.e.: where to look for solutions
-        swarm.setInertia(0.95);
-        swarm.setMaxPosition(potentialHost.size()-1);
-        swarm.setMinPosition(0);
-        swarm.setMaxMinVelocity(0.1);
-        int numberOfIterations = 100;
-        boolean showGraphics = false;
-
-        if (showGraphics) {
-            int displayEvery = numberOfIterations / 100 + 1;
-            SwarmShow2D ss2d = new SwarmShow2D(swarm, numberOfIterations, displayEvery, true);
-            ss2d.run();
-        } else {
-            // Optimize (and time it)
-            for (int i = 0; i < numberOfIterations; i++){
-                swarm.evolve();
-                System.out.println(swarm.getBestFitness());
-            }
-        }
-
-        // Print results
-        System.out.println(swarm.toStringStats());
-        System.out.println("End: Example 1");
-        double[] bestPosition = swarm.getBestPosition();
-        for(int i=0; i<bestPosition.length; i++){
-            Map<String, Object> migrate = new HashMap<String, Object>();
-            Vm vm = vmsToMigrate.get(i);
-            migrate.put("vm", vm);
-            PowerHost host = potentialHost.get((int) bestPosition[i]);
-            migrate.put("host", host);
-            host.vmCreate(vm);
-            migrationMap.add(migrate);
-        }
-        return migrationMap;
-    }
-	
+
+	/**
+	 * Gets the PSO placement optimizer, creating one with the default parameters if none is set.
+	 * 
+	 * @return the placement optimizer
+	 */
+	public PowerVmPlacementPso getPlacementOptimizer() {
+		if (placementOptimizer == null) {
+			placementOptimizer = new PowerVmPlacementPso();
+		}
+		return placementOptimizer;
+	}
+
+	/**
+	 * Sets the PSO placement optimizer.
+	 * 
+	 * @param placementOptimizer the new placement optimizer
+	 */
+	public void setPlacementOptimizer(PowerVmPlacementPso placementOptimizer) {
+		this.placementOptimizer = placementOptimizer;
+	}
+
 	protected List<PowerHost> getUsefulHostList(
 			List<? extends Vm> vmsToMigrate, Set<? extends Host> excludedHosts)
 	{
@@ -0,0 +1,281 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A best-fit packing of migrating VMs on a host, solved as a 0/1 knapsack problem that maximizes
+ * the mips packed in the available capacity of the host.
+ *
+ * The capacity of the host is divided in a fixed number of units, the resolution, and the mips
+ * requested by each VM are rounded up to whole units, so a packing never exceeds the available
+ * capacity. The knapsack is solved with a single row of values that is updated in place for every
+ * VM, and the choices are recorded in a bitset of one bit per VM and capacity unit, which is enough
+ * to rebuild the packing. The buffers are reused between hosts, so the memory used only grows with
+ * the largest problem, and it is the number of VMs times the resolution in bits.
+ *
+ * Independent problems, that is hosts with disjoint sets of candidate VMs, can be packed in
+ * parallel with {@link #packAll(double[][], int[], double[], double[], boolean[][])}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmPackingBestFit {
+
+	/** The default resolution, which is the percent of the capacity of the host. */
+	public static final int DEFAULT_RESOLUTION = 100;
+
+	/** The number of capacity units of a host. */
+	private final int resolution;
+
+	/** The number of threads used to pack independent problems. */
+	private final int numberOfThreads;
+
+	/** The best packed mips for each number of capacity units. */
+	private double[] values = new double[0];
+
+	/** The choices, one bit per vm and capacity unit. */
+	private long[] choices = new long[0];
+
+	/** The size of the vms in capacity units. */
+	private int[] weights = new int[0];
+
+	/** The packings used by the threads. */
+	private PowerVmPackingBestFit[] workerPackings;
+
+	/** The executor running the threads. */
+	private ExecutorService executor;
+
+	/**
+	 * Instantiates a new best-fit packing with the default resolution.
+	 */
+	public PowerVmPackingBestFit() {
+		this(DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * Instantiates a new best-fit packing using one thread per available processor.
+	 *
+	 * @param resolution the number of capacity units of a host
+	 */
+	public PowerVmPackingBestFit(int resolution) {
+		this(resolution, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new best-fit packing.
+	 *
+	 * @param resolution the number of capacity units of a host
+	 * @param numberOfThreads the number of threads used to pack independent problems
+	 * @throws IllegalArgumentException if the resolution or the number of threads is not positive
+	 */
+	public PowerVmPackingBestFit(int resolution, int numberOfThreads)
+			throws IllegalArgumentException {
+		if (resolution <= 0 || numberOfThreads <= 0) {
+			throw new IllegalArgumentException("Invalid packing parameters");
+		}
+		this.resolution = resolution;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Packs VMs on a host. A VM requesting no mips is never selected.
+	 *
+	 * @param vmMips the mips requested by the vms
+	 * @param numberOfVms the number of vms, which are the first ones of the arrays
+	 * @param hostTotalMips the total mips of the host
+	 * @param availableMips the mips available on the host
+	 * @param selected the array receiving whether each vm is packed on the host
+	 * @return the number of packed vms
+	 */
+	public int pack(
+			double[] vmMips,
+			int numberOfVms,
+			double hostTotalMips,
+			double availableMips,
+			boolean[] selected) {
+		Arrays.fill(selected, 0, numberOfVms, false);
+		if (numberOfVms == 0 || hostTotalMips <= 0) {
+			return 0;
+		}
+		double unit = hostTotalMips / resolution;
+		int capacity = (int) Math.floor(availableMips / unit);
+		if (capacity <= 0) {
+			return 0;
+		}
+		capacity = Math.min(capacity, resolution);
+		int words = (capacity >> 6) + 1;
+		ensureCapacity(numberOfVms, capacity, words);
+		Arrays.fill(values, 0, capacity + 1, 0);
+
+		for (int i = 0; i < numberOfVms; i++) {
+			int offset = i * words;
+			Arrays.fill(choices, offset, offset + words, 0L);
+			double mips = vmMips[i];
+			if (mips <= 0) {
+				weights[i] = 0;
+				continue;
+			}
+			int weight = (int) Math.ceil(mips / unit);
+			weights[i] = weight;
+			for (int w = capacity; w >= weight; w--) {
+				double value = values[w - weight] + mips;
+				if (value > values[w]) {
+					values[w] = value;
+					choices[offset + (w >> 6)] |= 1L << w;
+				}
+			}
+		}
+
+		int count = 0;
+		int w = capacity;
+		for (int i = numberOfVms - 1; i >= 0 && w > 0; i--) {
+			if ((choices[i * words + (w >> 6)] & (1L << w)) != 0) {
+				selected[i] = true;
+				w -= weights[i];
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Packs independent problems in parallel. Each problem is packed as by
+	 * {@link #pack(double[], int, double, double, boolean[])}, so the problems must not share VMs.
+	 *
+	 * @param vmMips the mips requested by the vms of each problem
+	 * @param numberOfVms the number of vms of each problem
+	 * @param hostTotalMips the total mips of the host of each problem
+	 * @param availableMips the mips available on the host of each problem
+	 * @param selected the arrays receiving whether each vm of each problem is packed
+	 * @return the number of packed vms of each problem
+	 */
+	public int[] packAll(
+			final double[][] vmMips,
+			final int[] numberOfVms,
+			final double[] hostTotalMips,
+			final double[] availableMips,
+			final boolean[][] selected) {
+		final int numberOfProblems = vmMips.length;
+		final int[] counts = new int[numberOfProblems];
+		int threads = Math.min(numberOfThreads, numberOfProblems);
+		if (threads <= 1) {
+			for (int p = 0; p < numberOfProblems; p++) {
+				counts[p] = pack(vmMips[p], numberOfVms[p], hostTotalMips[p], availableMips[p], selected[p]);
+			}
+			return counts;
+		}
+
+		if (workerPackings == null) {
+			workerPackings = new PowerVmPackingBestFit[numberOfThreads];
+			for (int t = 0; t < numberOfThreads; t++) {
+				workerPackings[t] = new PowerVmPackingBestFit(resolution, 1);
+			}
+		}
+		List<Callable<Void>> workers = new ArrayList<Callable<Void>>(threads);
+		for (int t = 0; t < threads; t++) {
+			final PowerVmPackingBestFit packing = workerPackings[t];
+			final int first = t;
+			final int step = threads;
+			workers.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					for (int p = first; p < numberOfProblems; p += step) {
+						counts[p] = packing.pack(
+								vmMips[p],
+								numberOfVms[p],
+								hostTotalMips[p],
+								availableMips[p],
+								selected[p]);
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> future : getExecutor().invokeAll(workers)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The VM packing has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("The VM packing has failed", e.getCause());
+		}
+		return counts;
+	}
+
+	/**
+	 * Grows the buffers if they are too small for a problem.
+	 *
+	 * @param numberOfVms the number of vms
+	 * @param capacity the capacity in units
+	 * @param words the number of words of a row of choices
+	 */
+	private void ensureCapacity(int numberOfVms, int capacity, int words) {
+		if (values.length < capacity + 1) {
+			values = new double[capacity + 1];
+		}
+		if (weights.length < numberOfVms) {
+			weights = new int[numberOfVms];
+		}
+		if (choices.length < numberOfVms * words) {
+			choices = new long[numberOfVms * words];
+		}
+	}
+
+	/**
+	 * Gets the executor, starting its threads if needed.
+	 *
+	 * @return the executor
+	 */
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "PowerVmPackingBestFit");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the threads of the packing.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Gets the resolution.
+	 *
+	 * @return the number of capacity units of a host
+	 */
+	public int getResolution() {
+		return resolution;
+	}
+
+}
@@ -0,0 +1,629 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.power.models.PowerModelTable;
+
+/**
+ * A discrete particle swarm optimizer of the placement of migrating VMs on hosts.
+ *
+ * The position of a particle holds one coordinate per VM, and the integer part of the coordinate
+ * is the index of the host the VM is placed on. The fitness of a placement is the power increase of
+ * the hosts receiving VMs plus the migration cost of every VM, and a placement that overloads a
+ * host is penalized. The CPU utilization of the hosts before the placement is given once, so the
+ * fitness is computed without walking the VM lists of the hosts.
+ *
+ * The state of the swarm is kept in flat arrays that are reused between runs, and the particles
+ * are updated and evaluated in parallel. Every particle has its own random number generator and
+ * the global best position is only updated between iterations, so with a fixed seed the result does
+ * not depend on the number of threads. The optimization stops early when the best fitness has not
+ * improved for a number of iterations.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmPlacementPso {
+
+	/** The default number of particles. */
+	public static final int DEFAULT_NUMBER_OF_PARTICLES = 100;
+
+	/** The default maximum number of iterations. */
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+	/** The default inertia. */
+	public static final double DEFAULT_INERTIA = 0.95;
+
+	/** The default weight of the best position of a particle. */
+	public static final double DEFAULT_PARTICLE_INCREMENT = 0.8;
+
+	/** The default weight of the best position of the swarm. */
+	public static final double DEFAULT_GLOBAL_INCREMENT = 0.8;
+
+	/** The default maximum velocity, as a fraction of the number of hosts. */
+	public static final double DEFAULT_MAX_VELOCITY = 0.1;
+
+	/** The default number of iterations without improvement before stopping. */
+	public static final int DEFAULT_PATIENCE = 10;
+
+	/** The default relative improvement of the best fitness below which it is not improved. */
+	public static final double DEFAULT_TOLERANCE = 1e-6;
+
+	/** The fitness added for a host overloaded by a placement. */
+	public static final double OVERLOAD_PENALTY = 1e9;
+
+	/** The number of particles. */
+	private int numberOfParticles;
+
+	/** The maximum number of iterations. */
+	private int maxIterations;
+
+	/** The number of threads. */
+	private int numberOfThreads;
+
+	/** The number of iterations without improvement before stopping. */
+	private int patience;
+
+	/** The inertia. */
+	private double inertia;
+
+	/** The weight of the best position of a particle. */
+	private double particleIncrement;
+
+	/** The weight of the best position of the swarm. */
+	private double globalIncrement;
+
+	/** The maximum velocity, as a fraction of the number of hosts. */
+	private double maxVelocity;
+
+	/** The relative improvement of the best fitness below which it is not improved. */
+	private double tolerance;
+
+	/** Whether the seed is fixed. */
+	private boolean deterministic;
+
+	/** The seed. */
+	private long seed;
+
+	/** The generator of the seeds when the seed is not fixed. */
+	private final Random seedGenerator = new Random();
+
+	/** The number of iterations of the last run. */
+	private int iterations;
+
+	/** The best fitness of the last run. */
+	private double bestFitness;
+
+	/** The number of vms of the current run. */
+	private int numberOfVms;
+
+	/** The number of hosts of the current run. */
+	private int numberOfHosts;
+
+	/** The requested mips of the vms. */
+	private double[] vmMips;
+
+	/** The utilized mips of the hosts before the placement. */
+	private double[] hostBaseMips;
+
+	/** The total mips of the hosts. */
+	private double[] hostTotalMips;
+
+	/** The power of the hosts before the placement. */
+	private double[] hostBasePower = new double[0];
+
+	/** The migration costs, one row of hosts per vm, or null. */
+	private double[] migrationCosts;
+
+	/** The power model table of the hosts. */
+	private PowerModelTable powerModelTable;
+
+	/** The mips added to each host by the greedy placement of the first particle. */
+	private double[] greedyMips = new double[0];
+
+	/** The positions of the particles, one row of vms per particle. */
+	private double[] positions = new double[0];
+
+	/** The velocities of the particles. */
+	private double[] velocities = new double[0];
+
+	/** The best positions of the particles. */
+	private double[] bestPositions = new double[0];
+
+	/** The best fitness of the particles. */
+	private double[] bestFitnesses = new double[0];
+
+	/** The best position of the swarm. */
+	private double[] globalBestPosition = new double[0];
+
+	/** The random number generators of the particles. */
+	private Random[] randoms = new Random[0];
+
+	/** The workers, each updating a range of particles. */
+	private final List<Worker> workers = new ArrayList<Worker>();
+
+	/** The executor, created on the first parallel run. */
+	private ExecutorService executor;
+
+	/**
+	 * Instantiates a new PSO placement optimizer with the default parameters, using one thread per
+	 * available processor.
+	 */
+	public PowerVmPlacementPso() {
+		this(DEFAULT_NUMBER_OF_PARTICLES, DEFAULT_MAX_ITERATIONS, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Instantiates a new PSO placement optimizer.
+	 *
+	 * @param numberOfParticles the number of particles
+	 * @param maxIterations the maximum number of iterations
+	 * @param numberOfThreads the number of threads evaluating the particles
+	 */
+	public PowerVmPlacementPso(int numberOfParticles, int maxIterations, int numberOfThreads) {
+		if (numberOfParticles < 1 || maxIterations < 0 || numberOfThreads < 1) {
+			throw new IllegalArgumentException("Invalid PSO parameters");
+		}
+		this.numberOfParticles = numberOfParticles;
+		this.maxIterations = maxIterations;
+		this.numberOfThreads = Math.min(numberOfThreads, numberOfParticles);
+		setInertia(DEFAULT_INERTIA);
+		setParticleIncrement(DEFAULT_PARTICLE_INCREMENT);
+		setGlobalIncrement(DEFAULT_GLOBAL_INCREMENT);
+		setMaxVelocity(DEFAULT_MAX_VELOCITY);
+		setPatience(DEFAULT_PATIENCE);
+		setTolerance(DEFAULT_TOLERANCE);
+		int particlesPerWorker = (numberOfParticles + this.numberOfThreads - 1) / this.numberOfThreads;
+		for (int from = 0; from < numberOfParticles; from += particlesPerWorker) {
+			workers.add(new Worker(from, Math.min(from + particlesPerWorker, numberOfParticles)));
+		}
+	}
+
+	/**
+	 * Optimizes the placement of the vms.
+	 *
+	 * @param vmMips the requested mips of each vm
+	 * @param hostBaseMips the utilized mips of each host before the placement
+	 * @param hostTotalMips the total mips of each host
+	 * @param powerModelTable the power model table of the hosts
+	 * @param migrationCosts the cost of migrating each vm to each host, one row of hosts per vm, or
+	 *            null
+	 * @return the index of the host of each vm
+	 */
+	public int[] optimize(
+			double[] vmMips,
+			double[] hostBaseMips,
+			double[] hostTotalMips,
+			PowerModelTable powerModelTable,
+			double[] migrationCosts) {
+		int n = vmMips.length;
+		int h = hostTotalMips.length;
+		if (h == 0 || hostBaseMips.length != h || powerModelTable.size() != h
+				|| (migrationCosts != null && migrationCosts.length != n * h)) {
+			throw new IllegalArgumentException("Inconsistent PSO placement problem");
+		}
+		this.vmMips = vmMips;
+		this.hostBaseMips = hostBaseMips;
+		this.hostTotalMips = hostTotalMips;
+		this.powerModelTable = powerModelTable;
+		this.migrationCosts = migrationCosts;
+		numberOfVms = n;
+		numberOfHosts = h;
+		initialize();
+
+		int stale = 0;
+		iterations = 0;
+		while (iterations < maxIterations && stale < patience) {
+			double previousBestFitness = bestFitness;
+			runWorkers(false);
+			updateGlobalBest();
+			iterations++;
+			if (previousBestFitness - bestFitness > tolerance * Math.abs(previousBestFitness)) {
+				stale = 0;
+			} else {
+				stale++;
+			}
+		}
+
+		int[] placement = new int[n];
+		for (int i = 0; i < n; i++) {
+			placement[i] = (int) globalBestPosition[i];
+		}
+		return placement;
+	}
+
+	/**
+	 * Allocates the buffers if needed and places the particles. The first particle places the vms
+	 * one by one on the host with the lowest cost increase, the others are placed at random.
+	 */
+	protected void initialize() {
+		int n = numberOfVms;
+		int h = numberOfHosts;
+		if (positions.length < numberOfParticles * n) {
+			positions = new double[numberOfParticles * n];
+			velocities = new double[numberOfParticles * n];
+			bestPositions = new double[numberOfParticles * n];
+			globalBestPosition = new double[n];
+		}
+		if (bestFitnesses.length < numberOfParticles) {
+			bestFitnesses = new double[numberOfParticles];
+			randoms = new Random[numberOfParticles];
+		}
+		if (hostBasePower.length < h) {
+			hostBasePower = new double[h];
+		}
+		for (int j = 0; j < h; j++) {
+			hostBasePower[j] = powerModelTable.getPower(j, Math.min(1, hostBaseMips[j] / hostTotalMips[j]));
+		}
+
+		long runSeed = deterministic ? seed : seedGenerator.nextLong();
+		for (int p = 0; p < numberOfParticles; p++) {
+			long particleSeed = runSeed + p * 0x9E3779B97F4A7C15L;
+			if (randoms[p] == null) {
+				randoms[p] = new Random(particleSeed);
+			} else {
+				randoms[p].setSeed(particleSeed);
+			}
+		}
+
+		if (greedyMips.length < h) {
+			greedyMips = new double[h];
+		}
+		Arrays.fill(greedyMips, 0, h, 0);
+		for (int i = 0; i < n; i++) {
+			int bestHost = 0;
+			double bestCost = Double.MAX_VALUE;
+			for (int j = 0; j < h; j++) {
+				double cost = getHostCost(j, greedyMips[j] + vmMips[i]) - getHostCost(j, greedyMips[j]);
+				if (migrationCosts != null) {
+					cost += migrationCosts[i * h + j];
+				}
+				if (cost < bestCost) {
+					bestCost = cost;
+					bestHost = j;
+				}
+			}
+			greedyMips[bestHost] += vmMips[i];
+			positions[i] = bestHost + 0.5;
+		}
+		double velocityLimit = maxVelocity * h;
+		for (int p = 0; p < numberOfParticles; p++) {
+			Random random = randoms[p];
+			for (int i = p * n; i < (p + 1) * n; i++) {
+				if (p > 0) {
+					positions[i] = random.nextDouble() * h;
+				}
+				velocities[i] = (2 * random.nextDouble() - 1) * velocityLimit;
+			}
+		}
+
+		runWorkers(true);
+		bestFitness = Double.MAX_VALUE;
+		updateGlobalBest();
+	}
+
+	/**
+	 * Runs the workers, in parallel if there are several.
+	 *
+	 * @param initialize whether the particles are only evaluated, not moved
+	 */
+	protected void runWorkers(boolean initialize) {
+		for (Worker worker : workers) {
+			worker.setInitialize(initialize);
+		}
+		if (workers.size() == 1) {
+			workers.get(0).call();
+			return;
+		}
+		try {
+			for (Future<Void> future : getExecutor().invokeAll(workers)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The PSO placement has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("The PSO placement has failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Copies the best position of the particles into the best position of the swarm if it is
+	 * better. Ties are broken by the lowest particle index.
+	 */
+	protected void updateGlobalBest() {
+		int best = -1;
+		for (int p = 0; p < numberOfParticles; p++) {
+			if (bestFitnesses[p] < bestFitness) {
+				bestFitness = bestFitnesses[p];
+				best = p;
+			}
+		}
+		if (best >= 0) {
+			System.arraycopy(bestPositions, best * numberOfVms, globalBestPosition, 0, numberOfVms);
+		}
+	}
+
+	/**
+	 * Gets the power increase of a host receiving the given mips, or the overload penalty.
+	 *
+	 * @param host the host index
+	 * @param addedMips the added mips
+	 * @return the cost
+	 */
+	private double getHostCost(int host, double addedMips) {
+		double utilization = (hostBaseMips[host] + addedMips) / hostTotalMips[host];
+		if (utilization > 1) {
+			return OVERLOAD_PENALTY * utilization;
+		}
+		return powerModelTable.getPower(host, utilization) - hostBasePower[host];
+	}
+
+	/**
+	 * Gets the executor.
+	 *
+	 * @return the executor
+	 */
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "PowerVmPlacementPso");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Stops the threads of the optimizer.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Fixes the seed, so that the same problem always gets the same placement.
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		deterministic = true;
+	}
+
+	/**
+	 * Gets the number of iterations of the last run.
+	 *
+	 * @return the iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Gets the best fitness of the last run.
+	 *
+	 * @return the best fitness
+	 */
+	public double getBestFitness() {
+		return bestFitness;
+	}
+
+	/**
+	 * Sets the inertia.
+	 *
+	 * @param inertia the new inertia
+	 */
+	public void setInertia(double inertia) {
+		this.inertia = inertia;
+	}
+
+	/**
+	 * Sets the weight of the best position of a particle.
+	 *
+	 * @param particleIncrement the new particle increment
+	 */
+	public void setParticleIncrement(double particleIncrement) {
+		this.particleIncrement = particleIncrement;
+	}
+
+	/**
+	 * Sets the weight of the best position of the swarm.
+	 *
+	 * @param globalIncrement the new global increment
+	 */
+	public void setGlobalIncrement(double globalIncrement) {
+		this.globalIncrement = globalIncrement;
+	}
+
+	/**
+	 * Sets the maximum velocity, as a fraction of the number of hosts.
+	 *
+	 * @param maxVelocity the new max velocity
+	 */
+	public void setMaxVelocity(double maxVelocity) {
+		this.maxVelocity = maxVelocity;
+	}
+
+	/**
+	 * Sets the number of iterations without improvement before stopping.
+	 *
+	 * @param patience the new patience
+	 */
+	public void setPatience(int patience) {
+		this.patience = patience;
+	}
+
+	/**
+	 * Sets the relative improvement of the best fitness below which it is not improved.
+	 *
+	 * @param tolerance the new tolerance
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Moves and evaluates a range of particles.
+	 */
+	private class Worker implements Callable<Void> {
+
+		/** The first particle. */
+		private final int from;
+
+		/** The particle after the last one. */
+		private final int to;
+
+		/** Whether the particles are only evaluated. */
+		private boolean initialize;
+
+		/** The mips added to each host by the evaluated placement. */
+		private double[] addedMips = new double[0];
+
+		/** The stamp of the last evaluation that placed a vm on each host. */
+		private int[] stamps = new int[0];
+
+		/** The hosts receiving vms in the evaluated placement. */
+		private int[] touchedHosts = new int[0];
+
+		/** The stamp of the current evaluation. */
+		private int stamp;
+
+		/**
+		 * Instantiates a new worker.
+		 *
+		 * @param from the first particle
+		 * @param to the particle after the last one
+		 */
+		public Worker(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Sets whether the particles are only evaluated.
+		 *
+		 * @param initialize whether the particles are only evaluated
+		 */
+		public void setInitialize(boolean initialize) {
+			this.initialize = initialize;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		@Override
+		public Void call() {
+			if (addedMips.length < numberOfHosts) {
+				addedMips = new double[numberOfHosts];
+				stamps = new int[numberOfHosts];
+				stamp = 0;
+			}
+			if (touchedHosts.length < numberOfVms) {
+				touchedHosts = new int[numberOfVms];
+			}
+			for (int p = from; p < to; p++) {
+				if (!initialize) {
+					move(p);
+				}
+				double fitness = evaluate(p);
+				if (initialize || fitness < bestFitnesses[p]) {
+					bestFitnesses[p] = fitness;
+					System.arraycopy(positions, p * numberOfVms, bestPositions, p * numberOfVms, numberOfVms);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Moves a particle.
+		 *
+		 * @param p the particle
+		 */
+		private void move(int p) {
+			Random random = randoms[p];
+			double velocityLimit = maxVelocity * numberOfHosts;
+			double maxPosition = numberOfHosts - 0.5;
+			int offset = p * numberOfVms;
+			for (int i = 0; i < numberOfVms; i++) {
+				int k = offset + i;
+				double x = positions[k];
+				double v = inertia * velocities[k]
+						+ particleIncrement * random.nextDouble() * (bestPositions[k] - x)
+						+ globalIncrement * random.nextDouble() * (globalBestPosition[i] - x);
+				if (v > velocityLimit) {
+					v = velocityLimit;
+				} else if (v < -velocityLimit) {
+					v = -velocityLimit;
+				}
+				x += v;
+				if (x < 0) {
+					x = 0;
+				} else if (x > maxPosition) {
+					x = maxPosition;
+				}
+				velocities[k] = v;
+				positions[k] = x;
+			}
+		}
+
+		/**
+		 * Evaluates the placement of a particle.
+		 *
+		 * @param p the particle
+		 * @return the fitness
+		 */
+		private double evaluate(int p) {
+			if (++stamp == 0) {
+				Arrays.fill(stamps, 0);
+				stamp = 1;
+			}
+			int offset = p * numberOfVms;
+			int numberOfTouchedHosts = 0;
+			double fitness = 0;
+			for (int i = 0; i < numberOfVms; i++) {
+				int host = (int) positions[offset + i];
+				if (stamps[host] != stamp) {
+					stamps[host] = stamp;
+					addedMips[host] = 0;
+					touchedHosts[numberOfTouchedHosts++] = host;
+				}
+				addedMips[host] += vmMips[i];
+				if (migrationCosts != null) {
+					fitness += migrationCosts[i * numberOfHosts + host];
+				}
+			}
+			for (int k = 0; k < numberOfTouchedHosts; k++) {
+				int host = touchedHosts[k];
+				fitness += getHostCost(host, addedMips[host]);
+			}
+			return fitness;
+		}
+
+	}
+
+}
@@ -0,0 +1,394 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The Maximum Correlation (MC) VM selection policy that keeps the covariance of the VM utilization
+ * histories of every host up to date incrementally.
+ *
+ * The original policy fits a multiple linear regression of every VM against all the other VMs of
+ * the host. This policy selects the same VM, but obtains the coefficient of determination of all
+ * the regressions from a single inverse of the covariance matrix of the host VMs using the Schur
+ * complement identity: R^2_i = 1 - 1 / (S_ii * (S^-1)_ii).
+ *
+ * The sums and cross products of the last {@link PowerVm#HISTORY_LENGTH} utilization values of
+ * every VM are kept per host and updated when new values are added to the VM histories, or when
+ * VMs are removed from the host. The state is only rebuilt from the histories when VMs are added to
+ * the host or the histories go out of step. The buffers are reused, so no objects are allocated in
+ * the steady state.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmSelectionPolicyMaximumCorrelationIncremental extends
+		PowerVmSelectionPolicyMaximumCorrelation {
+
+	/** The relative tolerance used to detect a singular covariance matrix. */
+	private static final double SINGULARITY_TOLERANCE = 1e-12;
+
+	/** The per host covariance state. */
+	private final Map<PowerHost, CovarianceState> states = new HashMap<PowerHost, CovarianceState>();
+
+	/** The migratable vms of the host being processed. */
+	private PowerVm[] vms = new PowerVm[0];
+
+	/** The lower triangular work matrix, row major. */
+	private double[] work = new double[0];
+
+	/** The diagonal of the covariance matrix. */
+	private double[] variances = new double[0];
+
+	/** The diagonal of the inverse of the covariance matrix. */
+	private double[] inverseDiagonal = new double[0];
+
+	/**
+	 * Instantiates a new power vm selection policy maximum correlation incremental.
+	 *
+	 * @param fallbackPolicy the fallback policy
+	 */
+	public PowerVmSelectionPolicyMaximumCorrelationIncremental(final PowerVmSelectionPolicy fallbackPolicy) {
+		super(fallbackPolicy);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation#getVmToMigrate(org
+	 * .cloudbus.cloudsim.power.PowerHost)
+	 */
+	@Override
+	public Vm getVmToMigrate(final PowerHost host) {
+		int n = collectMigratableVms(host);
+		if (n == 0) {
+			return null;
+		}
+
+		CovarianceState state = states.get(host);
+		if (state == null) {
+			state = new CovarianceState();
+			states.put(host, state);
+		}
+		state.update(vms, n);
+
+		// the regression of every VM against n - 1 others with an intercept needs more than n samples
+		if (n < 2 || state.size <= n || !computeInverseDiagonal(state, n)) {
+			return getFallbackPolicy().getVmToMigrate(host);
+		}
+
+		double maxMetric = Double.MIN_VALUE;
+		int maxIndex = 0;
+		for (int i = 0; i < n; i++) {
+			double metric = 1 - 1 / (variances[i] * inverseDiagonal[i]);
+			if (metric > maxMetric) {
+				maxMetric = metric;
+				maxIndex = i;
+			}
+		}
+		return vms[maxIndex];
+	}
+
+	/**
+	 * Collects the migratable vms of the host into the reusable vm buffer.
+	 *
+	 * @param host the host
+	 * @return the number of migratable vms
+	 */
+	protected int collectMigratableVms(final PowerHost host) {
+		List<PowerVm> vmList = host.<PowerVm> getVmList();
+		if (vms.length < vmList.size()) {
+			vms = new PowerVm[vmList.size()];
+		}
+		int n = 0;
+		for (int i = 0; i < vmList.size(); i++) {
+			PowerVm vm = vmList.get(i);
+			if (!vm.isInMigration()) {
+				vms[n++] = vm;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Computes the diagonals of the covariance matrix and its inverse using the Cholesky
+	 * decomposition.
+	 *
+	 * @param state the covariance state of the host
+	 * @param n the number of vms
+	 * @return false, if the covariance matrix is singular
+	 */
+	protected boolean computeInverseDiagonal(final CovarianceState state, final int n) {
+		if (work.length < n * n) {
+			work = new double[n * n];
+			variances = new double[n];
+			inverseDiagonal = new double[n];
+		}
+		int m = state.size;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				work[i * n + j] = state.crossProducts[i * state.capacity + j] - state.sums[i]
+						* state.sums[j] / m;
+			}
+			variances[i] = work[i * n + i];
+		}
+
+		// Cholesky decomposition S = L * L^T in place
+		for (int j = 0; j < n; j++) {
+			double d = work[j * n + j];
+			for (int k = 0; k < j; k++) {
+				d -= work[j * n + k] * work[j * n + k];
+			}
+			if (!(d > SINGULARITY_TOLERANCE * variances[j])) {
+				return false;
+			}
+			d = Math.sqrt(d);
+			work[j * n + j] = d;
+			for (int i = j + 1; i < n; i++) {
+				double s = work[i * n + j];
+				for (int k = 0; k < j; k++) {
+					s -= work[i * n + k] * work[j * n + k];
+				}
+				work[i * n + j] = s / d;
+			}
+		}
+
+		// L^-1 in place, then diag(S^-1)_i is the squared norm of the column i of L^-1
+		for (int j = 0; j < n; j++) {
+			work[j * n + j] = 1 / work[j * n + j];
+			for (int i = j + 1; i < n; i++) {
+				double s = 0;
+				for (int k = j; k < i; k++) {
+					s -= work[i * n + k] * work[k * n + j];
+				}
+				work[i * n + j] = s / work[i * n + i];
+			}
+		}
+		for (int j = 0; j < n; j++) {
+			double s = 0;
+			for (int i = j; i < n; i++) {
+				s += work[i * n + j] * work[i * n + j];
+			}
+			inverseDiagonal[j] = s;
+		}
+		return true;
+	}
+
+	/**
+	 * The sums and cross products of the recent utilization values of the vms of a host.
+	 */
+	protected static class CovarianceState {
+
+		/** The window length. */
+		private static final int LENGTH = PowerVm.HISTORY_LENGTH;
+
+		/** The number of vms the buffers can hold. */
+		private int capacity;
+
+		/** The number of vms. */
+		private int numberOfVms;
+
+		/** The number of samples in the window. */
+		private int size;
+
+		/** The ring buffer slot of the most recent sample. */
+		private int head;
+
+		/** The number of incremental updates since the last rebuild. */
+		private int updatesSinceRebuild;
+
+		/** The vm ids. */
+		private int[] vmIds = new int[0];
+
+		/** The indexes of the vms retained on the host. */
+		private int[] retained = new int[0];
+
+		/** The utilization history counts of the vms at the last update. */
+		private long[] historyCounts = new long[0];
+
+		/** The utilization windows of the vms, LENGTH slots per vm. */
+		private double[] windows = new double[0];
+
+		/** The sums of the utilization windows. */
+		private double[] sums = new double[0];
+
+		/** The lower triangle of the cross products, capacity entries per row. */
+		private double[] crossProducts = new double[0];
+
+		/**
+		 * Brings the state up to date with the current vms and their histories.
+		 *
+		 * @param vms the vms
+		 * @param n the number of vms
+		 */
+		protected void update(final PowerVm[] vms, final int n) {
+			if (!retainVms(vms, n)) {
+				rebuild(vms, n);
+				return;
+			}
+			long delta = vms[0].getUtilizationHistoryCount() - historyCounts[0];
+			for (int i = 1; i < n; i++) {
+				if (vms[i].getUtilizationHistoryCount() - historyCounts[i] != delta) {
+					rebuild(vms, n);
+					return;
+				}
+			}
+			if (delta == 0) {
+				return;
+			}
+			if (delta > LENGTH || updatesSinceRebuild + delta > LENGTH
+					|| getMinHistorySize(vms, n) != Math.min(size + (int) delta, LENGTH)) {
+				rebuild(vms, n);
+				return;
+			}
+			for (int k = (int) delta - 1; k >= 0; k--) {
+				head = (head + LENGTH - 1) % LENGTH;
+				if (size == LENGTH) {
+					addSample(head, -1);
+				} else {
+					size++;
+				}
+				for (int i = 0; i < n; i++) {
+					windows[i * LENGTH + head] = vms[i].getUtilizationHistory().get(k);
+				}
+				addSample(head, 1);
+			}
+			for (int i = 0; i < n; i++) {
+				historyCounts[i] = vms[i].getUtilizationHistoryCount();
+			}
+			updatesSinceRebuild += (int) delta;
+		}
+
+		/**
+		 * Drops the vms that have left the host, keeping the order of the remaining ones.
+		 *
+		 * @param vms the vms
+		 * @param n the number of vms
+		 * @return false, if some of the vms are not in the state
+		 */
+		protected boolean retainVms(final PowerVm[] vms, final int n) {
+			if (n > numberOfVms) {
+				return false;
+			}
+			int j = 0;
+			for (int i = 0; i < n; i++) {
+				while (j < numberOfVms && vmIds[j] != vms[i].getId()) {
+					j++;
+				}
+				if (j == numberOfVms) {
+					return false;
+				}
+				retained[i] = j++;
+			}
+			if (n == numberOfVms) {
+				return true;
+			}
+
+			// retained[i] >= i, so moving the entries towards the top left corner in row major order
+			// never overwrites an entry that is still to be moved
+			for (int i = 0; i < n; i++) {
+				int from = retained[i];
+				vmIds[i] = vmIds[from];
+				historyCounts[i] = historyCounts[from];
+				sums[i] = sums[from];
+				System.arraycopy(windows, from * LENGTH, windows, i * LENGTH, LENGTH);
+				for (int l = 0; l <= i; l++) {
+					crossProducts[i * capacity + l] = crossProducts[from * capacity + retained[l]];
+				}
+			}
+			numberOfVms = n;
+			return true;
+		}
+
+		/**
+		 * Recomputes the state from the vm histories.
+		 *
+		 * @param vms the vms
+		 * @param n the number of vms
+		 */
+		protected void rebuild(final PowerVm[] vms, final int n) {
+			if (capacity < n) {
+				capacity = Math.max(n, 2 * capacity);
+				vmIds = new int[capacity];
+				retained = new int[capacity];
+				historyCounts = new long[capacity];
+				windows = new double[capacity * LENGTH];
+				sums = new double[capacity];
+				crossProducts = new double[capacity * capacity];
+			}
+			numberOfVms = n;
+			size = getMinHistorySize(vms, n);
+			head = 0;
+			updatesSinceRebuild = 0;
+			for (int i = 0; i < n; i++) {
+				vmIds[i] = vms[i].getId();
+				historyCounts[i] = vms[i].getUtilizationHistoryCount();
+				int k = 0;
+				for (Double utilization : vms[i].getUtilizationHistory()) {
+					if (k == size) {
+						break;
+					}
+					windows[i * LENGTH + k++] = utilization;
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				sums[i] = 0;
+				for (int j = 0; j <= i; j++) {
+					crossProducts[i * capacity + j] = 0;
+				}
+			}
+			for (int k = 0; k < size; k++) {
+				addSample(k, 1);
+			}
+		}
+
+		/**
+		 * Adds or subtracts the sample stored in the ring buffer slot to the sums.
+		 *
+		 * @param slot the ring buffer slot
+		 * @param sign 1 to add the sample, -1 to subtract it
+		 */
+		private void addSample(final int slot, final int sign) {
+			for (int i = 0; i < numberOfVms; i++) {
+				double xi = sign * windows[i * LENGTH + slot];
+				sums[i] += xi;
+				for (int j = 0; j <= i; j++) {
+					crossProducts[i * capacity + j] += xi * windows[j * LENGTH + slot];
+				}
+			}
+		}
+
+		/**
+		 * Gets the min utilization history size.
+		 *
+		 * @param vms the vms
+		 * @param n the number of vms
+		 * @return the min utilization history size
+		 */
+		private static int getMinHistorySize(final PowerVm[] vms, final int n) {
+			int minSize = LENGTH;
+			for (int i = 0; i < n; i++) {
+				minSize = Math.min(minSize, vms[i].getUtilizationHistory().size());
+			}
+			return minSize;
+		}
+
+	}
+
+}
@@ -59,7 +59,8 @@ public class PowerModelCubic implements PowerModel {
 		if (utilization == 0) {
 			return 0;
 		}
-		return getStaticPower() + getConstant() * Math.pow(utilization * 100, 3);
+		double percent = utilization * 100;
+		return getStaticPower() + getConstant() * percent * percent * percent;
 	}
 
 	/**
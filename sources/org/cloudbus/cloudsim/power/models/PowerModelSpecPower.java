@@ -25,6 +25,12 @@ package org.cloudbus.cloudsim.power.models;
  */
 public abstract class PowerModelSpecPower implements PowerModel {
 
+	/** The number of utilization intervals between the power data points. */
+	static final int INTERVALS = 10;
+
+	/** The intercept and slope of the line through each pair of adjacent power data points. */
+	private volatile double[] segments;
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.cloudbus.cloudsim.power.models.PowerModel#getPower(double)
@@ -34,16 +40,41 @@ public abstract class PowerModelSpecPower implements PowerModel {
 		if (utilization < 0 || utilization > 1) {
 			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
 		}
-		if (utilization % 0.1 == 0) {
-			return getPowerData((int) (utilization * 10));
+		double[] segments = getSegments();
+		int index = 2 * getSegmentIndex(utilization);
+		return segments[index] + segments[index + 1] * utilization;
+	}
+
+	/**
+	 * Gets the index of the segment containing the utilization.
+	 * 
+	 * @param utilization the utilization
+	 * @return the segment index
+	 */
+	static int getSegmentIndex(double utilization) {
+		int index = (int) (utilization * INTERVALS);
+		return index < INTERVALS ? index : INTERVALS - 1;
+	}
+
+	/**
+	 * Gets the segments of the power curve as pairs of intercept and slope. The segments are
+	 * computed once from the power data, so the power is interpolated without calling
+	 * {@link #getPowerData(int)}.
+	 * 
+	 * @return the segments
+	 */
+	double[] getSegments() {
+		double[] segments = this.segments;
+		if (segments == null) {
+			segments = new double[2 * INTERVALS];
+			for (int i = 0; i < INTERVALS; i++) {
+				double slope = (getPowerData(i + 1) - getPowerData(i)) * INTERVALS;
+				segments[2 * i] = getPowerData(i) - slope * i / INTERVALS;
+				segments[2 * i + 1] = slope;
+			}
+			this.segments = segments;
 		}
-		int utilization1 = (int) Math.floor(utilization * 10);
-		int utilization2 = (int) Math.ceil(utilization * 10);
-		double power1 = getPowerData(utilization1);
-		double power2 = getPowerData(utilization2);
-		double delta = (power2 - power1) / 10;
-		double power = power1 + delta * (utilization - (double) utilization1 / 10) * 100;
-		return power;
+		return segments;
 	}
 
 	/**
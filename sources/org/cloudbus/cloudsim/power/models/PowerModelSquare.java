@@ -57,7 +57,8 @@ public class PowerModelSquare implements PowerModel {
 		if (utilization == 0) {
 			return 0;
 		}
-		return getStaticPower() + getConstant() * Math.pow(utilization * 100, 2);
+		double percent = utilization * 100;
+		return getStaticPower() + getConstant() * percent * percent;
 	}
 
 	/**
@@ -0,0 +1,211 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power.models;
+
+import java.util.List;
+
+/**
+ * A precomputed table of the power curves of a list of power models, usually the models of the
+ * hosts of a data center. The power of all the models is computed in one call without virtual
+ * method calls per model.
+ *
+ * The SPECpower based models are stored as the intercept and slope of each of the 10 segments
+ * between their power data points. The linear, square, cubic and square root models are stored as
+ * the coefficients of their closed forms. Any other model is called directly.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerModelTable {
+
+	/** The kind of a SPECpower based model. */
+	private static final int SPEC_POWER = 0;
+
+	/** The kind of a linear model. */
+	private static final int LINEAR = 1;
+
+	/** The kind of a square model. */
+	private static final int SQUARE = 2;
+
+	/** The kind of a cubic model. */
+	private static final int CUBIC = 3;
+
+	/** The kind of a square root model. */
+	private static final int SQRT = 4;
+
+	/** The kind of a model that is not tabulated. */
+	private static final int OTHER = 5;
+
+	/** The number of coefficients stored per model. */
+	private static final int STRIDE = 2 * PowerModelSpecPower.INTERVALS;
+
+	/** The models. */
+	private final PowerModel[] models;
+
+	/** The kinds of the models. */
+	private final int[] kinds;
+
+	/**
+	 * The coefficients of the models: the segments of the SPECpower based models, or the static
+	 * power and the constant per unit of utilization of the closed forms.
+	 */
+	private final double[] coefficients;
+
+	/**
+	 * Instantiates a new power model table.
+	 *
+	 * @param models the power models
+	 */
+	public PowerModelTable(List<? extends PowerModel> models) {
+		int n = models.size();
+		this.models = new PowerModel[n];
+		kinds = new int[n];
+		coefficients = new double[n * STRIDE];
+		for (int i = 0; i < n; i++) {
+			PowerModel model = models.get(i);
+			this.models[i] = model;
+			int offset = i * STRIDE;
+			if (model instanceof PowerModelSpecPower) {
+				kinds[i] = SPEC_POWER;
+				System.arraycopy(((PowerModelSpecPower) model).getSegments(), 0, coefficients, offset, STRIDE);
+			} else if (model instanceof PowerModelLinear) {
+				kinds[i] = LINEAR;
+				coefficients[offset] = ((PowerModelLinear) model).getStaticPower();
+				coefficients[offset + 1] = ((PowerModelLinear) model).getConstant() * 100;
+			} else if (model instanceof PowerModelSquare) {
+				kinds[i] = SQUARE;
+				coefficients[offset] = ((PowerModelSquare) model).getStaticPower();
+				coefficients[offset + 1] = ((PowerModelSquare) model).getConstant() * 100 * 100;
+			} else if (model instanceof PowerModelCubic) {
+				kinds[i] = CUBIC;
+				coefficients[offset] = ((PowerModelCubic) model).getStaticPower();
+				coefficients[offset + 1] = ((PowerModelCubic) model).getConstant() * 100 * 100 * 100;
+			} else if (model instanceof PowerModelSqrt) {
+				kinds[i] = SQRT;
+				coefficients[offset] = ((PowerModelSqrt) model).getStaticPower();
+				coefficients[offset + 1] = ((PowerModelSqrt) model).getConstant() * 10;
+			} else {
+				kinds[i] = OTHER;
+			}
+		}
+	}
+
+	/**
+	 * Instantiates a new power model table with some of the models of a table, for example the
+	 * hosts of a data center that are candidates for a placement. The coefficients are copied from
+	 * the table, without examining the models again.
+	 *
+	 * @param table the table
+	 * @param indices the indices in the table of the models of the new table
+	 */
+	public PowerModelTable(PowerModelTable table, int[] indices) {
+		int n = indices.length;
+		models = new PowerModel[n];
+		kinds = new int[n];
+		coefficients = new double[n * STRIDE];
+		for (int i = 0; i < n; i++) {
+			int index = indices[i];
+			models[i] = table.models[index];
+			kinds[i] = table.kinds[index];
+			System.arraycopy(table.coefficients, index * STRIDE, coefficients, i * STRIDE, STRIDE);
+		}
+	}
+
+	/**
+	 * Gets the number of models in the table.
+	 *
+	 * @return the number of models
+	 */
+	public int size() {
+		return models.length;
+	}
+
+	/**
+	 * Gets the power consumption of a model.
+	 *
+	 * @param index the index of the model
+	 * @param utilization the utilization
+	 * @return the power consumption
+	 * @throws IllegalArgumentException if the utilization is not between 0 and 1
+	 */
+	public double getPower(int index, double utilization) throws IllegalArgumentException {
+		if (utilization < 0 || utilization > 1) {
+			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+		}
+		int offset = index * STRIDE;
+		switch (kinds[index]) {
+			case SPEC_POWER:
+				offset += 2 * PowerModelSpecPower.getSegmentIndex(utilization);
+				return coefficients[offset] + coefficients[offset + 1] * utilization;
+			case LINEAR:
+				if (utilization == 0) {
+					return 0;
+				}
+				return coefficients[offset] + coefficients[offset + 1] * utilization;
+			case SQUARE:
+				if (utilization == 0) {
+					return 0;
+				}
+				return coefficients[offset] + coefficients[offset + 1] * utilization * utilization;
+			case CUBIC:
+				if (utilization == 0) {
+					return 0;
+				}
+				return coefficients[offset] + coefficients[offset + 1] * utilization * utilization
+						* utilization;
+			case SQRT:
+				if (utilization == 0) {
+					return 0;
+				}
+				return coefficients[offset] + coefficients[offset + 1] * Math.sqrt(utilization);
+			default:
+				return models[index].getPower(utilization);
+		}
+	}
+
+	/**
+	 * Gets the power consumption of every model at the corresponding utilization.
+	 *
+	 * @param utilizations the utilization of each model
+	 * @param out the array receiving the power consumption of each model
+	 * @throws IllegalArgumentException if a utilization is not between 0 and 1
+	 */
+	public void getPower(double[] utilizations, double[] out) throws IllegalArgumentException {
+		for (int i = 0; i < models.length; i++) {
+			out[i] = getPower(i, utilizations[i]);
+		}
+	}
+
+	/**
+	 * Gets the energy consumption of every model using linear interpolation of the utilization
+	 * change, as {@link org.cloudbus.cloudsim.power.PowerHost#getEnergyLinearInterpolation(double,
+	 * double, double)} does for a single host.
+	 *
+	 * @param fromUtilizations the from utilization of each model
+	 * @param toUtilizations the to utilization of each model
+	 * @param time the time
+	 * @param out the array receiving the energy consumption of each model
+	 * @throws IllegalArgumentException if a utilization is not between 0 and 1
+	 */
+	public void getEnergyLinearInterpolation(
+			double[] fromUtilizations,
+			double[] toUtilizations,
+			double time,
+			double[] out) throws IllegalArgumentException {
+		for (int i = 0; i < models.length; i++) {
+			if (fromUtilizations[i] == 0) {
+				out[i] = 0;
+				continue;
+			}
+			double fromPower = getPower(i, fromUtilizations[i]);
+			double toPower = getPower(i, toUtilizations[i]);
+			out[i] = (fromPower + (toPower - fromPower) / 2) * time;
+		}
+	}
+
+}
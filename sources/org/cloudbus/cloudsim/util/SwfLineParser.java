@@ -0,0 +1,259 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * SwfLineParser parses the lines of a trace in the Standard Workload Format, given as ranges of a
+ * byte buffer wrapping an array or mapping a file, without creating a string per line or field. The
+ * fields of the last job parsed are kept in the parser.
+ *
+ * @see WorkloadFileReader
+ * @since CloudSim Toolkit 3.0
+ */
+class SwfLineParser {
+
+	/** The line is a job, whose fields are in the parser. */
+	static final int JOB = 0;
+
+	/** The line is empty or a comment. */
+	static final int SKIPPED = 1;
+
+	/** The line is not a valid job. */
+	static final int INVALID = 2;
+
+	/** Means that a field is not in the trace. */
+	static final int IRRELEVANT = -1;
+
+	/** The characters starting a comment line. */
+	private final byte[] comment;
+
+	/** The number of fields of a job line. */
+	private final int maxField;
+
+	/** The index of the job number field, or {@link #IRRELEVANT}. */
+	private final int jobNumField;
+
+	private final int submitTimeField;
+
+	private final int runTimeField;
+
+	private final int numProcField;
+
+	private final int reqNumProcField;
+
+	private final int reqRunTimeField;
+
+	private final int userIdField;
+
+	private final int groupIdField;
+
+	/** The start of each field of the line. */
+	private final int[] fieldStarts;
+
+	/** The end of each field of the line. */
+	private final int[] fieldEnds;
+
+	/** The job number, or -1 if it is not in the trace. */
+	int id;
+
+	/** The submit time. */
+	long submitTime;
+
+	/** The run time, of at least 1 second. */
+	int runTime;
+
+	/** The number of processors, at least 1. */
+	int numProc;
+
+	/** The user estimated run time. */
+	int reqRunTime;
+
+	/** The id of the user. */
+	int userId;
+
+	/** The id of the group of the user. */
+	int groupId;
+
+	/**
+	 * Instantiates a new parser. The fields are numbered from 0.
+	 *
+	 * @param comment the characters starting a comment line
+	 * @param maxField the number of fields of a job line
+	 * @param jobNumField the job number field, or {@link #IRRELEVANT}
+	 * @param submitTimeField the submit time field
+	 * @param runTimeField the run time field
+	 * @param numProcField the number of allocated processors field
+	 * @param reqNumProcField the number of requested processors field
+	 * @param reqRunTimeField the user estimated run time field
+	 * @param userIdField the user id field
+	 * @param groupIdField the group id field
+	 */
+	SwfLineParser(
+			String comment,
+			int maxField,
+			int jobNumField,
+			int submitTimeField,
+			int runTimeField,
+			int numProcField,
+			int reqNumProcField,
+			int reqRunTimeField,
+			int userIdField,
+			int groupIdField) {
+		this.comment = new byte[comment.length()];
+		for (int i = 0; i < this.comment.length; i++) {
+			this.comment[i] = (byte) comment.charAt(i);
+		}
+		this.maxField = maxField;
+		this.jobNumField = jobNumField;
+		this.submitTimeField = submitTimeField;
+		this.runTimeField = runTimeField;
+		this.numProcField = numProcField;
+		this.reqNumProcField = reqNumProcField;
+		this.reqRunTimeField = reqRunTimeField;
+		this.userIdField = userIdField;
+		this.groupIdField = groupIdField;
+		fieldStarts = new int[maxField];
+		fieldEnds = new int[maxField];
+	}
+
+	/**
+	 * Parses a line. A job line has exactly the number of fields given to the parser, separated by
+	 * whitespace.
+	 *
+	 * @param buffer the bytes of the trace
+	 * @param start the position of the first byte of the line
+	 * @param end the position after the last byte of the line
+	 * @return {@link #JOB}, {@link #SKIPPED} or {@link #INVALID}
+	 */
+	int parse(ByteBuffer buffer, int start, int end) {
+		if (startsWithComment(buffer, start, end)) {
+			return SKIPPED;
+		}
+
+		int numberOfFields = 0;
+		int pos = start;
+		while (pos < end) {
+			while (pos < end && isWhitespace(buffer.get(pos))) {
+				pos++;
+			}
+			if (pos == end) {
+				break;
+			}
+			int fieldStart = pos;
+			while (pos < end && !isWhitespace(buffer.get(pos))) {
+				pos++;
+			}
+			if (numberOfFields < maxField) {
+				fieldStarts[numberOfFields] = fieldStart;
+				fieldEnds[numberOfFields] = pos;
+			}
+			numberOfFields++;
+		}
+		if (numberOfFields == 0) {
+			return SKIPPED;
+		}
+		if (numberOfFields != maxField) {
+			return INVALID;
+		}
+
+		try {
+			id = jobNumField == IRRELEVANT ? -1 : (int) parseField(buffer, jobNumField);
+			submitTime = parseField(buffer, submitTimeField);
+			reqRunTime = (int) parseField(buffer, reqRunTimeField);
+
+			// according to the SWF manual, runtime of 0 is possible due
+			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+			runTime = (int) parseField(buffer, runTimeField);
+			if (runTime <= 0) {
+				runTime = 1;
+			}
+
+			userId = (int) parseField(buffer, userIdField);
+			groupId = (int) parseField(buffer, groupIdField);
+
+			// if the required num of allocated processors field is ignored
+			// or zero, then use the actual field
+			numProc = (int) parseField(buffer, reqNumProcField);
+			if (numProc == IRRELEVANT || numProc == 0) {
+				numProc = (int) parseField(buffer, numProcField);
+			}
+			if (numProc <= 0) {
+				numProc = 1;
+			}
+		} catch (NumberFormatException e) {
+			return INVALID;
+		}
+		return JOB;
+	}
+
+	/**
+	 * Checks whether a line starts with the comment characters.
+	 *
+	 * @param buffer the bytes of the trace
+	 * @param start the position of the first byte of the line
+	 * @param end the position after the last byte of the line
+	 * @return true if the line is a comment
+	 */
+	private boolean startsWithComment(ByteBuffer buffer, int start, int end) {
+		if (end - start < comment.length) {
+			return false;
+		}
+		for (int i = 0; i < comment.length; i++) {
+			if (buffer.get(start + i) != comment[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses an integer field.
+	 *
+	 * @param buffer the bytes of the trace
+	 * @param field the index of the field
+	 * @return the value
+	 * @throws NumberFormatException if the field is not an integer that fits in an int
+	 */
+	private long parseField(ByteBuffer buffer, int field) throws NumberFormatException {
+		int pos = fieldStarts[field];
+		int end = fieldEnds[field];
+		boolean negative = buffer.get(pos) == '-';
+		if (negative || buffer.get(pos) == '+') {
+			pos++;
+		}
+		if (pos == end || end - pos > 18) {
+			throw new NumberFormatException();
+		}
+		long value = 0;
+		for (; pos < end; pos++) {
+			int digit = buffer.get(pos) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException();
+			}
+			value = 10 * value + digit;
+		}
+		if (value > Integer.MAX_VALUE) {
+			throw new NumberFormatException();
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Checks whether a byte separates the fields.
+	 *
+	 * @param c the byte
+	 * @return true if it is whitespace
+	 */
+	private static boolean isWhitespace(byte c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+	}
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * SwfTrace holds the jobs of a trace in the Standard Workload Format as columns of primitive values,
+ * one array per field, in the order of the trace. It also counts the lines that are not valid jobs.
+ *
+ * @see WorkloadFileReader#readTrace()
+ * @since CloudSim Toolkit 3.0
+ */
+public class SwfTrace {
+
+	/** The initial capacity of the columns. */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** The number of jobs. */
+	private int numberOfJobs = 0;
+
+	/** The number of lines that are not valid jobs. */
+	private long numberOfInvalidLines = 0;
+
+	private int[] ids;
+
+	private long[] submitTimes;
+
+	private int[] runTimes;
+
+	private int[] numProcs;
+
+	private int[] reqRunTimes;
+
+	private int[] userIds;
+
+	private int[] groupIds;
+
+	/**
+	 * Instantiates a new empty trace.
+	 */
+	SwfTrace() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new empty trace.
+	 *
+	 * @param capacity the number of jobs the columns can hold before growing
+	 */
+	SwfTrace(int capacity) {
+		capacity = Math.max(capacity, 1);
+		ids = new int[capacity];
+		submitTimes = new long[capacity];
+		runTimes = new int[capacity];
+		numProcs = new int[capacity];
+		reqRunTimes = new int[capacity];
+		userIds = new int[capacity];
+		groupIds = new int[capacity];
+	}
+
+	/**
+	 * Adds the job parsed last by a parser.
+	 *
+	 * @param parser the parser
+	 */
+	void add(SwfLineParser parser) {
+		if (numberOfJobs == ids.length) {
+			ensureCapacity(2 * numberOfJobs);
+		}
+		int i = numberOfJobs++;
+		ids[i] = parser.id;
+		submitTimes[i] = parser.submitTime;
+		runTimes[i] = parser.runTime;
+		numProcs[i] = parser.numProc;
+		reqRunTimes[i] = parser.reqRunTime;
+		userIds[i] = parser.userId;
+		groupIds[i] = parser.groupId;
+	}
+
+	/**
+	 * Adds the jobs of another trace, which follow the jobs of this trace, and its invalid lines.
+	 *
+	 * @param trace the other trace
+	 */
+	void addAll(SwfTrace trace) {
+		ensureCapacity(numberOfJobs + trace.numberOfJobs);
+		int n = trace.numberOfJobs;
+		System.arraycopy(trace.ids, 0, ids, numberOfJobs, n);
+		System.arraycopy(trace.submitTimes, 0, submitTimes, numberOfJobs, n);
+		System.arraycopy(trace.runTimes, 0, runTimes, numberOfJobs, n);
+		System.arraycopy(trace.numProcs, 0, numProcs, numberOfJobs, n);
+		System.arraycopy(trace.reqRunTimes, 0, reqRunTimes, numberOfJobs, n);
+		System.arraycopy(trace.userIds, 0, userIds, numberOfJobs, n);
+		System.arraycopy(trace.groupIds, 0, groupIds, numberOfJobs, n);
+		numberOfJobs += n;
+		numberOfInvalidLines += trace.numberOfInvalidLines;
+	}
+
+	/**
+	 * Counts a line that is not a valid job.
+	 */
+	void addInvalidLine() {
+		numberOfInvalidLines++;
+	}
+
+	/**
+	 * Numbers the jobs from 1, in the order of the trace.
+	 */
+	void numberJobs() {
+		for (int i = 0; i < numberOfJobs; i++) {
+			ids[i] = i + 1;
+		}
+	}
+
+	/**
+	 * Grows the columns to hold a number of jobs.
+	 *
+	 * @param capacity the number of jobs
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > ids.length) {
+			capacity = Math.max(capacity, ids.length + (ids.length >> 1));
+			ids = Arrays.copyOf(ids, capacity);
+			submitTimes = Arrays.copyOf(submitTimes, capacity);
+			runTimes = Arrays.copyOf(runTimes, capacity);
+			numProcs = Arrays.copyOf(numProcs, capacity);
+			reqRunTimes = Arrays.copyOf(reqRunTimes, capacity);
+			userIds = Arrays.copyOf(userIds, capacity);
+			groupIds = Arrays.copyOf(groupIds, capacity);
+		}
+	}
+
+	/**
+	 * Gets the number of jobs.
+	 *
+	 * @return the number of jobs
+	 */
+	public int getNumberOfJobs() {
+		return numberOfJobs;
+	}
+
+	/**
+	 * Gets the number of lines that are not valid jobs, like lines with a wrong number of fields or
+	 * with a field that is not an integer. Empty lines and comments are not counted.
+	 *
+	 * @return the number of invalid lines
+	 */
+	public long getNumberOfInvalidLines() {
+		return numberOfInvalidLines;
+	}
+
+	/**
+	 * Gets the id of a job.
+	 *
+	 * @param job the index of the job
+	 * @return the id
+	 */
+	public int getId(int job) {
+		return ids[job];
+	}
+
+	/**
+	 * Gets the submit time of a job.
+	 *
+	 * @param job the index of the job
+	 * @return the submit time
+	 */
+	public long getSubmitTime(int job) {
+		return submitTimes[job];
+	}
+
+	/**
+	 * Gets the run time of a job, of at least 1 second.
+	 *
+	 * @param job the index of the job
+	 * @return the run time
+	 */
+	public int getRunTime(int job) {
+		return runTimes[job];
+	}
+
+	/**
+	 * Gets the number of processors of a job, at least 1.
+	 *
+	 * @param job the index of the job
+	 * @return the number of processors
+	 */
+	public int getNumProc(int job) {
+		return numProcs[job];
+	}
+
+	/**
+	 * Gets the user estimated run time of a job.
+	 *
+	 * @param job the index of the job
+	 * @return the user estimated run time
+	 */
+	public int getReqRunTime(int job) {
+		return reqRunTimes[job];
+	}
+
+	/**
+	 * Gets the id of the user of a job.
+	 *
+	 * @param job the index of the job
+	 * @return the user id
+	 */
+	public int getUserId(int job) {
+		return userIds[job];
+	}
+
+	/**
+	 * Gets the id of the group of the user of a job.
+	 *
+	 * @param job the index of the job
+	 * @return the group id
+	 */
+	public int getGroupId(int job) {
+		return groupIds[job];
+	}
+
+}
@@ -8,19 +8,32 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 
@@ -35,7 +48,11 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * class <tt>each with a unique 
  *      	 entity name</tt>.
  * <li>If size of the trace file is huge or contains lots of traces please increase the JVM heap
- * size accordingly by using <tt>java -Xmx</tt> option when running the simulation.
+ * size accordingly by using <tt>java -Xmx</tt> option when running the simulation, or pull the jobs
+ * one at a time from {@link #stream()} instead of generating the whole list.
+ * <li>The whole trace is parsed in parallel into columns of primitive values by
+ * {@link #readTrace()}, memory-mapping a text file or decompressing a gz or zip file in one thread
+ * while the other threads parse it.
  * <li>The default job file size for sending to and receiving from a resource is
  * {@link gridsim.net.Link#DEFAULT_MTU}. However, you can specify the file size by using
  * {@link #setGridletFileSize(int)}.
@@ -94,9 +111,22 @@ public class WorkloadFileReader implements WorkloadModel {
 	private String COMMENT = ";"; // a string that denotes the start of a
 
 	// comment
-	private static final int IRRELEVANT = -1; // irrelevant number
+	private static final int IRRELEVANT = SwfLineParser.IRRELEVANT; // irrelevant number
 
-	private String[] fieldArray = null; // a temp array storing all the fields
+	/** The size of the buffer the trace is read through. */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The smallest part of a text file parsed by a thread. */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+
+	/** The largest part of a text file parsed by a thread, which is mapped at once. */
+	private static final long MAX_CHUNK_SIZE = 1 << 28;
+
+	/** The size of the blocks of a decompressed file handed to the parsing threads. */
+	private static final int BLOCK_SIZE = 1 << 22;
+
+	/** The number of threads parsing the trace. */
+	private int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
 	/**
 	 * Create a new {@link WorkloadFileReader} object.
@@ -130,7 +160,8 @@ public class WorkloadFileReader implements WorkloadModel {
 	}
 
 	/**
-	 * Reads job information from a given file.
+	 * Reads job information from a given file. The number of lines that are not valid jobs is
+	 * logged.
 	 * 
 	 * @return the list of gridlets read from the file; <code>null</code> in case of failure.
 	 */
@@ -138,26 +169,304 @@ public class WorkloadFileReader implements WorkloadModel {
 	public ArrayList<Cloudlet> generateWorkload() {
 		if (jobs == null) {
 			jobs = new ArrayList<Cloudlet>();
-
-			// create a temp array
-			fieldArray = new String[MAX_FIELD];
-
 			try {
-				if (file.getName().endsWith(".gz")) {
-					readGZIPFile(file);
-				} else if (file.getName().endsWith(".zip")) {
-					readZipFile(file);
-				} else {
-					readFile(file);
+				SwfTrace trace = readTrace();
+				jobs.ensureCapacity(trace.getNumberOfJobs());
+				UtilizationModel utilizationModel = new UtilizationModelFull();
+				for (int i = 0; i < trace.getNumberOfJobs(); i++) {
+					jobs.add(createJob(
+							trace.getId(i),
+							trace.getRunTime(i),
+							trace.getNumProc(i),
+							utilizationModel));
+				}
+				if (trace.getNumberOfInvalidLines() > 0) {
+					Log.printLine("WorkloadFileReader: " + trace.getNumberOfInvalidLines()
+							+ " invalid lines skipped in " + file);
 				}
-			} catch (final FileNotFoundException e) {
 			} catch (final IOException e) {
+				Log.printLine("WorkloadFileReader: error reading " + file + ": " + e.getMessage());
 			}
 		}
 
 		return jobs;
 	}
 
+	/**
+	 * Reads all the jobs of the file into columns. A text file is mapped in memory and split at
+	 * line boundaries into parts parsed in parallel. A gz or zip file is decompressed in the calling
+	 * thread, which hands blocks of whole lines to the parsing threads.
+	 * 
+	 * @return the jobs of the trace
+	 * @throws IOException if the file could not be read
+	 */
+	public SwfTrace readTrace() throws IOException {
+		SwfTrace trace;
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "WorkloadFileReader");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			if (file.getName().endsWith(".gz")) {
+				InputStream input = new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE);
+				try {
+					trace = readCompressedTrace(input, executor);
+				} finally {
+					input.close();
+				}
+			} else if (file.getName().endsWith(".zip")) {
+				trace = new SwfTrace();
+				ZipFile zipFile = new ZipFile(file);
+				try {
+					final Enumeration<? extends ZipEntry> e = zipFile.entries();
+					while (e.hasMoreElements()) {
+						InputStream input = zipFile.getInputStream(e.nextElement());
+						try {
+							trace.addAll(readCompressedTrace(input, executor));
+						} finally {
+							input.close();
+						}
+					}
+				} finally {
+					zipFile.close();
+				}
+			} else {
+				trace = readMappedTrace(executor);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (JOB_NUM == IRRELEVANT) {
+			trace.numberJobs();
+		}
+		return trace;
+	}
+
+	/**
+	 * Reads a text file by mapping parts of it in memory, which are parsed in parallel.
+	 * 
+	 * @param executor the executor parsing the parts
+	 * @return the jobs of the file
+	 * @throws IOException if the file could not be read
+	 */
+	private SwfTrace readMappedTrace(ExecutorService executor) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (4 * numberOfThreads)));
+
+			List<Future<SwfTrace>> results = new ArrayList<Future<SwfTrace>>();
+			long start = 0;
+			while (start < size) {
+				final long chunkStart = start;
+				final long chunkEnd = start + chunkSize >= size ? size : nextLine(raf, start + chunkSize, size);
+				if (chunkEnd - chunkStart > Integer.MAX_VALUE) {
+					throw new IOException("Line too long in workload trace " + file);
+				}
+				results.add(executor.submit(new Callable<SwfTrace>() {
+
+					@Override
+					public SwfTrace call() throws IOException {
+						int length = (int) (chunkEnd - chunkStart);
+						ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, length);
+						return parse(buffer, length);
+					}
+				}));
+				start = chunkEnd;
+			}
+
+			SwfTrace trace = new SwfTrace();
+			for (Future<SwfTrace> result : results) {
+				trace.addAll(getResult(result));
+			}
+			return trace;
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads a compressed stream in blocks of whole lines, which are parsed in parallel while the
+	 * next blocks are decompressed.
+	 * 
+	 * @param input the decompressed stream
+	 * @param executor the executor parsing the blocks
+	 * @return the jobs of the stream
+	 * @throws IOException if the stream could not be read
+	 */
+	private SwfTrace readCompressedTrace(InputStream input, ExecutorService executor)
+			throws IOException {
+		SwfTrace trace = new SwfTrace();
+		LinkedList<Future<SwfTrace>> results = new LinkedList<Future<SwfTrace>>();
+		byte[] block = new byte[BLOCK_SIZE];
+		int length = 0;
+		while (true) {
+			int read = input.read(block, length, block.length - length);
+			if (read < 0) {
+				if (length > 0) {
+					results.add(submitBlock(executor, block, length));
+				}
+				break;
+			}
+			length += read;
+			if (length < block.length) {
+				continue;
+			}
+
+			int lineEnd = length;
+			while (lineEnd > 0 && block[lineEnd - 1] != '\n') {
+				lineEnd--;
+			}
+			if (lineEnd == 0) {
+				// the line does not fit in the block
+				byte[] larger = new byte[2 * block.length];
+				System.arraycopy(block, 0, larger, 0, length);
+				block = larger;
+				continue;
+			}
+			byte[] next = new byte[block.length];
+			System.arraycopy(block, lineEnd, next, 0, length - lineEnd);
+			results.add(submitBlock(executor, block, lineEnd));
+			block = next;
+			length -= lineEnd;
+
+			// the blocks waiting to be parsed are bounded
+			while (results.size() > 2 * numberOfThreads) {
+				trace.addAll(getResult(results.removeFirst()));
+			}
+		}
+		for (Future<SwfTrace> result : results) {
+			trace.addAll(getResult(result));
+		}
+		return trace;
+	}
+
+	/**
+	 * Submits a block of whole lines to be parsed.
+	 * 
+	 * @param executor the executor
+	 * @param block the block
+	 * @param length the number of bytes of the block
+	 * @return the future jobs of the block
+	 */
+	private Future<SwfTrace> submitBlock(ExecutorService executor, final byte[] block, final int length) {
+		return executor.submit(new Callable<SwfTrace>() {
+
+			@Override
+			public SwfTrace call() {
+				return parse(ByteBuffer.wrap(block), length);
+			}
+		});
+	}
+
+	/**
+	 * Parses the lines of a buffer.
+	 * 
+	 * @param buffer the buffer
+	 * @param length the number of bytes of the buffer
+	 * @return the jobs of the buffer
+	 */
+	private SwfTrace parse(ByteBuffer buffer, int length) {
+		SwfLineParser parser = createParser();
+		SwfTrace trace = new SwfTrace(length / 64);
+		int lineStart = 0;
+		while (lineStart < length) {
+			int lineEnd = lineStart;
+			while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int result = parser.parse(buffer, lineStart, lineEnd);
+			if (result == SwfLineParser.JOB) {
+				trace.add(parser);
+			} else if (result == SwfLineParser.INVALID) {
+				trace.addInvalidLine();
+			}
+			lineStart = lineEnd + 1;
+		}
+		return trace;
+	}
+
+	/**
+	 * Waits for the jobs of a part of the file.
+	 * 
+	 * @param result the future jobs
+	 * @return the jobs
+	 * @throws IOException if the part could not be read
+	 */
+	private static SwfTrace getResult(Future<SwfTrace> result) throws IOException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Gets the position after the next new line of a file.
+	 * 
+	 * @param raf the file
+	 * @param pos the position to start from
+	 * @param size the size of the file
+	 * @return the position after the new line, or the size of the file
+	 * @throws IOException if the file could not be read
+	 */
+	private static long nextLine(RandomAccessFile raf, long pos, long size) throws IOException {
+		byte[] bytes = new byte[8192];
+		raf.seek(pos);
+		while (pos < size) {
+			int read = raf.read(bytes);
+			if (read < 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (bytes[i] == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return size;
+	}
+
+	/**
+	 * Sets the number of threads parsing the trace in {@link #readTrace()}.
+	 * 
+	 * @param numberOfThreads the number of threads
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 */
+	public void setNumberOfThreads(int numberOfThreads) throws IllegalArgumentException {
+		if (numberOfThreads <= 0) {
+			throw new IllegalArgumentException("Number of threads must be > 0.");
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Opens a stream over the jobs of the file, which are parsed as they are pulled. The jobs are
+	 * in the order of the file, which is the order of their submit times in a trace of the Standard
+	 * Workload Format. Errors reading the file are thrown by {@link WorkloadStream#hasNext()} as
+	 * {@link IllegalStateException}s caused by the {@link IOException}.
+	 * 
+	 * @return the stream of jobs
+	 * @throws IOException if the file could not be opened
+	 */
+	public WorkloadStream stream() throws IOException {
+		return new FileWorkloadStream();
+	}
+
 	/**
 	 * Identifies the start of a comment line.
 	 * 
@@ -249,33 +558,36 @@ public class WorkloadFileReader implements WorkloadModel {
 	// ------------------- PRIVATE METHODS -------------------
 
 	/**
-	 * Creates a Gridlet with the given information and adds to the list
+	 * Creates a parser for the fields set in this reader.
+	 * 
+	 * @return the parser
+	 */
+	private SwfLineParser createParser() {
+		return new SwfLineParser(
+				COMMENT,
+				MAX_FIELD,
+				JOB_NUM,
+				SUBMIT_TIME,
+				RUN_TIME,
+				NUM_PROC,
+				REQ_NUM_PROC,
+				REQ_RUN_TIME,
+				USER_ID,
+				GROUP_ID);
+	}
+
+	/**
+	 * Creates a Gridlet with the given information.
 	 * 
 	 * @param id a Gridlet ID
-	 * @param submitTime Gridlet's submit time
 	 * @param runTime Gridlet's run time
 	 * @param numProc number of processors
-	 * @param reqRunTime user estimated run time
-	 * @param userID user id
-	 * @param groupID user's group id
-	 * @pre id >= 0
-	 * @pre submitTime >= 0
-	 * @pre runTime >= 0
-	 * @pre numProc > 0
-	 * @post $none
+	 * @param utilizationModel the utilization model of the Gridlet
+	 * @return the Gridlet
 	 */
-	private void createJob(
-			final int id,
-			final long submitTime,
-			final int runTime,
-			final int numProc,
-			final int reqRunTime,
-			final int userID,
-			final int groupID) {
-		// create the cloudlet
-		final int len = runTime * rating;
-		UtilizationModel utilizationModel = new UtilizationModelFull();
-		final Cloudlet wgl = new Cloudlet(
+	private Cloudlet createJob(int id, int runTime, int numProc, UtilizationModel utilizationModel) {
+		final long len = (long) runTime * rating;
+		return new Cloudlet(
 				id,
 				len,
 				numProc,
@@ -284,212 +596,199 @@ public class WorkloadFileReader implements WorkloadModel {
 				utilizationModel,
 				utilizationModel,
 				utilizationModel);
-		jobs.add(wgl);
 	}
 
 	/**
-	 * Extracts relevant information from a given array
-	 * 
-	 * @param array an array of String
-	 * @param line a line number
-	 * @pre array != null
-	 * @pre line > 0
+	 * A stream over the jobs of the file. The file is read through a buffer, and each line is parsed
+	 * in place when the next job is needed. The entries of a zip file are read one after the other.
 	 */
-	private void extractField(final String[] array, final int line) {
-		try {
-			Integer obj = null;
+	private class FileWorkloadStream implements WorkloadStream {
 
-			// get the job number
-			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
-			} else {
-				obj = new Integer(array[JOB_NUM].trim());
-				id = obj.intValue();
-			}
+		private final SwfLineParser parser = createParser();
 
-			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
-			final long submitTime = l.intValue();
+		/** Whether the ids of the jobs are read from the trace, or numbered from 1. */
+		private final boolean numbered = JOB_NUM != IRRELEVANT;
 
-			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
-			final int reqRunTime = obj.intValue();
+		/** The utilization model, shared by the jobs as it has no state. */
+		private final UtilizationModel utilizationModel = new UtilizationModelFull();
 
-			// if the required run time field is ignored, then use
-			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
-			int runTime = obj.intValue();
+		/** The zip file, or null if the file is not a zip file. */
+		private ZipFile zipFile;
 
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
+		/** The entries of the zip file left to read. */
+		private Enumeration<? extends ZipEntry> zipEntries;
 
-			// according to the SWF manual, runtime of 0 is possible due
-			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-			if (runTime <= 0) {
-				runTime = 1; // change to 1 second
-			}
+		/** The stream being read, or null at the end of the file. */
+		private InputStream input;
 
-			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
-			int numProc = obj.intValue();
+		private byte[] buffer = new byte[BUFFER_SIZE];
 
-			// if the required num of allocated processors field is ignored
-			// or zero, then use the actual field
-			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
-				numProc = obj.intValue();
-			}
+		/** The buffer, as parsed. */
+		private ByteBuffer wrappedBuffer = ByteBuffer.wrap(buffer);
 
-			// finally, check if the num of PEs required is valid or not
-			if (numProc <= 0) {
-				numProc = 1;
-			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-		} catch (final Exception e) {
+		/** The position of the next line in the buffer. */
+		private int pos = 0;
 
-		}
-	}
+		/** The end of the bytes read in the buffer. */
+		private int limit = 0;
 
-	/**
-	 * Breaks a line of string into many fields.
-	 * 
-	 * @param line a line of string
-	 * @param lineNum a line number
-	 * @pre line != null
-	 * @pre lineNum > 0
-	 * @post $none
-	 */
-	private void parseValue(final String line, final int lineNum) {
-		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
-		}
+		/** The number of jobs read. */
+		private int numberOfJobs = 0;
 
-		final String[] sp = line.split("\\s+"); // split the fields based on a
-		// space
-		int len = 0; // length of a string
-		int index = 0; // the index of an array
+		/** The next job, or null if it has not been parsed yet. */
+		private Cloudlet nextJob;
 
-		// check for each field in the array
-		for (final String elem : sp) {
-			len = elem.length(); // get the length of a string
+		/** The submit time of the next job. */
+		private long nextSubmitTime;
 
-			// if it is empty then ignore
-			if (len == 0) {
-				continue;
+		/**
+		 * Opens the file.
+		 * 
+		 * @throws IOException if the file could not be opened
+		 */
+		FileWorkloadStream() throws IOException {
+			if (file.getName().endsWith(".zip")) {
+				zipFile = new ZipFile(file);
+				zipEntries = zipFile.entries();
+				nextInput();
+			} else if (file.getName().endsWith(".gz")) {
+				input = new GZIPInputStream(new FileInputStream(file));
+			} else {
+				input = new FileInputStream(file);
 			}
-			fieldArray[index] = elem;
-			index++;
 		}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
+		@Override
+		public boolean hasNext() {
+			if (nextJob == null && input != null) {
+				try {
+					readJob();
+				} catch (IOException e) {
+					close();
+					throw new IllegalStateException("Error reading workload trace " + file, e);
+				}
+			}
+			return nextJob != null;
 		}
-	}
 
-	/**
-	 * Reads a text file one line at the time
-	 * 
-	 * @param fl a file name
-	 * @return <code>true</code> if successful, <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
-	 */
-	private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)));
-
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
+			Cloudlet job = nextJob;
+			nextJob = null;
+			return job;
+		}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		@Override
+		public double getNextSubmitTime() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
+			return nextSubmitTime;
 		}
 
-		return success;
-	}
-
-	/**
-	 * Reads a gzip file one line at the time
-	 * 
-	 * @param fl a gzip file name
-	 * @return <code>true</code> if successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
-	 */
-	private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))));
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+		@Override
+		public void close() {
+			try {
+				if (input != null) {
+					input.close();
+				}
+				if (zipFile != null) {
+					zipFile.close();
+				}
+			} catch (IOException e) {
 			}
+			input = null;
+			zipFile = null;
+		}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		/**
+		 * Reads lines until a job is parsed or the file ends.
+		 * 
+		 * @throws IOException if the file could not be read
+		 */
+		private void readJob() throws IOException {
+			while (input != null) {
+				int lineEnd = pos;
+				while (lineEnd < limit && buffer[lineEnd] != '\n') {
+					lineEnd++;
+				}
+				if (lineEnd == limit) {
+					int oldPos = pos;
+					if (fill()) {
+						continue;
+					}
+					// the line was moved to the start of the buffer
+					lineEnd -= oldPos;
+				}
+				int lineStart = pos;
+				pos = Math.min(lineEnd + 1, limit);
+				if (lineEnd > lineStart
+						&& parser.parse(wrappedBuffer, lineStart, lineEnd) == SwfLineParser.JOB) {
+					numberOfJobs++;
+					int id = numbered ? parser.id : numberOfJobs;
+					nextJob = createJob(id, parser.runTime, parser.numProc, utilizationModel);
+					nextSubmitTime = parser.submitTime;
+					return;
+				}
+				if (pos == limit && lineEnd == limit) {
+					// the last line of the stream had no new line
+					nextInput();
+				}
 			}
 		}
 
-		return success;
-	}
-
-	/**
-	 * Reads a Zip file.
-	 * 
-	 * @param fl a zip file name
-	 * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 */
-	private boolean readZipFile(final File fl) throws IOException {
-		boolean success = false;
-		ZipFile zipFile = null;
-		try {
-			BufferedReader reader = null;
-
-			// ZipFile offers an Enumeration of all the files in the file
-			zipFile = new ZipFile(fl);
-			final Enumeration<? extends ZipEntry> e = zipFile.entries();
-			while (e.hasMoreElements()) {
-				success = false; // reset the value again
-				final ZipEntry zipEntry = e.nextElement();
-
-				reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-
-				// read one line at the time
-				int line = 1;
-				while (reader.ready()) {
-					parseValue(reader.readLine(), line);
-					line++;
-				}
+		/**
+		 * Reads more bytes of the stream after the current line, growing the buffer if the line
+		 * fills it.
+		 * 
+		 * @return true if bytes were read, false at the end of the stream
+		 * @throws IOException if the file could not be read
+		 */
+		private boolean fill() throws IOException {
+			int remaining = limit - pos;
+			if (pos > 0) {
+				System.arraycopy(buffer, pos, buffer, 0, remaining);
+			} else if (remaining == buffer.length) {
+				byte[] larger = new byte[2 * buffer.length];
+				System.arraycopy(buffer, 0, larger, 0, remaining);
+				buffer = larger;
+				wrappedBuffer = ByteBuffer.wrap(buffer);
+			}
+			pos = 0;
+			limit = remaining;
+			int read = input.read(buffer, limit, buffer.length - limit);
+			if (read < 0) {
+				return false;
+			}
+			limit += read;
+			return true;
+		}
 
-				reader.close();
-				success = true;
+		/**
+		 * Moves to the next entry of the zip file, or to the end of the file.
+		 * 
+		 * @throws IOException if the file could not be read
+		 */
+		private void nextInput() throws IOException {
+			if (input != null) {
+				input.close();
+				input = null;
 			}
-		} finally {
-			if (zipFile != null) {
-				zipFile.close();
+			pos = 0;
+			limit = 0;
+			if (zipEntries != null && zipEntries.hasMoreElements()) {
+				input = zipFile.getInputStream(zipEntries.nextElement());
 			}
 		}
 
-		return success;
 	}
+
 }
@@ -0,0 +1,41 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Iterator;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * This interface defines a workload whose jobs are pulled one at a time, in the order of their
+ * submit times, instead of being generated as a list. Only the jobs that have been pulled are held
+ * in memory, so that a broker injecting them by submit time needs memory for the jobs in flight
+ * only.
+ *
+ * @see WorkloadModel
+ * @see WorkloadFileReader#stream()
+ * @since CloudSim Toolkit 3.0
+ */
+public interface WorkloadStream extends Iterator<Cloudlet> {
+
+	/**
+	 * Gets the submit time of the next job, that is returned by {@link #next()}.
+	 *
+	 * @return the submit time of the next job
+	 * @throws java.util.NoSuchElementException if there is no job left
+	 */
+	double getNextSubmitTime();
+
+	/**
+	 * Releases the resources used by the stream, like the trace file. It is called when the last
+	 * job has been pulled, and can be called earlier to stop reading the workload.
+	 */
+	void close();
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+/**
+ * This interface defines a process generating the arrival times of the jobs of a synthetic
+ * workload. The arrival times are generated one after the other, in increasing order, so that a
+ * process needs no memory for the arrivals already generated.
+ *
+ * @see SyntheticWorkload
+ * @since CloudSim Toolkit 3.0
+ */
+public interface ArrivalProcess {
+
+	/**
+	 * Gets the time of the next arrival, and advances the process to it.
+	 *
+	 * @return the time of the next arrival, not smaller than the previous one, or
+	 *         {@link Double#POSITIVE_INFINITY} if there is no arrival left
+	 */
+	double nextArrivalTime();
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import java.util.Random;
+
+import org.cloudbus.cloudsim.distributions.ExponentialDistr;
+
+/**
+ * A Poisson arrival process whose rate follows a daily cycle: the rate is a sinusoid around a
+ * mean rate, with its peak at a given time of the period. The arrivals are generated by thinning:
+ * candidate arrivals are generated at the peak rate, and each one is kept with the probability of
+ * the ratio between the rate at its time and the peak rate.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class DiurnalArrivalProcess implements ArrivalProcess {
+
+	/** The number of seconds in a day. */
+	public static final double DAY = 24 * 60 * 60;
+
+	/** The random number generator. */
+	private final Random random;
+
+	/** The distribution of the exponential variates of mean 1. */
+	private final ExponentialDistr unitExponential;
+
+	/** The mean rate. */
+	private final double meanRate;
+
+	/** The relative amplitude of the variation of the rate around the mean rate. */
+	private final double amplitude;
+
+	/** The period. */
+	private final double period;
+
+	/** The time of the peak in the period. */
+	private final double peakTime;
+
+	/** The peak rate. */
+	private final double peakRate;
+
+	/** The time of the last arrival. */
+	private double time;
+
+	/**
+	 * Instantiates a new diurnal arrival process with a period of a day, starting at time 0.
+	 *
+	 * @param random the random number generator
+	 * @param meanRate the mean number of arrivals per second
+	 * @param amplitude the relative amplitude of the variation of the rate, between 0 and 1
+	 * @param peakTime the time of the peak in the day
+	 * @throws IllegalArgumentException if a parameter is out of range
+	 */
+	public DiurnalArrivalProcess(Random random, double meanRate, double amplitude, double peakTime)
+			throws IllegalArgumentException {
+		this(random, meanRate, amplitude, DAY, peakTime, 0);
+	}
+
+	/**
+	 * Instantiates a new diurnal arrival process.
+	 *
+	 * @param random the random number generator
+	 * @param meanRate the mean number of arrivals per second
+	 * @param amplitude the relative amplitude of the variation of the rate, between 0 and 1
+	 * @param period the period of the cycle
+	 * @param peakTime the time of the peak in the period
+	 * @param startTime the time from which the first arrival is counted
+	 * @throws IllegalArgumentException if a parameter is out of range
+	 */
+	public DiurnalArrivalProcess(
+			Random random,
+			double meanRate,
+			double amplitude,
+			double period,
+			double peakTime,
+			double startTime) throws IllegalArgumentException {
+		if (!(meanRate > 0) || !(amplitude >= 0 && amplitude <= 1) || !(period > 0)) {
+			throw new IllegalArgumentException("Invalid rate, amplitude or period");
+		}
+		this.random = random;
+		unitExponential = new ExponentialDistr(random, 1);
+		this.meanRate = meanRate;
+		this.amplitude = amplitude;
+		this.period = period;
+		this.peakTime = peakTime;
+		peakRate = meanRate * (1 + amplitude);
+		time = startTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.workload.ArrivalProcess#nextArrivalTime()
+	 */
+	@Override
+	public double nextArrivalTime() {
+		do {
+			time += unitExponential.sample() / peakRate;
+		} while (random.nextDouble() * peakRate >= getRate(time));
+		return time;
+	}
+
+	/**
+	 * Gets the arrival rate at a time.
+	 *
+	 * @param time the time
+	 * @return the number of arrivals per second
+	 */
+	public double getRate(double time) {
+		return meanRate * (1 + amplitude * Math.cos(2 * Math.PI * (time - peakTime) / period));
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import java.util.Random;
+
+import org.cloudbus.cloudsim.distributions.ExponentialDistr;
+
+/**
+ * A Markov-modulated Poisson process (MMPP). The process has a number of states, and the jobs
+ * arrive at the rate of the current state. The state changes as a continuous-time Markov chain:
+ * from a state i, the process moves to a state j at the rate given by the element [i][j] of the
+ * transition rate matrix. It models bursty arrivals, for instance with a quiet and a busy state.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class MmppArrivalProcess implements ArrivalProcess {
+
+	/** The random number generator. */
+	private final Random random;
+
+	/** The distribution of the exponential variates of mean 1. */
+	private final ExponentialDistr unitExponential;
+
+	/** The arrival rate of each state. */
+	private final double[] rates;
+
+	/** The transition rates between the states. */
+	private final double[][] transitionRates;
+
+	/** The rate of the events of each state, that is arrivals and transitions. */
+	private final double[] eventRates;
+
+	/** The current state. */
+	private int state;
+
+	/** The time of the last arrival. */
+	private double time;
+
+	/**
+	 * Instantiates a new MMPP.
+	 *
+	 * @param random the random number generator
+	 * @param rates the number of arrivals per second of each state
+	 * @param transitionRates the rate of the transitions from each state to each other state, the
+	 *            diagonal being ignored
+	 * @param initialState the state at the start time
+	 * @param startTime the time from which the first arrival is counted
+	 * @throws IllegalArgumentException if the rates are negative, the matrix is not square with a
+	 *             row per state or the initial state does not exist
+	 */
+	public MmppArrivalProcess(
+			Random random,
+			double[] rates,
+			double[][] transitionRates,
+			int initialState,
+			double startTime) throws IllegalArgumentException {
+		if (transitionRates.length != rates.length || initialState < 0 || initialState >= rates.length) {
+			throw new IllegalArgumentException("Invalid number of states or initial state");
+		}
+		eventRates = new double[rates.length];
+		for (int i = 0; i < rates.length; i++) {
+			if (transitionRates[i].length != rates.length || !(rates[i] >= 0)) {
+				throw new IllegalArgumentException("Invalid rates of state " + i);
+			}
+			eventRates[i] = rates[i];
+			for (int j = 0; j < rates.length; j++) {
+				if (!(transitionRates[i][j] >= 0)) {
+					throw new IllegalArgumentException("Invalid rates of state " + i);
+				}
+				if (j != i) {
+					eventRates[i] += transitionRates[i][j];
+				}
+			}
+		}
+		this.random = random;
+		unitExponential = new ExponentialDistr(random, 1);
+		this.rates = rates.clone();
+		this.transitionRates = new double[rates.length][];
+		for (int i = 0; i < rates.length; i++) {
+			this.transitionRates[i] = transitionRates[i].clone();
+		}
+		state = initialState;
+		time = startTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.workload.ArrivalProcess#nextArrivalTime()
+	 */
+	@Override
+	public double nextArrivalTime() {
+		while (true) {
+			double eventRate = eventRates[state];
+			if (eventRate == 0) {
+				// a state without arrival nor transition
+				time = Double.POSITIVE_INFINITY;
+				return time;
+			}
+			time += unitExponential.sample() / eventRate;
+			double event = random.nextDouble() * eventRate;
+			if (event < rates[state]) {
+				return time;
+			}
+			event -= rates[state];
+			int next = state;
+			for (int j = 0; j < rates.length; j++) {
+				if (j != state && transitionRates[state][j] > 0) {
+					next = j;
+					event -= transitionRates[state][j];
+					if (event < 0) {
+						break;
+					}
+				}
+			}
+			state = next;
+		}
+	}
+
+	/**
+	 * Gets the current state.
+	 *
+	 * @return the state
+	 */
+	public int getState() {
+		return state;
+	}
+
+}
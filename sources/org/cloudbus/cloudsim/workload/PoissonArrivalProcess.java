@@ -0,0 +1,61 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import java.util.Random;
+
+import org.cloudbus.cloudsim.distributions.ExponentialDistr;
+
+/**
+ * A Poisson arrival process, where the jobs arrive at a constant rate and the times between two
+ * arrivals are exponential.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PoissonArrivalProcess extends RenewalArrivalProcess {
+
+	/**
+	 * Instantiates a new Poisson arrival process, starting at time 0.
+	 *
+	 * @param random the random number generator
+	 * @param rate the number of arrivals per second
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	public PoissonArrivalProcess(Random random, double rate) throws IllegalArgumentException {
+		this(random, rate, 0);
+	}
+
+	/**
+	 * Instantiates a new Poisson arrival process.
+	 *
+	 * @param random the random number generator
+	 * @param rate the number of arrivals per second
+	 * @param startTime the time from which the first arrival is counted
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	public PoissonArrivalProcess(Random random, double rate, double startTime)
+			throws IllegalArgumentException {
+		super(new ExponentialDistr(random, checkRate(rate)), startTime);
+	}
+
+	/**
+	 * Checks a rate and gets the mean time between two arrivals.
+	 *
+	 * @param rate the rate
+	 * @return the mean time between two arrivals
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	private static double checkRate(double rate) throws IllegalArgumentException {
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("The rate must be greater than 0.");
+		}
+		return 1 / rate;
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+
+/**
+ * A renewal arrival process, where the times between two arrivals are independent samples of a
+ * distribution.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class RenewalArrivalProcess implements ArrivalProcess {
+
+	/** The distribution of the times between two arrivals. */
+	private final ContinuousDistribution interArrivalTimes;
+
+	/** The time of the last arrival. */
+	private double time;
+
+	/**
+	 * Instantiates a new renewal arrival process.
+	 *
+	 * @param interArrivalTimes the distribution of the times between two arrivals, whose samples
+	 *            must not be negative
+	 * @param startTime the time from which the first arrival is counted
+	 */
+	public RenewalArrivalProcess(ContinuousDistribution interArrivalTimes, double startTime) {
+		this.interArrivalTimes = interArrivalTimes;
+		time = startTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.workload.ArrivalProcess#nextArrivalTime()
+	 */
+	@Override
+	public double nextArrivalTime() {
+		time += interArrivalTimes.sample();
+		return time;
+	}
+
+}
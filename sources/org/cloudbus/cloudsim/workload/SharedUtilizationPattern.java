@@ -0,0 +1,43 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * A utilization pattern where all the jobs share a utilization model, which must have no state
+ * specific to a job, like {@link org.cloudbus.cloudsim.UtilizationModelFull} or a model
+ * depending on the time only.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SharedUtilizationPattern implements UtilizationPattern {
+
+	/** The utilization model. */
+	private final UtilizationModel utilizationModel;
+
+	/**
+	 * Instantiates a new shared utilization pattern.
+	 *
+	 * @param utilizationModel the utilization model of all the jobs
+	 */
+	public SharedUtilizationPattern(UtilizationModel utilizationModel) {
+		this.utilizationModel = utilizationModel;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.workload.UtilizationPattern#getUtilizationModel(int)
+	 */
+	@Override
+	public UtilizationModel getUtilizationModel(int cloudletId) {
+		return utilizationModel;
+	}
+
+}
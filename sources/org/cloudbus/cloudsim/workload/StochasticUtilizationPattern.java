@@ -0,0 +1,62 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelStochasticCounterBased;
+import org.cloudbus.cloudsim.distributions.SplitMixRandom;
+
+/**
+ * A utilization pattern where each job gets a random utilization every time frame. The
+ * utilizations are computed from a seed derived from the seed of the pattern and the id of the
+ * job, by {@link UtilizationModelStochasticCounterBased}, so that the models keep no history and
+ * the workload is reproducible.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class StochasticUtilizationPattern implements UtilizationPattern {
+
+	/** The increment of the SplitMix64 sequence, derived from the golden ratio. */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** The seed. */
+	private final long seed;
+
+	/** The length of a time frame, or 0 if every time is a time frame. */
+	private final double timeQuantum;
+
+	/**
+	 * Instantiates a new stochastic utilization pattern.
+	 *
+	 * @param seed the seed
+	 * @param timeQuantum the length of a time frame, or 0 if every time is a time frame
+	 * @throws IllegalArgumentException if the quantum is negative
+	 */
+	public StochasticUtilizationPattern(long seed, double timeQuantum) throws IllegalArgumentException {
+		if (!(timeQuantum >= 0)) {
+			throw new IllegalArgumentException("The time quantum must be >= 0.");
+		}
+		this.seed = seed;
+		this.timeQuantum = timeQuantum;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.workload.UtilizationPattern#getUtilizationModel(int)
+	 */
+	@Override
+	public UtilizationModel getUtilizationModel(int cloudletId) {
+		// the id of the job is the counter of a SplitMix64 sequence started at the seed of the
+		// pattern, so that all the bits of the seed matter and close ids get unrelated seeds
+		return new UtilizationModelStochasticCounterBased(
+				SplitMixRandom.mix64(seed + cloudletId * GOLDEN_GAMMA),
+				timeQuantum);
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+import org.cloudbus.cloudsim.util.WorkloadStream;
+
+/**
+ * A synthetic workload, whose jobs are generated one at a time when they are pulled. The submit
+ * times are given by an arrival process, the lengths and numbers of PEs by distributions, and the
+ * utilization models by utilization patterns. Submitted to a
+ * {@link org.cloudbus.cloudsim.StreamingDatacenterBroker}, the jobs are created as the simulated
+ * time advances, so that the memory used does not depend on the number of jobs.
+ *
+ * The workload ends after a number of jobs, or at an end time, or when the arrival process has no
+ * arrival left. The jobs are numbered from the first cloudlet id, 0 by default. The parameters are
+ * set before the first job is pulled.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class SyntheticWorkload implements WorkloadStream {
+
+	/** The arrival process. */
+	private final ArrivalProcess arrivals;
+
+	/** The distribution of the lengths, in MI. */
+	private final ContinuousDistribution lengths;
+
+	/** The maximum number of jobs. */
+	private final long maxNumberOfJobs;
+
+	/** The distribution of the numbers of PEs, or null if every job has a single PE. */
+	private ContinuousDistribution numbersOfPes;
+
+	/** The file size of the jobs. */
+	private long fileSize = 0;
+
+	/** The output size of the jobs. */
+	private long outputSize = 0;
+
+	/** The time after which no job is submitted. */
+	private double endTime = Double.POSITIVE_INFINITY;
+
+	/** The CPU utilization pattern. */
+	private UtilizationPattern cpuUtilizationPattern;
+
+	/** The RAM utilization pattern. */
+	private UtilizationPattern ramUtilizationPattern;
+
+	/** The bandwidth utilization pattern. */
+	private UtilizationPattern bwUtilizationPattern;
+
+	/** The id of the next job. */
+	private int nextCloudletId = 0;
+
+	/** The number of jobs generated. */
+	private long numberOfJobs = 0;
+
+	/** Whether the workload has ended. */
+	private boolean closed = false;
+
+	/** The next job, or null if it has not been generated yet. */
+	private Cloudlet nextJob;
+
+	/** The submit time of the next job. */
+	private double nextSubmitTime;
+
+	/**
+	 * Instantiates a new synthetic workload, whose jobs use their resources fully.
+	 *
+	 * @param arrivals the arrival process
+	 * @param lengths the distribution of the lengths of the jobs, in MI
+	 * @param maxNumberOfJobs the maximum number of jobs
+	 */
+	public SyntheticWorkload(ArrivalProcess arrivals, ContinuousDistribution lengths, long maxNumberOfJobs) {
+		this.arrivals = arrivals;
+		this.lengths = lengths;
+		this.maxNumberOfJobs = maxNumberOfJobs;
+		UtilizationPattern full = new SharedUtilizationPattern(new UtilizationModelFull());
+		cpuUtilizationPattern = full;
+		ramUtilizationPattern = full;
+		bwUtilizationPattern = full;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (nextJob == null && !closed) {
+			generateJob();
+		}
+		return nextJob != null;
+	}
+
+	@Override
+	public Cloudlet next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Cloudlet job = nextJob;
+		nextJob = null;
+		return job;
+	}
+
+	@Override
+	public double getNextSubmitTime() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return nextSubmitTime;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+	}
+
+	/**
+	 * Generates the next job, or closes the workload if it has ended.
+	 */
+	private void generateJob() {
+		if (numberOfJobs >= maxNumberOfJobs) {
+			close();
+			return;
+		}
+		double time = arrivals.nextArrivalTime();
+		if (!(time <= endTime)) {
+			close();
+			return;
+		}
+		int id = nextCloudletId++;
+		long length = Math.max(1, Math.round(lengths.sample()));
+		int pes = 1;
+		if (numbersOfPes != null) {
+			pes = (int) Math.max(1, Math.round(numbersOfPes.sample()));
+		}
+		nextJob = new Cloudlet(
+				id,
+				length,
+				pes,
+				fileSize,
+				outputSize,
+				cpuUtilizationPattern.getUtilizationModel(id),
+				ramUtilizationPattern.getUtilizationModel(id),
+				bwUtilizationPattern.getUtilizationModel(id));
+		nextSubmitTime = time;
+		numberOfJobs++;
+	}
+
+	/**
+	 * Gets the number of jobs generated.
+	 *
+	 * @return the number of jobs
+	 */
+	public long getNumberOfJobs() {
+		return numberOfJobs;
+	}
+
+	/**
+	 * Sets the distribution of the numbers of PEs of the jobs, whose samples are rounded to at
+	 * least 1.
+	 *
+	 * @param numbersOfPes the distribution, or null if every job has a single PE
+	 */
+	public void setNumbersOfPes(ContinuousDistribution numbersOfPes) {
+		this.numbersOfPes = numbersOfPes;
+	}
+
+	/**
+	 * Sets the file size of the jobs.
+	 *
+	 * @param fileSize the file size
+	 */
+	public void setFileSize(long fileSize) {
+		this.fileSize = fileSize;
+	}
+
+	/**
+	 * Sets the output size of the jobs.
+	 *
+	 * @param outputSize the output size
+	 */
+	public void setOutputSize(long outputSize) {
+		this.outputSize = outputSize;
+	}
+
+	/**
+	 * Sets the time after which no job is submitted.
+	 *
+	 * @param endTime the end time
+	 */
+	public void setEndTime(double endTime) {
+		this.endTime = endTime;
+	}
+
+	/**
+	 * Sets the CPU utilization pattern.
+	 *
+	 * @param cpuUtilizationPattern the CPU utilization pattern
+	 */
+	public void setCpuUtilizationPattern(UtilizationPattern cpuUtilizationPattern) {
+		this.cpuUtilizationPattern = cpuUtilizationPattern;
+	}
+
+	/**
+	 * Sets the RAM utilization pattern.
+	 *
+	 * @param ramUtilizationPattern the RAM utilization pattern
+	 */
+	public void setRamUtilizationPattern(UtilizationPattern ramUtilizationPattern) {
+		this.ramUtilizationPattern = ramUtilizationPattern;
+	}
+
+	/**
+	 * Sets the bandwidth utilization pattern.
+	 *
+	 * @param bwUtilizationPattern the bandwidth utilization pattern
+	 */
+	public void setBwUtilizationPattern(UtilizationPattern bwUtilizationPattern) {
+		this.bwUtilizationPattern = bwUtilizationPattern;
+	}
+
+	/**
+	 * Sets the id of the first job.
+	 *
+	 * @param firstCloudletId the id of the first job
+	 */
+	public void setFirstCloudletId(int firstCloudletId) {
+		nextCloudletId = firstCloudletId;
+	}
+
+}
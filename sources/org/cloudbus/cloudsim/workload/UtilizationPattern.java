@@ -0,0 +1,30 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.workload;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * This interface defines how the jobs of a synthetic workload use a resource: it gives the
+ * utilization model of each job.
+ *
+ * @see SyntheticWorkload
+ * @since CloudSim Toolkit 3.0
+ */
+public interface UtilizationPattern {
+
+	/**
+	 * Gets the utilization model of a job.
+	 *
+	 * @param cloudletId the id of the job
+	 * @return the utilization model
+	 */
+	UtilizationModel getUtilizationModel(int cloudletId);
+
+}